@@ -0,0 +1,14 @@
+@echo off
+rem Starts Link Manager from its folder, which holds config.ini and session.xml.
+rem The AppCDS archive built by "mvn -B package -Pcds" (from the top folder) is used if it exists.
+rem It only matches the JDK and the jar it was built with; otherwise the JVM starts without it.
+
+cd /d "%~dp0"
+set JAR=%~dp0target\linkmanager-1.0.1.jar
+set JSA=%~dp0target\linkmanager.jsa
+
+if exist "%JSA%" (
+	start "" javaw -XX:SharedArchiveFile="%JSA%" -Xshare:auto -cp "%JAR%" LinkManager %*
+) else (
+	start "" javaw -cp "%JAR%" LinkManager %*
+)
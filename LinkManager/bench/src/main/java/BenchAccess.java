@@ -0,0 +1,59 @@
+import java.io.File;
+import java.util.List;
+
+import linkmanager.bench.AppAccess;
+
+/**
+ * This class lets the JMH benchmarks, which cannot be in the default package, call the program.
+ *
+ * @author Ian Gardea
+ *
+ */
+public class BenchAccess implements AppAccess {
+
+	@Override
+	public Object generateSession(int links, long seed) {
+		return SessionGenerator.generate(links, seed);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void writeSession(Object session, File f) throws Exception {
+		SessionDocument.write((List<SessionDocument.Tab>) session, f);
+	}
+
+	@Override
+	public Object readSession(File f) throws Exception {
+		return SessionDocument.read(f);
+	}
+
+	@Override
+	public String[] generateTargets(int count, long seed) {
+		return SessionGenerator.targets(count, seed);
+	}
+
+	@Override
+	public int determineType(String target) {
+		return CustomLink.determineType(target);
+	}
+
+	@Override
+	public String parseShortcut(File f) throws Exception {
+		return new LinkParser(f).getRealFilename();
+	}
+
+	@Override
+	public String readUrl(File f) throws Exception {
+		return UrlParser.readUrl(f);
+	}
+
+	@Override
+	public Object loadIni(File f) throws Exception {
+		return new IniFile(f.getPath());
+	}
+
+	@Override
+	public String iniValue(Object ini, String section, String key) {
+		return ((IniFile) ini).getString(section, key, null);
+	}
+}
@@ -0,0 +1,139 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This program measures the heap used by a link list backed by each LinkStore when holding the
+ * same links, and what reading a link from it costs.
+ *
+ * The heap is measured for a whole CustomLinkList, so it includes the list's duplicate index,
+ * which keeps a normalized copy of every distinct target whichever store is used. Reading a
+ * link from the columnar store builds a new link and its strings, so reads are timed, and the
+ * bytes they allocate counted where the JVM can count them. Every link is read when the list
+ * is painted, saved, or copied for the control API.
+ *
+ * The links are generated by the SessionGenerator, to look like a large session.
+ *
+ * Usage (after building with Maven):
+ *     java -cp LinkManager/bench/target/benchmarks.jar LinkStoreHeapBenchmark [links]
+ *
+ * @author Ian Gardea
+ *
+ */
+public class LinkStoreHeapBenchmark {
+
+	// The number of times every link is read when measuring reads.
+	private static final int READS = 10;
+
+	// Holds the result of the reads, so they cannot be skipped.
+	private static volatile long sink;
+
+	/**
+	 * @param args - the number of links to store, 200000 by default.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+		System.out.println("Links:    " + count);
+		long objects = measure("objects", new ArrayLinkStore(), count);
+		long columnar = measure("columnar", new ColumnarLinkStore(), count);
+		System.out.printf("saving:   %.1f%%%n", 100.0 * (objects - columnar) / objects);
+	}
+
+	/**
+	 * This function will fill a link list backed by the store, and print the heap it retains and
+	 * the cost of reading its links.
+	 *
+	 * @return - the heap retained by the link list once it holds the links.
+	 * @param name - the name of the store, as printed.
+	 * @param store - the empty store.
+	 * @param count - the number of links to store.
+	 */
+	private static long measure(String name, LinkStore store, int count) throws InterruptedException {
+		long before = usedHeap();
+
+		// Add the links a thousand at a time, as a session is loaded, without holding them all twice.
+		CustomLinkList list = new CustomLinkList(name, store);
+		Random random = new Random(42);
+		List<CustomLink> links = new ArrayList<CustomLink>();
+		for (int i=0; i<count; i++) {
+			links.add(SessionGenerator.link(random, i));
+			if (links.size() == 1000 || i == count - 1) {
+				list.addLinks(links);
+				links.clear();
+			}
+		}
+
+		long after = usedHeap();
+		if (list.getListSize() != count) {
+			throw new IllegalStateException("The list lost links.");
+		}
+		long used = after - before;
+		System.out.println(String.format("%-9s %d KB (%d bytes per link), read %s", name + ":",
+				used / 1024, used / count, readCost(list)));
+		return used;
+	}
+
+	/**
+	 * This function will read every link of the list several times.
+	 *
+	 * @return - the time, and bytes allocated where known, of each read.
+	 * @param list - the link list to read.
+	 */
+	private static String readCost(CustomLinkList list) {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean
+				? (com.sun.management.ThreadMXBean) threads : null;
+
+		// Read once first, so the reads are compiled before they are timed.
+		long checksum = read(list);
+
+		long id = Thread.currentThread().getId();
+		long bytes = allocations == null ? -1 : allocations.getThreadAllocatedBytes(id);
+		long start = System.nanoTime();
+		for (int r=0; r<READS; r++) {
+			checksum += read(list);
+		}
+		long nanos = System.nanoTime() - start;
+		if (allocations != null) {
+			bytes = allocations.getThreadAllocatedBytes(id) - bytes;
+		}
+
+		long reads = (long) READS * list.getListSize();
+		String cost = String.format("%.1f ns", (double) nanos / reads);
+		if (bytes >= 0) {
+			cost += ", " + bytes / reads + " bytes";
+		}
+		sink = checksum;
+		return cost + " per link";
+	}
+
+	/**
+	 * @return - a sum of the links' types and lengths, so the reads cannot be skipped.
+	 * @param list - the link list to read.
+	 */
+	private static long read(CustomLinkList list) {
+		long sum = 0;
+		for (int i=0; i<list.getListSize(); i++) {
+			CustomLink link = list.getLinkAt(i);
+			sum += link.getType() + (link.getName() == null ? 0 : link.getName().length())
+					+ (link.getTarget() == null ? 0 : link.getTarget().length());
+		}
+		return sum;
+	}
+
+	/**
+	 * @return - the heap in use after a full garbage collection.
+	 */
+	private static long usedHeap() throws InterruptedException {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		for (int i=0; i<3; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+}
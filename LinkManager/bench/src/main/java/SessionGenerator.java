@@ -0,0 +1,126 @@
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This program generates synthetic sessions, so the benchmarks can be reproduced on any machine.
+ *
+ * The links are generated to look like a large session: targets on a handful of file servers
+ * and intranet sites, nested a few folders deep, with the odd DOS command and separator. Every
+ * name and target is a separate String, as it would be when read from the session file. The
+ * same seed always generates the same session.
+ *
+ * Usage:
+ *     java -cp LinkManager/bench/target/benchmarks.jar SessionGenerator [links] [file] [seed]
+ *
+ * @author Ian Gardea
+ *
+ */
+public class SessionGenerator {
+
+	// The number of links in each generated tab.
+	public static final int LINKS_PER_TAB = 1000;
+
+	private static final String[] ROOTS = {
+		"\\\\fileserver\\dept\\finance\\reports\\",
+		"\\\\fileserver\\dept\\engineering\\projects\\",
+		"\\\\archive01\\shared\\operations\\procedures\\",
+		"https://intranet.example.com/wiki/display/",
+		"https://intranet.example.com/sites/teams/",
+		"C:\\Users\\operator\\Documents\\",
+	};
+
+	private static final String[] FOLDERS = {
+		"2021", "2022", "2023", "2024", "weekly", "monthly", "archive", "drafts",
+	};
+
+	private static final String[] WORDS = {
+		"Budget", "Review", "Deploy", "Runbook", "Invoice", "Schedule", "Notes", "Status",
+	};
+
+	/**
+	 * @param args - the number of links (10000 by default), the session file to write
+	 *               (session.xml by default), and the seed (42 by default).
+	 */
+	public static void main(String[] args) throws Exception {
+		int links = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		File file = new File(args.length > 1 ? args[1] : "session.xml");
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+
+		SessionDocument.write(generate(links, seed), file);
+		System.out.println("Wrote " + links + " links to " + file.getCanonicalPath());
+	}
+
+	/**
+	 * @return - a session of tabs holding the links, LINKS_PER_TAB to a tab.
+	 * @param links - the number of links.
+	 * @param seed - the seed of the generator.
+	 */
+	public static List<SessionDocument.Tab> generate(int links, long seed) {
+		Random random = new Random(seed);
+		ArrayList<SessionDocument.Tab> tabs = new ArrayList<SessionDocument.Tab>();
+
+		for (int start=0; start<links || tabs.isEmpty(); start+=LINKS_PER_TAB) {
+			int end = Math.min(links, start + LINKS_PER_TAB);
+			ArrayList<CustomLink> tab = new ArrayList<CustomLink>(end - start);
+			for (int i=start; i<end; i++) {
+				tab.add(link(random, i));
+			}
+			tabs.add(new SessionDocument.Tab(WORDS[tabs.size() % WORDS.length] + " " + tabs.size(), null, tab));
+		}
+		return tabs;
+	}
+
+	/**
+	 * @return - the generated link.
+	 * @param random - the generator.
+	 * @param i - the number of the link, which keeps names and targets unique.
+	 */
+	public static CustomLink link(Random random, int i) {
+		String word = WORDS[random.nextInt(WORDS.length)];
+		String name = new StringBuilder().append(word).append(' ').append(i).toString();
+
+		// About one link in fifty is a separator, and one in fifty a DOS command.
+		int kind = random.nextInt(50);
+		if (kind == 0) {
+			return new CustomLink(name);
+		}
+		if (kind == 1) {
+			return new CustomLink(name, "command: ping host" + i + ".example.com", CustomLink.CMD);
+		}
+
+		String target = target(random, word, i);
+		return new CustomLink(name, target, CustomLink.determineType(target));
+	}
+
+	/**
+	 * @return - a generated file, remote path, or web URL.
+	 * @param random - the generator.
+	 * @param word - the word the file is named after.
+	 * @param i - the number of the link.
+	 */
+	public static String target(Random random, String word, int i) {
+		String root = ROOTS[random.nextInt(ROOTS.length)];
+		String folder = FOLDERS[random.nextInt(FOLDERS.length)];
+		boolean web = root.startsWith("http");
+
+		// Build new Strings, as the session parser would.
+		return new StringBuilder(root).append(folder).append(web ? '/' : '\\')
+				.append(word).append('_').append(i).append(web ? "" : ".docx").toString();
+	}
+
+	/**
+	 * @return - the generated targets, including the separators and commands found in a session.
+	 * @param count - the number of targets.
+	 * @param seed - the seed of the generator.
+	 */
+	public static String[] targets(int count, long seed) {
+		Random random = new Random(seed);
+		String[] targets = new String[count];
+		for (int i=0; i<count; i++) {
+			targets[i] = link(random, i).getTarget();
+		}
+		return targets;
+	}
+}
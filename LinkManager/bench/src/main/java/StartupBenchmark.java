@@ -0,0 +1,245 @@
+import java.awt.GraphicsEnvironment;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import linkmanager.bench.SyntheticFiles;
+
+/**
+ * This program builds the class data sharing (AppCDS) archive used to start Link Manager
+ * quickly, and measures how much it helps.
+ *
+ * Both run the program with --training-run, which starts it, shows a session of generated links
+ * (10 tabs of 1000), and exits once every tab is shown. They use a folder of their own, holding
+ * a copy of config.ini and the generated session.xml, so the user's session is never touched.
+ *
+ * --train runs the program once with -XX:ArchiveClassesAtExit (Java 13 or later), saving every
+ * class it loaded to the archive. Otherwise, the program is started several times without
+ * class data sharing, with the JDK's own archive only, and with the program's archive, and
+ * the median time to exit and to a usable window is shown for each.
+ *
+ * The archive only works with the same JDK, and the same program jar at the same path. It must
+ * be built again whenever either changes.
+ *
+ * Usage (run with the JDK the program will be started with):
+ *     java -cp LinkManager/bench/target/benchmarks.jar StartupBenchmark --train [jar] [archive]
+ *     java -cp LinkManager/bench/target/benchmarks.jar StartupBenchmark [jar] [archive] [runs]
+ *
+ * @author Ian Gardea
+ *
+ */
+public class StartupBenchmark {
+
+	private static final String JAR     = "LinkManager/target/linkmanager-1.0.1.jar";
+	private static final String ARCHIVE = "LinkManager/target/linkmanager.jsa";
+	private static final int    LINKS   = 10000;
+	private static final int    RUNS    = 10;
+
+	// The line logged by the program once every tab is shown.
+	private static final Pattern STARTUP = Pattern.compile("could be used after (\\d+) ms.*JVM took (-?\\d+) ms");
+
+	/**
+	 * This class is the time one launch took.
+	 */
+	private static class Launch {
+		private final long exitMillis;
+		private final long usableMillis;
+
+		private Launch(long exitMillis, long usableMillis) {
+			this.exitMillis = exitMillis;
+			this.usableMillis = usableMillis;
+		}
+	}
+
+	/**
+	 * @param args - "--train" to build the archive, then the program's jar and the archive
+	 *               (as built by Maven, by default), then the number of runs to measure.
+	 */
+	public static void main(String[] args) throws Exception {
+		List<String> rest = new ArrayList<String>(Arrays.asList(args));
+		boolean train = rest.remove("--train");
+
+		File jar = new File(rest.size() > 0 ? rest.get(0) : JAR).getCanonicalFile();
+		File archive = new File(rest.size() > 1 ? rest.get(1) : ARCHIVE).getCanonicalFile();
+		int runs = rest.size() > 2 ? Integer.parseInt(rest.get(2)) : RUNS;
+
+		if (!jar.isFile()) {
+			System.err.println("The program's jar was not found: " + jar + ". Build it first: mvn -B package");
+			System.exit(1);
+		}
+
+		File folder = prepare(jar);
+		try {
+			if (train) {
+				train(folder, jar, archive);
+			}
+			else {
+				compare(folder, jar, archive, runs);
+			}
+		}
+		finally {
+			SyntheticFiles.delete(folder);
+		}
+	}
+
+	/**
+	 * This function will run the program once, saving the classes it loads to the archive.
+	 *
+	 * @param folder - the folder to run the program in.
+	 * @param jar - the program's jar.
+	 * @param archive - the archive to create.
+	 */
+	private static void train(File folder, File jar, File archive) throws IOException, InterruptedException {
+		if (javaVersion() < 13) {
+			System.out.println("An AppCDS archive needs Java 13 or later, so none was built; the program will start without one.");
+			return;
+		}
+
+		Files.deleteIfExists(archive.toPath());
+		Launch launch = launch(folder, jar, "-XX:ArchiveClassesAtExit=" + archive.getPath());
+		if (!archive.isFile()) {
+			System.err.println("The training run did not create " + archive);
+			System.exit(1);
+		}
+		System.out.println("Training run took " + launch.exitMillis + " ms; wrote " + archive
+				+ " (" + archive.length() / 1024 + " KB).");
+	}
+
+	/**
+	 * This function will measure starting the program without class data sharing, with the JDK's
+	 * archive, and with the program's archive, if it has been built.
+	 *
+	 * @param folder - the folder to run the program in.
+	 * @param jar - the program's jar.
+	 * @param archive - the program's archive.
+	 * @param runs - the number of times to start the program in each way.
+	 */
+	private static void compare(File folder, File jar, File archive, int runs) throws IOException, InterruptedException {
+		List<String> names = new ArrayList<String>(Arrays.asList("no CDS", "JDK CDS"));
+		List<String[]> options = new ArrayList<String[]>();
+		options.add(new String[] {"-Xshare:off"});
+		options.add(new String[] {});
+		if (archive.isFile()) {
+			names.add("AppCDS");
+			options.add(new String[] {"-XX:SharedArchiveFile=" + archive.getPath(), "-Xshare:auto"});
+		}
+		else {
+			System.out.println("No archive was found at " + archive + ", so only the JDK's archive is measured."
+					+ " Build one with --train, or mvn -B package -Pcds.");
+		}
+
+		// Start each way once first, so every run finds the files in the disk cache.
+		List<List<Launch>> launches = new ArrayList<List<Launch>>();
+		for (String[] option : options) {
+			launch(folder, jar, option);
+			launches.add(new ArrayList<Launch>());
+		}
+
+		// Take turns, so a change in the machine's load affects each way alike.
+		for (int r=0; r<runs; r++) {
+			for (int i=0; i<options.size(); i++) {
+				launches.get(i).add(launch(folder, jar, options.get(i)));
+			}
+		}
+
+		System.out.println(String.format("%-10s %14s %16s %10s", "launch", "median exit ms", "median usable ms", "speed-up"));
+		long baseline = median(launches.get(1), true);
+		for (int i=0; i<options.size(); i++) {
+			long exit = median(launches.get(i), true);
+			System.out.println(String.format("%-10s %14d %16d %9.2fx", names.get(i), exit,
+					median(launches.get(i), false), (double) baseline / exit));
+		}
+	}
+
+	/**
+	 * @return - a folder holding a copy of config.ini, and a generated session.
+	 * @param jar - the program's jar, whose folder's parent holds config.ini.
+	 */
+	private static File prepare(File jar) throws Exception {
+		File folder = SyntheticFiles.newFolder("startup");
+		File config = new File(System.getProperty("startup.config", new File(jar.getParentFile().getParentFile(), "config.ini").getPath()));
+		Files.copy(config.toPath(), new File(folder, "config.ini").toPath(), StandardCopyOption.REPLACE_EXISTING);
+		SessionDocument.write(SessionGenerator.generate(LINKS, 42), new File(folder, "session.xml"));
+		return folder;
+	}
+
+	/**
+	 * This function will run the program with --training-run, and wait for it to exit.
+	 *
+	 * @return - the time until the program exited, and until its window could be used.
+	 * @param folder - the folder to run the program in.
+	 * @param jar - the program's jar.
+	 * @param options - the JVM options to run the program with.
+	 */
+	private static Launch launch(File folder, File jar, String... options) throws IOException, InterruptedException {
+		List<String> command = new ArrayList<String>();
+		command.add(new File(System.getProperty("java.home"), "bin" + File.separator + "java").getPath());
+		command.addAll(Arrays.asList(options));
+		if (GraphicsEnvironment.isHeadless()) {
+			command.add("-Djava.awt.headless=true");
+		}
+		command.add("-cp");
+		command.add(jar.getPath());
+		command.add("LinkManager");
+		command.add("--training-run");
+
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(command).directory(folder).redirectErrorStream(true).start();
+
+		long usable = -1;
+		StringBuilder output = new StringBuilder();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				output.append(line).append('\n');
+				Matcher m = STARTUP.matcher(line);
+				if (m.find()) {
+					usable = Long.parseLong(m.group(1)) + Math.max(0, Long.parseLong(m.group(2)));
+				}
+			}
+		}
+		finally {
+			reader.close();
+		}
+
+		int status = process.waitFor();
+		long exit = (System.nanoTime() - start) / 1000000L;
+		if (status != 0 || usable < 0) {
+			throw new IOException("The program did not finish its training run (exit status " + status + "):\n" + output);
+		}
+		return new Launch(exit, usable);
+	}
+
+	/**
+	 * @return - the median time to exit, or to a usable window.
+	 * @param launches - the launches.
+	 * @param exit - true for the time to exit, false for the time to a usable window.
+	 */
+	private static long median(List<Launch> launches, boolean exit) {
+		List<Long> times = new ArrayList<Long>();
+		for (Launch launch : launches) {
+			times.add(exit ? launch.exitMillis : launch.usableMillis);
+		}
+		Collections.sort(times);
+		return times.get(times.size() / 2);
+	}
+
+	/**
+	 * @return - the major version of the running JVM, such as 8 or 17.
+	 */
+	private static int javaVersion() {
+		String version = System.getProperty("java.specification.version");
+		return Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+	}
+}
@@ -0,0 +1,424 @@
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import javax.swing.JFrame;
+import javax.swing.JTable;
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
+
+/**
+ * This program measures the time the GUI thread spends, and the memory it allocates, on the
+ * operations of a link pane: refreshing it, checking every link with the "select all" check
+ * box, dragging a link to a new position, and deleting the checked links. Each operation is
+ * measured together with the painting it causes, on panes of several sizes.
+ *
+ * With a screen (or a virtual one, such as Xvfb), each pane is shown in a window, and the
+ * areas each operation marks for repainting are painted. Without one (java.awt.headless=true),
+ * the pane is laid out and painted into an image instead.
+ *
+ * The results are compared against the limits in ui-thresholds.properties (or the file named
+ * by -Dui.thresholds), and the program exits with status 1 if any median exceeds its limit.
+ *
+ * Usage (from the LinkManager folder, which holds config.ini):
+ *     bench/ui-bench.sh [sizes]
+ *     java -Djava.awt.headless=true -cp bench/target/benchmarks.jar UiBenchmark [sizes]
+ *
+ * @author Ian Gardea
+ *
+ */
+public class UiBenchmark {
+
+	private static final int[] SIZES  = {100, 1000, 10000, 100000};
+	private static final int   WARMUP = 5;
+	private static final int   RUNS   = 20;
+	private static final int   WIDTH  = 480;
+	private static final int   HEIGHT = 600;
+
+	// The number of rows a link is dragged across.
+	private static final int DRAG_ROWS = 20;
+
+	// One link in this many is checked before deleting.
+	private static final int DELETE_EVERY = 10;
+
+	/**
+	 * This class is an operation on a pane, with the untimed work that readies the pane for it.
+	 */
+	private abstract static class Operation {
+		private final String name;
+
+		private Operation(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Readies the pane for the operation. This is not measured.
+		 */
+		void prepare() {
+		}
+
+		/**
+		 * Performs the operation.
+		 */
+		abstract void run();
+	}
+
+	/**
+	 * This class holds the measurements of one operation on one size of pane.
+	 */
+	private static class Result {
+		private final String operation;
+		private final int    size;
+		private final long[] nanos = new long[RUNS];
+		private final long[] bytes = new long[RUNS];
+
+		private Result(String operation, int size) {
+			this.operation = operation;
+			this.size = size;
+		}
+
+		private double medianMillis() {
+			return percentile(nanos, 50) / 1e6;
+		}
+
+		private double p90Millis() {
+			return percentile(nanos, 90) / 1e6;
+		}
+
+		private double medianKB() {
+			return percentile(bytes, 50) / 1024.0;
+		}
+	}
+
+	private final boolean        headless = GraphicsEnvironment.isHeadless();
+	private final BufferedImage  image    = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+	private final List<Result>   results  = new ArrayList<Result>();
+
+	private CustomLinkPane pane;
+	private JFrame         frame;
+	private List<CustomLink> links;
+	private boolean        dragDown;
+
+	/**
+	 * @param args - the pane sizes to measure, separated by commas (100,1000,10000,100000 by default).
+	 */
+	public static void main(String[] args) throws Exception {
+		int[] sizes = SIZES;
+		if (args.length > 0) {
+			String[] parts = args[0].split(",");
+			sizes = new int[parts.length];
+			for (int i=0; i<parts.length; i++) {
+				sizes[i] = Integer.parseInt(parts[i].trim());
+			}
+		}
+
+		UiBenchmark benchmark = new UiBenchmark();
+		System.out.println("Mode: " + (benchmark.headless ? "headless (painting into an image)" : "screen " + System.getenv("DISPLAY")));
+		for (int size : sizes) {
+			benchmark.measure(size);
+		}
+
+		int failures = benchmark.report(loadThresholds());
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+	/**
+	 * Measures every operation on a pane of the size.
+	 *
+	 * @param size - the number of links in the pane.
+	 */
+	private void measure(final int size) throws Exception {
+		links = new ArrayList<CustomLink>(size);
+		for (SessionDocument.Tab tab : SessionGenerator.generate(size, 42)) {
+			links.addAll(tab.getLinks());
+		}
+
+		SwingUtilities.invokeAndWait(new Runnable() {
+			public void run() {
+				pane = new CustomLinkPane();
+				pane.getLinkList().addLinks(links);
+				if (headless) {
+					pane.setSize(WIDTH, HEIGHT);
+				}
+				else {
+					frame = new JFrame("UiBenchmark");
+					frame.add(pane);
+					frame.setSize(WIDTH, HEIGHT);
+					frame.setVisible(true);
+				}
+				paint();
+			}
+		});
+
+		for (Operation operation : operations()) {
+			Result result = new Result(operation.name, size);
+			for (int i=-WARMUP; i<RUNS; i++) {
+				long[] sample = time(operation);
+				if (i >= 0) {
+					result.nanos[i] = sample[0];
+					result.bytes[i] = sample[1];
+				}
+			}
+			results.add(result);
+		}
+
+		SwingUtilities.invokeAndWait(new Runnable() {
+			public void run() {
+				pane.close();
+				if (frame != null) {
+					frame.dispose();
+				}
+			}
+		});
+	}
+
+	/**
+	 * @return - the operations to measure, in order.
+	 */
+	private List<Operation> operations() {
+		return Arrays.asList(
+			new Operation("refresh") {
+				void run() {
+					pane.refresh();
+				}
+			},
+			new Operation("selectAll") {
+				void prepare() {
+					pane.clearSelection();
+				}
+
+				void run() {
+					pane.setAllSelected(true);
+				}
+			},
+			new Operation("reorder") {
+				void prepare() {
+					pane.clearSelection();
+				}
+
+				void run() {
+					// Drag the top link down, then back up on the next run.
+					int from = dragDown ? DRAG_ROWS : 0;
+					int to = dragDown ? 0 : DRAG_ROWS;
+					dragDown = !dragDown;
+					drag(from, to);
+				}
+			},
+			new Operation("delete") {
+				void prepare() {
+					pane.clearSelection();
+
+					// Put back the links deleted by the previous run.
+					CustomLinkList list = pane.getLinkList();
+					if (list.getListSize() < links.size()) {
+						list.addLinks(new ArrayList<CustomLink>(links.subList(0, links.size() - list.getListSize())));
+					}
+					for (int row=0; row<list.getListSize(); row+=DELETE_EVERY) {
+						pane.getLinkTableModel().setValueAt(true, row, LinkTableModel.CHECK_BOX_COLUMN);
+					}
+					paint();
+				}
+
+				void run() {
+					pane.doDelete();
+				}
+			});
+	}
+
+	/**
+	 * @return - the nanoseconds and bytes allocated by the GUI thread to perform the operation and paint its results.
+	 * @param operation - the operation.
+	 */
+	private long[] time(final Operation operation) throws Exception {
+		final long[] sample = new long[2];
+		SwingUtilities.invokeAndWait(new Runnable() {
+			public void run() {
+				operation.prepare();
+
+				long bytes = allocatedBytes();
+				long start = System.nanoTime();
+				operation.run();
+				paint();
+				sample[0] = System.nanoTime() - start;
+				sample[1] = allocatedBytes() - bytes;
+			}
+		});
+		return sample;
+	}
+
+	/**
+	 * Paints the pane: on screen, only the areas marked for repainting; otherwise, all of it into an image.
+	 */
+	private void paint() {
+		if (headless) {
+			layout(pane);
+			java.awt.Graphics2D g = image.createGraphics();
+			try {
+				g.setClip(0, 0, WIDTH, HEIGHT);
+				pane.paint(g);
+			}
+			finally {
+				g.dispose();
+			}
+		}
+		else {
+			RepaintManager manager = RepaintManager.currentManager(pane);
+			manager.validateInvalidComponents();
+			manager.paintDirtyRegions();
+		}
+	}
+
+	/**
+	 * Lays out a component and everything in it, as a window would.
+	 *
+	 * @param c - the component.
+	 */
+	private static void layout(Component c) {
+		if (c instanceof Container) {
+			Container container = (Container) c;
+			container.doLayout();
+			for (Component child : container.getComponents()) {
+				layout(child);
+			}
+		}
+	}
+
+	/**
+	 * Drags a link from one row to another with the mouse, one row at a time.
+	 *
+	 * @param from - the row of the link.
+	 * @param to - the row to drop it on.
+	 */
+	private void drag(int from, int to) {
+		JTable table = pane.getLinkTable();
+		Rectangle cell = table.getCellRect(from, LinkTableModel.NAME_COLUMN, true);
+		int x = cell.x + cell.width / 2;
+
+		mouse(table, MouseEvent.MOUSE_PRESSED, x, rowY(table, from));
+		int step = to > from ? 1 : -1;
+		for (int row = from + step; row != to + step; row += step) {
+			mouse(table, MouseEvent.MOUSE_DRAGGED, x, rowY(table, row));
+		}
+		mouse(table, MouseEvent.MOUSE_RELEASED, x, rowY(table, to));
+	}
+
+	/**
+	 * @return - the vertical middle of a row.
+	 * @param table - the table.
+	 * @param row - the row.
+	 */
+	private static int rowY(JTable table, int row) {
+		Rectangle cell = table.getCellRect(row, LinkTableModel.NAME_COLUMN, true);
+		return cell.y + cell.height / 2;
+	}
+
+	/**
+	 * Sends a left mouse button event to the table. Without a screen, the table's own mouse
+	 * handling cannot run, so the event is only given to the listener that drags links.
+	 *
+	 * @param table - the table.
+	 * @param id - the kind of event.
+	 * @param x - the horizontal position.
+	 * @param y - the vertical position.
+	 */
+	private void mouse(JTable table, int id, int x, int y) {
+		MouseEvent e = new MouseEvent(table, id, System.currentTimeMillis(),
+				id == MouseEvent.MOUSE_RELEASED ? 0 : InputEvent.BUTTON1_DOWN_MASK,
+				x, y, 1, false, MouseEvent.BUTTON1);
+		if (!headless) {
+			table.dispatchEvent(e);
+			return;
+		}
+
+		MouseAdapter handler = (MouseAdapter) table.getClientProperty(TableTransferHandler.class);
+		switch (id) {
+		case MouseEvent.MOUSE_PRESSED:  handler.mousePressed(e);  break;
+		case MouseEvent.MOUSE_DRAGGED:  handler.mouseDragged(e);  break;
+		case MouseEvent.MOUSE_RELEASED: handler.mouseReleased(e); break;
+		default: break;
+		}
+	}
+
+	/**
+	 * @return - the bytes allocated by the current thread so far, or 0 if the JVM cannot tell.
+	 */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+
+	/**
+	 * @return - the value at the percentile of the values.
+	 * @param values - the values.
+	 * @param percentile - the percentile, from 0 to 100.
+	 */
+	private static long percentile(long[] values, int percentile) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+	}
+
+	/**
+	 * @return - the limits, from -Dui.thresholds if set, or else those packaged with the benchmarks.
+	 */
+	private static Properties loadThresholds() throws IOException {
+		Properties thresholds = new Properties();
+		String path = System.getProperty("ui.thresholds");
+		InputStream in = path != null ? new FileInputStream(path)
+				: UiBenchmark.class.getResourceAsStream("/ui-thresholds.properties");
+		if (in != null) {
+			try {
+				thresholds.load(in);
+			}
+			finally {
+				in.close();
+			}
+		}
+		return thresholds;
+	}
+
+	/**
+	 * Prints the results, marking each one over its limit.
+	 *
+	 * @return - the number of results over their limits.
+	 * @param thresholds - the limits, as operation.size.ms and operation.size.kb.
+	 */
+	private int report(Properties thresholds) {
+		int failures = 0;
+		System.out.printf("%-10s %8s %10s %10s %12s %12s %12s%n",
+				"operation", "links", "median ms", "p90 ms", "limit ms", "median KB", "limit KB");
+		for (Result r : results) {
+			String key = r.operation + "." + r.size;
+			double limitMs = Double.parseDouble(thresholds.getProperty(key + ".ms", "-1"));
+			double limitKB = Double.parseDouble(thresholds.getProperty(key + ".kb", "-1"));
+
+			boolean slow = limitMs >= 0 && r.medianMillis() > limitMs;
+			boolean large = limitKB >= 0 && r.medianKB() > limitKB;
+			if (slow || large) {
+				failures++;
+			}
+
+			System.out.printf("%-10s %8d %10.3f %10.3f %12s %12.1f %12s%s%n",
+					r.operation, r.size, r.medianMillis(), r.p90Millis(), limitMs < 0 ? "-" : String.valueOf(limitMs),
+					r.medianKB(), limitKB < 0 ? "-" : String.valueOf(limitKB), slow || large ? "  REGRESSION" : "");
+		}
+		System.out.println(failures == 0 ? "All operations are within their limits." : failures + " operation(s) exceeded their limits.");
+		return failures;
+	}
+}
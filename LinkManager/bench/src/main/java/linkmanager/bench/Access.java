@@ -0,0 +1,25 @@
+package linkmanager.bench;
+
+/**
+ * This class loads the program's implementation of AppAccess.
+ *
+ * @author Ian Gardea
+ *
+ */
+final class Access {
+
+	private Access() {
+	}
+
+	/**
+	 * @return - a new instance of BenchAccess, from the default package.
+	 */
+	static AppAccess load() {
+		try {
+			return (AppAccess) Class.forName("BenchAccess").getDeclaredConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("BenchAccess could not be loaded.", e);
+		}
+	}
+}
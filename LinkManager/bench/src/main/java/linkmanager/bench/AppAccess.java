@@ -0,0 +1,77 @@
+package linkmanager.bench;
+
+import java.io.File;
+
+/**
+ * This interface gives the benchmarks access to the program's classes.
+ *
+ * The program's classes are in the default package, which JMH benchmarks cannot be in, and
+ * which no other package can import. The benchmarks therefore call the program through this
+ * interface, which is implemented in the default package by BenchAccess and loaded by name
+ * once per trial. Each call is then an ordinary interface call.
+ *
+ * @author Ian Gardea
+ *
+ */
+public interface AppAccess {
+
+	/**
+	 * @return - an opaque session of generated tabs and links, as passed to writeSession.
+	 * @param links - the number of links in the session.
+	 * @param seed - the seed of the generator, so sessions can be reproduced.
+	 */
+	Object generateSession(int links, long seed);
+
+	/**
+	 * Saves a session to an XML session file, as the program does.
+	 *
+	 * @param session - a session returned by generateSession or readSession.
+	 * @param f - the session file to write.
+	 */
+	void writeSession(Object session, File f) throws Exception;
+
+	/**
+	 * @return - the session read from an XML session file, as the program does.
+	 * @param f - the session file to read.
+	 */
+	Object readSession(File f) throws Exception;
+
+	/**
+	 * @return - the generated targets, in the mix found in a typical session.
+	 * @param count - the number of targets.
+	 * @param seed - the seed of the generator.
+	 */
+	String[] generateTargets(int count, long seed);
+
+	/**
+	 * @return - the integer type of a target.
+	 * @param target - the target of a link.
+	 */
+	int determineType(String target);
+
+	/**
+	 * @return - the target of a Windows shortcut (.lnk) file.
+	 * @param f - the shortcut file.
+	 */
+	String parseShortcut(File f) throws Exception;
+
+	/**
+	 * @return - the target of an Internet Shortcut (.url) file, as read when one is dropped.
+	 * @param f - the Internet Shortcut file.
+	 */
+	String readUrl(File f) throws Exception;
+
+	/**
+	 * @return - the INI file, once read.
+	 * @param f - the INI file.
+	 */
+	Object loadIni(File f) throws Exception;
+
+	/**
+	 * @return - the value of a key read from an INI file returned by loadIni.
+	 * @param ini - the INI file.
+	 * @param section - the section of the key.
+	 * @param key - the key.
+	 */
+	String iniValue(Object ini, String section, String key);
+}
@@ -0,0 +1,50 @@
+package linkmanager.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * This benchmark measures CustomLink.determineType over the mix of targets found in a session.
+ *
+ * @author Ian Gardea
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassifyBenchmark {
+
+	private static final int TARGETS = 4096;
+
+	private AppAccess access;
+	private String[]  targets;
+
+	@Setup
+	public void setUp() {
+		access = Access.load();
+		targets = access.generateTargets(TARGETS, 42);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TARGETS)
+	public void determineType(Blackhole bh) {
+		for (String target : targets) {
+			bh.consume(access.determineType(target));
+		}
+	}
+}
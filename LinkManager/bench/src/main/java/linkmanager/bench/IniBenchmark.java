@@ -0,0 +1,58 @@
+package linkmanager.bench;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This benchmark measures IniFile.load, on a file shaped like config.ini with further sections.
+ *
+ * @author Ian Gardea
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IniBenchmark {
+
+	@Param({"0", "16", "128"})
+	public int sections;
+
+	private AppAccess access;
+	private File      folder;
+	private File      ini;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		access = Access.load();
+		folder = SyntheticFiles.newFolder("ini-bench");
+		ini = new File(folder, "config.ini");
+		SyntheticFiles.writeIni(ini, sections, 16);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		SyntheticFiles.delete(folder);
+	}
+
+	@Benchmark
+	public Object load() throws Exception {
+		return access.loadIni(ini);
+	}
+}
@@ -0,0 +1,69 @@
+package linkmanager.bench;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This benchmark measures saving and reading the XML session file, as done by
+ * CustomTabList.saveDocument and revertDocument, without building the window.
+ *
+ * @author Ian Gardea
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionBenchmark {
+
+	@Param({"1000", "10000", "100000"})
+	public int links;
+
+	private AppAccess access;
+	private Object    session;
+	private File      folder;
+	private File      saved;
+	private File      scratch;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		access = Access.load();
+		session = access.generateSession(links, 42);
+
+		folder = SyntheticFiles.newFolder("session-bench");
+		saved = new File(folder, "session.xml");
+		scratch = new File(folder, "scratch.xml");
+		access.writeSession(session, saved);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		SyntheticFiles.delete(folder);
+	}
+
+	@Benchmark
+	public void save() throws Exception {
+		access.writeSession(session, scratch);
+	}
+
+	@Benchmark
+	public Object load() throws Exception {
+		return access.readSession(saved);
+	}
+}
@@ -0,0 +1,77 @@
+package linkmanager.bench;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * This benchmark measures reading the targets of dropped shortcuts: LinkParser on Windows
+ * shortcut (.lnk) files, and the URL extraction used by DropTargetHandler on Internet Shortcut
+ * (.url) files. The files are written once per trial, so they are read from the file cache.
+ *
+ * @author Ian Gardea
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShortcutBenchmark {
+
+	private static final int FILES = 256;
+
+	private AppAccess access;
+	private File      folder;
+	private File[]    shortcuts;
+	private File[]    internetShortcuts;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		access = Access.load();
+		folder = SyntheticFiles.newFolder("shortcut-bench");
+		shortcuts = SyntheticFiles.writeShortcuts(folder, FILES, 42);
+		internetShortcuts = SyntheticFiles.writeInternetShortcuts(folder, FILES);
+
+		// Fail now, rather than measure a parser that cannot read the files.
+		if (access.parseShortcut(shortcuts[0]) == null || access.readUrl(internetShortcuts[0]) == null) {
+			throw new IllegalStateException("The generated shortcuts could not be read.");
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		SyntheticFiles.delete(folder);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FILES)
+	public void parseShortcut(Blackhole bh) throws Exception {
+		for (File f : shortcuts) {
+			bh.consume(access.parseShortcut(f));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FILES)
+	public void readUrl(Blackhole bh) throws Exception {
+		for (File f : internetShortcuts) {
+			bh.consume(access.readUrl(f));
+		}
+	}
+}
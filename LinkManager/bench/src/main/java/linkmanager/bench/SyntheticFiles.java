@@ -0,0 +1,210 @@
+package linkmanager.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class writes the shortcut and INI files read by the benchmarks, so no Windows machine
+ * is needed to reproduce them.
+ *
+ * The shortcut (.lnk) files hold only the parts of the Shell Link format that the program
+ * reads: the header, an optional item list, and the link information with either a local path
+ * or a network share.
+ *
+ * @author Ian Gardea
+ *
+ */
+public final class SyntheticFiles {
+
+	private static final String[] LOCAL_FOLDERS = {
+		"C:\\Users\\operator\\Documents\\", "D:\\Projects\\2024\\", "C:\\Program Files\\Tools\\",
+	};
+
+	private static final String[] SHARES = {
+		"\\\\FILESERVER\\DEPT", "\\\\ARCHIVE01\\SHARED",
+	};
+
+	private SyntheticFiles() {
+	}
+
+	/**
+	 * @return - a new, empty folder for the files of a benchmark.
+	 * @param name - the start of the folder's name.
+	 */
+	public static File newFolder(String name) throws IOException {
+		return Files.createTempDirectory(name).toFile();
+	}
+
+	/**
+	 * Deletes a folder written by a benchmark, and everything in it.
+	 *
+	 * @param folder - the folder.
+	 */
+	public static void delete(File folder) throws IOException {
+		// Delete the deepest paths first, so each folder is empty when it is deleted.
+		List<Path> paths;
+		try (Stream<Path> walk = Files.walk(folder.toPath())) {
+			paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+		}
+		for (Path path : paths) {
+			Files.delete(path);
+		}
+	}
+
+	/**
+	 * Writes shortcut files, alternating between local and network targets.
+	 *
+	 * @return - the shortcut files.
+	 * @param folder - the folder to write them to.
+	 * @param count - the number of files.
+	 * @param seed - the seed of the generator.
+	 */
+	public static File[] writeShortcuts(File folder, int count, long seed) throws IOException {
+		Random random = new Random(seed);
+		File[] files = new File[count];
+		for (int i=0; i<count; i++) {
+			files[i] = new File(folder, "Shortcut " + i + ".lnk");
+			String name = "Report_" + i + ".docx";
+			try (OutputStream out = new FileOutputStream(files[i])) {
+				if (i % 2 == 0) {
+					out.write(shortcut(random.nextBoolean(), LOCAL_FOLDERS[random.nextInt(LOCAL_FOLDERS.length)], null, name));
+				}
+				else {
+					out.write(shortcut(random.nextBoolean(), null, SHARES[random.nextInt(SHARES.length)], "reports\\" + name));
+				}
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * Writes Internet Shortcut files, with the icon and other sections found in files saved by browsers.
+	 *
+	 * @return - the Internet Shortcut files.
+	 * @param folder - the folder to write them to.
+	 * @param count - the number of files.
+	 */
+	public static File[] writeInternetShortcuts(File folder, int count) throws IOException {
+		File[] files = new File[count];
+		for (int i=0; i<count; i++) {
+			files[i] = new File(folder, "Page " + i + ".url");
+			try (PrintWriter writer = new PrintWriter(files[i], "UTF-8")) {
+				writer.print("[{000214A0-0000-0000-C000-000000000046}]\r\n");
+				writer.print("Prop3=19,11\r\n");
+				writer.print("[InternetShortcut]\r\n");
+				writer.print("IDList=\r\n");
+				writer.print("URL=https://intranet.example.com/wiki/display/page" + i + "?view=full\r\n");
+				writer.print("IconIndex=13\r\n");
+				writer.print("HotKey=0\r\n");
+				writer.print("IconFile=C:\\Windows\\System32\\url.dll\r\n");
+				writer.print("WorkingDirectory=C:\\Users\\operator\\Favorites\r\n");
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * Writes an INI file shaped like config.ini, with further sections of variables.
+	 *
+	 * @param file - the INI file.
+	 * @param sections - the number of further sections.
+	 * @param keys - the number of keys in each further section.
+	 */
+	public static void writeIni(File file, int sections, int keys) throws IOException {
+		try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+			writer.println("; Global settings");
+			writer.println("[global]");
+			writer.println("customVarValue = CUSTOM_VAR");
+			writer.println();
+			writer.println("[gui]");
+			writer.println("guiWidth = 480");
+			writer.println("guiHeight = 600");
+			writer.println("sleepTime = 1500");
+			for (int s=0; s<sections; s++) {
+				writer.println();
+				writer.println("; Section " + s);
+				writer.println("[section" + s + "]");
+				for (int k=0; k<keys; k++) {
+					writer.println("key" + k + " = value " + s + "." + k);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return - the bytes of a shortcut to a local file or a file on a network share.
+	 * @param idList - true to include an item list before the link information, as most shortcuts do.
+	 * @param basePath - the local folder, or null for a network target.
+	 * @param share - the network share, or null for a local target.
+	 * @param suffix - the rest of the target's path.
+	 */
+	private static byte[] shortcut(boolean idList, String basePath, String share, String suffix) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		// Header: size, class id, flags (has an item list, has link information), and file attributes.
+		byte[] header = new byte[0x4c];
+		header[0] = 0x4c;
+		header[0x14] = (byte) (0x02 | (idList ? 0x01 : 0));
+		header[0x18] = 0x20;
+		out.write(header, 0, header.length);
+
+		if (idList) {
+			byte[] items = new byte[22];
+			writeShort(out, items.length);
+			out.write(items, 0, items.length);
+		}
+
+		// Link information: the header, then the strings it points to. The program reads each offset as a single byte.
+		byte[] first = (basePath != null ? basePath : share).getBytes(StandardCharsets.ISO_8859_1);
+		byte[] last = suffix.getBytes(StandardCharsets.ISO_8859_1);
+		int headerSize = 0x1c;
+		byte[] info;
+		if (basePath != null) {
+			info = new byte[headerSize + first.length + 1 + last.length + 1];
+			info[0x08] = 0x01;                                     // Has a local path.
+			info[0x10] = (byte) headerSize;                        // Local base path.
+			info[0x18] = (byte) (headerSize + first.length + 1);   // Common path suffix.
+			System.arraycopy(first, 0, info, headerSize, first.length);
+			System.arraycopy(last, 0, info, headerSize + first.length + 1, last.length);
+		}
+		else {
+			int netSize = 0x14;
+			info = new byte[headerSize + netSize + first.length + 1 + last.length + 1];
+			info[0x08] = 0x02;                                     // Has a network share.
+			info[0x14] = (byte) headerSize;                        // Network link.
+			info[0x18] = (byte) (headerSize + netSize + first.length + 1);
+			info[headerSize + 0x08] = (byte) netSize;              // Share name, from the network link.
+			System.arraycopy(first, 0, info, headerSize + netSize, first.length);
+			System.arraycopy(last, 0, info, headerSize + netSize + first.length + 1, last.length);
+		}
+		info[0] = (byte) info.length;
+		info[0x04] = (byte) headerSize;
+		out.write(info, 0, info.length);
+
+		// The string data and extra blocks that follow are not read, but are part of real shortcuts.
+		byte[] extra = new byte[96];
+		out.write(extra, 0, extra.length);
+		return out.toByteArray();
+	}
+
+	/**
+	 * @param out - the bytes being written.
+	 * @param value - the little-endian short to write.
+	 */
+	private static void writeShort(ByteArrayOutputStream out, int value) {
+		out.write(value & 0xff);
+		out.write((value >> 8) & 0xff);
+	}
+}
@@ -0,0 +1,22 @@
+#!/bin/sh
+# Runs UiBenchmark from the LinkManager folder, which holds config.ini.
+# A virtual screen (Xvfb) is used when there is no screen and xvfb-run is installed;
+# otherwise the panes are painted into an image, with java.awt.headless=true.
+#
+# Usage: bench/ui-bench.sh [sizes]      e.g. bench/ui-bench.sh 1000,100000
+
+cd "$(dirname "$0")/.." || exit 1
+JAR=bench/target/benchmarks.jar
+
+if [ ! -f "$JAR" ]; then
+	echo "Build the benchmarks first: mvn -B package (from the top folder)" >&2
+	exit 1
+fi
+
+if [ -n "$DISPLAY" ]; then
+	exec java -cp "$JAR" UiBenchmark "$@"
+elif command -v xvfb-run >/dev/null 2>&1; then
+	exec xvfb-run -a -s "-screen 0 1280x1024x24" java -cp "$JAR" UiBenchmark "$@"
+else
+	exec java -Djava.awt.headless=true -cp "$JAR" UiBenchmark "$@"
+fi
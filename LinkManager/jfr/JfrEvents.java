@@ -0,0 +1,164 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class holds the Flight Recorder events recorded through FlightEvents. It needs Java 11,
+ * so it is kept apart from the rest of the program, which is built for Java 8.
+ *
+ * The events are enabled by linkmanager.jfc, for instance:
+ * java -XX:StartFlightRecording=settings=linkmanager.jfc,filename=linkmanager.jfr -jar linkmanager.jar
+ *
+ * @author Ian Gardea
+ *
+ */
+public class JfrEvents implements FlightEvents.Factory {
+
+	@Override
+	public FlightEvents.Span begin(int kind) {
+		Timed event;
+		switch (kind) {
+			case FlightEvents.LAUNCH:  event = new LaunchEvent();  break;
+			case FlightEvents.SAVE:    event = new SaveEvent();    break;
+			case FlightEvents.LOAD:    event = new LoadEvent();    break;
+			case FlightEvents.IMPORT:  event = new ImportEvent();  break;
+			case FlightEvents.PARSE:   event = new ParseEvent();   break;
+			default:                   event = new RefreshEvent(); break;
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * This class is the base of every event, filling in its fields only if it will be recorded.
+	 */
+	@Category("Link Manager")
+	private abstract static class Timed extends Event implements FlightEvents.Span {
+		@Override
+		public void commit(String subject, long count, long bytes) {
+			end();
+			if (shouldCommit()) {
+				set(subject, count, bytes);
+				commit();
+			}
+		}
+
+		protected abstract void set(String subject, long count, long bytes);
+	}
+
+	@Name("linkmanager.Launch")
+	@Label("Link Launch")
+	@Description("A link, or links of one type run together, run by their type's handler")
+	private static class LaunchEvent extends Timed {
+		@Label("Link Type")
+		String linkType;
+
+		@Label("Succeeded")
+		boolean succeeded;
+
+		@Override
+		protected void set(String subject, long count, long bytes) {
+			linkType = subject;
+			succeeded = count != 0;
+		}
+	}
+
+	@Name("linkmanager.SessionSave")
+	@Label("Session Save")
+	@Description("Every tab written to the session file")
+	private static class SaveEvent extends Timed {
+		@Label("File")
+		String file;
+
+		@Label("Links")
+		long links;
+
+		@Label("Size")
+		@DataAmount
+		long bytes;
+
+		@Override
+		protected void set(String subject, long count, long bytes) {
+			this.file = subject;
+			this.links = count;
+			this.bytes = bytes;
+		}
+	}
+
+	@Name("linkmanager.SessionLoad")
+	@Label("Session Load")
+	@Description("Every tab read from the session file")
+	private static class LoadEvent extends Timed {
+		@Label("File")
+		String file;
+
+		@Label("Links")
+		long links;
+
+		@Label("Size")
+		@DataAmount
+		long bytes;
+
+		@Override
+		protected void set(String subject, long count, long bytes) {
+			this.file = subject;
+			this.links = count;
+			this.bytes = bytes;
+		}
+	}
+
+	@Name("linkmanager.Import")
+	@Label("Import")
+	@Description("A dropped file, or the files in a dropped folder, copied to a tab")
+	private static class ImportEvent extends Timed {
+		@Label("Source")
+		String source;
+
+		@Label("Files")
+		long files;
+
+		@Override
+		protected void set(String subject, long count, long bytes) {
+			source = subject;
+			files = count;
+		}
+	}
+
+	@Name("linkmanager.ShortcutParse")
+	@Label("Shortcut Parse")
+	@Description("A shortcut read to find its target")
+	private static class ParseEvent extends Timed {
+		@Label("Shortcut")
+		String shortcut;
+
+		@Label("Size")
+		@DataAmount
+		long bytes;
+
+		@Override
+		protected void set(String subject, long count, long bytes) {
+			shortcut = subject;
+			this.bytes = bytes;
+		}
+	}
+
+	@Name("linkmanager.Refresh")
+	@Label("Tab Refresh")
+	@Description("Every row of a tab's table redrawn")
+	private static class RefreshEvent extends Timed {
+		@Label("Tab")
+		String tab;
+
+		@Label("Links")
+		long links;
+
+		@Override
+		protected void set(String subject, long count, long bytes) {
+			tab = subject;
+			links = count;
+		}
+	}
+}
@@ -0,0 +1,17 @@
+#!/bin/sh
+# Starts Link Manager from its folder, which holds config.ini and session.xml.
+# The AppCDS archive built by "mvn -B package -Pcds" (from the top folder) is used if it exists.
+# It only matches the JDK and the jar it was built with; otherwise the JVM warns, and starts
+# without it.
+#
+# Usage: ./linkmanager.sh [--training-run]
+
+cd "$(dirname "$0")" || exit 1
+DIR=$(pwd -P)
+JAR="$DIR/target/linkmanager-1.0.1.jar"
+JSA="$DIR/target/linkmanager.jsa"
+
+if [ -f "$JSA" ]; then
+	exec java -XX:SharedArchiveFile="$JSA" -Xshare:auto -cp "$JAR" LinkManager "$@"
+fi
+exec java -cp "$JAR" LinkManager "$@"
@@ -0,0 +1,98 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * This class stores links as objects in a growable array.
+ *
+ * @author Ian Gardea
+ *
+ */
+class ArrayLinkStore implements LinkStore {
+
+	private CustomLink[] links = new CustomLink[16];
+	private int          size;
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public CustomLink get(int index) {
+		checkIndex(index);
+		return links[index];
+	}
+
+	@Override
+	public int indexOf(CustomLink link) {
+		for (int i=0; i<size; i++) {
+			if (links[i] == link || (link != null && link.equals(links[i]))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public void add(CustomLink link) {
+		if (size == links.length) {
+			links = Arrays.copyOf(links, size * 2);
+		}
+		links[size++] = link;
+	}
+
+	@Override
+	public CustomLink set(int index, CustomLink link) {
+		checkIndex(index);
+		CustomLink old = links[index];
+		links[index] = link;
+		return old;
+	}
+
+	@Override
+	public CustomLink remove(int index) {
+		checkIndex(index);
+		CustomLink old = links[index];
+		System.arraycopy(links, index + 1, links, index, size - index - 1);
+		links[--size] = null;
+		return old;
+	}
+
+	@Override
+	public int removeAll(BitSet indices) {
+		int first = indices.nextSetBit(0);
+		if (first < 0 || first >= size) {
+			return 0;
+		}
+
+		// Slide every kept link down over the removed ones.
+		int write = first;
+		for (int read = first; read < size; read++) {
+			if (!indices.get(read)) {
+				links[write++] = links[read];
+			}
+		}
+		int removed = size - write;
+		Arrays.fill(links, write, size, null);
+		size = write;
+		return removed;
+	}
+
+	@Override
+	public void swap(int first, int second) {
+		checkIndex(first);
+		checkIndex(second);
+		CustomLink temp = links[first];
+		links[first] = links[second];
+		links[second] = temp;
+	}
+
+	/**
+	 * @param index - the position to validate.
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new ArrayIndexOutOfBoundsException(index + " >= " + size);
+		}
+	}
+}
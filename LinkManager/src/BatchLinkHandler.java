@@ -0,0 +1,137 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class runs targets through a temporary Windows batch file, which processes commands
+ * like they would be on the Windows OS.
+ *
+ * Several targets are written to the same batch file, pausing between each one, so running
+ * them together starts a single command processor rather than one per target.
+ *
+ * @author Ian Gardea
+ *
+ */
+public abstract class BatchLinkHandler extends LinkTypeHandler {
+
+	/**
+	 * This function will write the command that runs a target to the batch file.
+	 *
+	 * @return - false if the target cannot be run by this type, and nothing was written.
+	 * @param writer - the batch file being written.
+	 * @param target - the target, with its variables already replaced.
+	 */
+	protected abstract boolean writeCommand(PrintWriter writer, String target) throws IOException;
+
+	@Override
+	public boolean launch(String target) throws Exception {
+		return launchAll(Collections.singletonList(target));
+	}
+
+	@Override
+	public boolean isBatched() {
+		return true;
+	}
+
+	@Override
+	public boolean launchAll(List<String> targets) throws Exception {
+		boolean success = true;
+		boolean written = false;
+
+		// Create a temporary batch file that will be used to run the commands written to it.
+		// Each batch has a file of its own, as several may be launched at once.
+		final File file = File.createTempFile("run", ".bat");
+		String fName = file.getAbsolutePath();
+
+		try {
+			PrintWriter writer = new PrintWriter(file, "UTF-8");
+			try {
+				// Set the batch to not display unnecessary information.
+				writer.println("@echo off");
+
+				for (String target : targets) {
+					if (writeCommand(writer, target)) {
+						written = true;
+					}
+					else {
+						success = false;
+					}
+
+					// Suspend the thread to prevent undesirable effects.
+					// For instance, setting this sleep timer allow tabs to be created in web
+					// browsers when multiple URLs are being opened.
+					// If this is not done, then it possible that not every selected link will run.
+					writer.println("ping 1.1.1.1 -n 1 -w " + Config.get().getSleepTime() + ">nul");
+				}
+			}
+			finally {
+				writer.close();
+			}
+
+			if (written) {
+				run(fName);
+			}
+		}
+		finally {
+			// Delete the temporary batch file.
+			file.delete();
+		}
+		return success;
+	}
+
+	/**
+	 * This function will run a batch file, based on the version of windows being used, and wait for it to finish.
+	 *
+	 * @param fName - the path of the batch file.
+	 */
+	private static void run(String fName) throws IOException, InterruptedException {
+		/*
+		 * Properly handle commands sent to and from the batch file.
+		 * Credit:
+		 * JAVA TRAPS
+		 * By Michael C. Daconta
+		 * http://www.javaworld.com/article/2071275/core-java/when-runtime-exec---won-t.html?page=2
+		 */
+
+		String osName = System.getProperty("os.name" );
+		String[] cmd = new String[3];
+		if( osName.equals("Windows NT")) {
+			cmd[0] = "cmd.exe" ;
+		}
+		else if(osName.equals("Windows 95")){
+			cmd[0] = "command.com" ;
+		}
+		else {
+			cmd[0] = "cmd" ;
+		}
+
+		cmd[1] = "/C" ;
+		cmd[2] = fName; // Batch file name.
+
+		Runtime rt = Runtime.getRuntime();
+		System.out.println("Executing " + cmd[0] + " " + cmd[1] + " " + cmd[2]);
+		Process proc = rt.exec(cmd);
+
+		// Errors
+		StreamInterpreter errorInterpreter = new StreamInterpreter(proc.getErrorStream(), "ERROR");
+
+		// General output
+		StreamInterpreter outputInterpreter = new StreamInterpreter(proc.getInputStream(), "OUTPUT");
+
+		// Kick off the I/O stream
+		errorInterpreter.start();
+		outputInterpreter.start();
+
+		// Any errors?
+		int exitVal = proc.waitFor();
+
+		// Let the last output be read, unless a program the batch file started is still holding the streams.
+		errorInterpreter.join(1000);
+		outputInterpreter.join(1000);
+
+		System.out.println("ExitValue: " + exitVal);
+		// End of credited code.
+	}
+}
@@ -0,0 +1,54 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * This class will hand out re-usable byte buffers for the file import path, so that
+ * parsing a folder full of shortcuts does not allocate a new buffer for every file.
+ *
+ * Buffers must be returned with release() once the caller is finished with them.
+ *
+ * @author Ian Gardea
+ *
+ */
+class BufferPool {
+
+	// The default size of a pooled buffer. Most shortcut files fit within this size.
+	public static final int BUFFER_SIZE = 4096;
+
+	// The maximum number of idle buffers that will be retained.
+	private static final int MAX_POOLED = 8;
+
+	private static final ConcurrentLinkedQueue<byte[]> pool = new ConcurrentLinkedQueue<byte[]>();
+
+	/**
+	 * @return - a buffer of at least the default size.
+	 */
+	public static byte[] acquire() {
+		return acquire(BUFFER_SIZE);
+	}
+
+	/**
+	 * @return - a buffer of at least the requested size. Its contents are undefined.
+	 * @param minSize - the minimum number of bytes the buffer must hold.
+	 */
+	public static byte[] acquire(int minSize) {
+		byte[] buffer = pool.poll();
+
+		// Too small buffers are dropped, and replaced by one that fits the request.
+		if (buffer == null || buffer.length < minSize) {
+			buffer = new byte[Math.max(minSize, BUFFER_SIZE)];
+		}
+		return buffer;
+	}
+
+	/**
+	 * Returns a buffer to the pool so that it can be re-used. Buffers larger than the default
+	 * size are dropped, so one large file does not keep its memory for the rest of the session.
+	 *
+	 * @param buffer - the buffer that is no longer in use.
+	 */
+	public static void release(byte[] buffer) {
+		if (buffer != null && buffer.length <= BUFFER_SIZE && pool.size() < MAX_POOLED) {
+			pool.offer(buffer);
+		}
+	}
+}
@@ -0,0 +1,252 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * This class stores links column by column, rather than as objects, to use less memory when
+ * there are many links.
+ *
+ * Names are kept as UTF-8 bytes, and types as single bytes. Each target is split after its
+ * last slash or backslash: the folder (or site) part is kept once in a dictionary shared by
+ * every store, and only the rest of the target is kept with the link. Targets such as
+ * "\\fileserver\dept\reports\..." or "https://intranet/wiki/..." then share a single copy of
+ * their long common part.
+ *
+ * Links are rebuilt each time a position is read, so the links returned are equal to, but
+ * not the same objects as, the links that were added.
+ *
+ * @author Ian Gardea
+ *
+ */
+class ColumnarLinkStore implements LinkStore {
+
+	private static final byte[] EMPTY = new byte[0];
+
+	// The folder part of every target, shared by every store.
+	private static final PrefixDictionary DICTIONARY = new PrefixDictionary();
+
+	private byte[][] names    = new byte[16][];
+	private int[]    prefixes = new int[16];
+	private byte[][] suffixes = new byte[16][];
+	private byte[]   types    = new byte[16];
+	private int      size;
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public CustomLink get(int index) {
+		checkIndex(index);
+		return new CustomLink(decode(names[index]),
+				DICTIONARY.get(prefixes[index]) + decode(suffixes[index]), types[index]);
+	}
+
+	@Override
+	public int indexOf(CustomLink link) {
+		if (link == null || link.getTarget() == null) {
+			return -1;
+		}
+
+		int cut = cut(link.getTarget());
+		int prefix = DICTIONARY.find(link.getTarget().substring(0, cut));
+		if (prefix < 0) {
+			return -1;
+		}
+
+		byte[] name = encode(link.getName());
+		byte[] suffix = encode(link.getTarget().substring(cut));
+		for (int i=0; i<size; i++) {
+			if (types[i] == link.getType() && prefixes[i] == prefix
+					&& Arrays.equals(suffixes[i], suffix) && Arrays.equals(names[i], name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public void add(CustomLink link) {
+		if (size == types.length) {
+			int capacity = size * 2;
+			names = Arrays.copyOf(names, capacity);
+			prefixes = Arrays.copyOf(prefixes, capacity);
+			suffixes = Arrays.copyOf(suffixes, capacity);
+			types = Arrays.copyOf(types, capacity);
+		}
+		put(size++, link);
+	}
+
+	@Override
+	public CustomLink set(int index, CustomLink link) {
+		CustomLink old = get(index);
+		put(index, link);
+		return old;
+	}
+
+	@Override
+	public CustomLink remove(int index) {
+		CustomLink old = get(index);
+		int moved = size - index - 1;
+		System.arraycopy(names, index + 1, names, index, moved);
+		System.arraycopy(prefixes, index + 1, prefixes, index, moved);
+		System.arraycopy(suffixes, index + 1, suffixes, index, moved);
+		System.arraycopy(types, index + 1, types, index, moved);
+		size--;
+		names[size] = null;
+		suffixes[size] = null;
+		return old;
+	}
+
+	@Override
+	public int removeAll(BitSet indices) {
+		int first = indices.nextSetBit(0);
+		if (first < 0 || first >= size) {
+			return 0;
+		}
+
+		// Slide every kept link down over the removed ones.
+		int write = first;
+		for (int read = first; read < size; read++) {
+			if (!indices.get(read)) {
+				names[write] = names[read];
+				prefixes[write] = prefixes[read];
+				suffixes[write] = suffixes[read];
+				types[write] = types[read];
+				write++;
+			}
+		}
+		int removed = size - write;
+		Arrays.fill(names, write, size, null);
+		Arrays.fill(suffixes, write, size, null);
+		size = write;
+		return removed;
+	}
+
+	@Override
+	public void swap(int first, int second) {
+		checkIndex(first);
+		checkIndex(second);
+
+		byte[] name = names[first];
+		names[first] = names[second];
+		names[second] = name;
+
+		int prefix = prefixes[first];
+		prefixes[first] = prefixes[second];
+		prefixes[second] = prefix;
+
+		byte[] suffix = suffixes[first];
+		suffixes[first] = suffixes[second];
+		suffixes[second] = suffix;
+
+		byte type = types[first];
+		types[first] = types[second];
+		types[second] = type;
+	}
+
+	/**
+	 * Stores a link's columns at a position.
+	 *
+	 * @param index - the integer position to store the link at.
+	 * @param link - the link to store.
+	 */
+	private void put(int index, CustomLink link) {
+		String target = link.getTarget() == null ? "" : link.getTarget();
+		int cut = cut(target);
+
+		names[index] = encode(link.getName());
+		prefixes[index] = DICTIONARY.intern(target.substring(0, cut));
+		suffixes[index] = encode(target.substring(cut));
+		types[index] = (byte) link.getType();
+	}
+
+	/**
+	 * @return - the length of the folder part of the target, up to and including its last slash or backslash.
+	 * @param target - the target of a link.
+	 */
+	private static int cut(String target) {
+		return Math.max(target.lastIndexOf('/'), target.lastIndexOf('\\')) + 1;
+	}
+
+	/**
+	 * @return - the UTF-8 bytes of the text, or null if there is no text.
+	 * @param text - the text to encode.
+	 */
+	private static byte[] encode(String text) {
+		if (text == null) {
+			return null;
+		}
+		return text.isEmpty() ? EMPTY : text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return - the text of the UTF-8 bytes, or null if there are no bytes.
+	 * @param bytes - the bytes to decode.
+	 */
+	private static String decode(byte[] bytes) {
+		if (bytes == null) {
+			return null;
+		}
+		return bytes.length == 0 ? "" : new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param index - the position to validate.
+	 */
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new ArrayIndexOutOfBoundsException(index + " >= " + size);
+		}
+	}
+
+	/**
+	 * This class keeps a single copy of each target prefix, numbered in the order they were
+	 * first seen. Prefixes are never removed, as they are few compared to the links using them.
+	 * Links may be stored from any thread, so every access is synchronized.
+	 *
+	 */
+	private static class PrefixDictionary {
+
+		private final ArrayList<String>        prefixes = new ArrayList<String>();
+		private final HashMap<String, Integer> ids      = new HashMap<String, Integer>();
+
+		private PrefixDictionary() {
+			intern("");
+		}
+
+		/**
+		 * @return - the number of the prefix, adding it if it is new.
+		 * @param prefix - the prefix.
+		 */
+		private synchronized int intern(String prefix) {
+			Integer id = ids.get(prefix);
+			if (id == null) {
+				id = prefixes.size();
+				prefixes.add(prefix);
+				ids.put(prefix, id);
+			}
+			return id;
+		}
+
+		/**
+		 * @return - the number of the prefix, or -1 if it has never been stored.
+		 * @param prefix - the prefix.
+		 */
+		private synchronized int find(String prefix) {
+			Integer id = ids.get(prefix);
+			return id == null ? -1 : id;
+		}
+
+		/**
+		 * @return - the prefix with the provided number.
+		 * @param id - the number of the prefix.
+		 */
+		private synchronized String get(int id) {
+			return prefixes.get(id);
+		}
+	}
+}
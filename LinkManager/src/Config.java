@@ -0,0 +1,440 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class holds the settings of config.ini, read once into typed values that never change.
+ * Other classes ask for the current settings each time they use them, so when the file is
+ * edited while the program runs, the new settings are read into a new Config, which replaces
+ * the current one in a single step. No one ever sees a mix of old and new settings.
+ *
+ * The following apply as soon as the file is saved: the pause between launches, the number of
+ * links launched at once, autosaving, and the import, duplicate, and folder watching settings.
+ * The window size, link storage, variables, watchdog, metrics, single instance, and control API
+ * settings only apply on the next start.
+ *
+ * A value that is missing, or is not a valid number, is given its default, and reported.
+ *
+ * @author Ian Gardea
+ *
+ */
+class Config {
+
+	/**
+	 * This interface is told when the settings change.
+	 */
+	interface Listener {
+		/**
+		 * Called on the thread watching the file, after the new settings have replaced the old.
+		 *
+		 * @param config - the new settings.
+		 */
+		void configChanged(Config config);
+	}
+
+	// How long the file must be left alone before it is read, as editors often save in several steps.
+	private static final int QUIET_MILLIS = 250;
+
+	// How often the file is checked on file systems that do not report their own changes.
+	private static final int CHECK_MILLIS = 5000;
+
+	private static volatile Config current = new Config(new IniFile(), null, 0, 0);
+	private static final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+	// The time the file was modified when it could last not be read.
+	private static long failed = -1;
+
+	private final File                file;
+	private final long                modified;
+	private final long                length;
+
+	private final int                 sleepTime;
+	private final int                 guiWidth;
+	private final int                 guiHeight;
+	private final int                 launchConcurrency;
+	private final int                 autosaveSeconds;
+	private final int                 importCacheSize;
+	private final String              duplicatePolicy;
+	private final String              importInclude;
+	private final String              importExclude;
+	private final int                 importMaxDepth;
+	private final int                 importMinSizeKB;
+	private final int                 importMaxSizeKB;
+	private final boolean             importPrompt;
+	private final int                 watchDebounce;
+	private final int                 watchPollInterval;
+	private final String              linkStorage;
+	private final boolean             watchdogEnabled;
+	private final int                 watchdogStallMillis;
+	private final boolean             metricsEnabled;
+	private final int                 metricsPort;
+	private final boolean             singleInstance;
+	private final boolean             apiEnabled;
+	private final int                 apiPort;
+	private final String              customVarValue;
+	private final Map<String, String> variables;
+
+	/**
+	 * @param ini - the parsed INI file.
+	 * @param file - the INI file, or null if the settings are the defaults.
+	 * @param modified - the time the file was last modified.
+	 * @param length - the size of the file.
+	 */
+	private Config(IniFile ini, File file, long modified, long length) {
+		this.file = file;
+		this.modified = modified;
+		this.length = length;
+
+		sleepTime = number(ini, "gui", "sleepTime", 2000, 0);
+		guiWidth = number(ini, "gui", "guiWidth", 480, 1);
+		guiHeight = number(ini, "gui", "guiHeight", 600, 1);
+		launchConcurrency = number(ini, "launch", "concurrency", 1, 1);
+		autosaveSeconds = number(ini, "session", "autosaveSeconds", 0, 0);
+		importCacheSize = number(ini, "import", "cacheSize", 10000, 0);
+		duplicatePolicy = ini.getString("import", "duplicates", "ask");
+		importInclude = ini.getString("import", "include", "");
+		importExclude = ini.getString("import", "exclude", "");
+		importMaxDepth = number(ini, "import", "maxDepth", 0, 0);
+		importMinSizeKB = number(ini, "import", "minSizeKB", 0, 0);
+		importMaxSizeKB = number(ini, "import", "maxSizeKB", 0, 0);
+		importPrompt = ini.getBoolean("import", "promptOnDrop", false);
+		watchDebounce = number(ini, "watch", "debounce", 500, 1);
+		watchPollInterval = number(ini, "watch", "pollInterval", 5000, 1);
+		linkStorage = ini.getString("storage", "links", "objects");
+		watchdogEnabled = ini.getBoolean("watchdog", "enabled", false);
+		watchdogStallMillis = number(ini, "watchdog", "stallMillis", 200, 1);
+		metricsEnabled = ini.getBoolean("metrics", "enabled", false);
+		metricsPort = number(ini, "metrics", "port", 9464, 0);
+		singleInstance = ini.getBoolean("instance", "single", true);
+		apiEnabled = ini.getBoolean("api", "enabled", false);
+		apiPort = number(ini, "api", "port", 9465, 0);
+		customVarValue = ini.getString("global", "customVarValue", LinkTemplate.CUSTOM_VAR);
+		variables = Collections.unmodifiableMap(ini.getSection("variables"));
+	}
+
+	/**
+	 * @return - the current settings.
+	 */
+	public static Config get() {
+		return current;
+	}
+
+	/**
+	 * This function will read the settings from the INI file, and make them the current settings.
+	 *
+	 * @return - the settings read.
+	 * @param f - the INI file.
+	 */
+	public static synchronized Config load(File f) throws IOException {
+		long modified = f.lastModified();
+		long length = f.length();
+		Config config = new Config(new IniFile(f.getPath()), f, modified, length);
+		current = config;
+		return config;
+	}
+
+	/**
+	 * Adds a listener to be told when the settings change.
+	 *
+	 * @param listener - the listener.
+	 */
+	public static void addListener(Listener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * This function will watch the INI file the current settings were read from, on a background
+	 * thread, and read it again whenever it changes.
+	 *
+	 */
+	public static void watch() {
+		final File file = current.file;
+		if (file == null) {
+			return;
+		}
+
+		Thread watcher = new Thread(new Runnable() {
+			public void run() {
+				WatchService service = null;
+				Path folder = file.getAbsoluteFile().getParentFile().toPath();
+				try {
+					service = folder.getFileSystem().newWatchService();
+					folder.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+				}
+				catch (IOException e) {
+					// The file is still checked every few seconds.
+					System.err.println("Changes to " + file + " will be found by checking it every "
+							+ CHECK_MILLIS / 1000 + " seconds: " + e.getLocalizedMessage());
+				}
+
+				try {
+					while (true) {
+						if (service == null) {
+							Thread.sleep(CHECK_MILLIS);
+						}
+						else {
+							WatchKey key = service.poll(CHECK_MILLIS, TimeUnit.MILLISECONDS);
+							// Any change in the folder is followed by waiting until the editor has finished saving.
+							while (key != null) {
+								key.pollEvents();
+								key.reset();
+								key = service.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+							}
+						}
+						reload();
+					}
+				}
+				catch (InterruptedException e) {
+					return;
+				}
+				catch (ClosedWatchServiceException e) {
+					return;
+				}
+			}
+		}, "Config Watcher");
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+
+	/**
+	 * This function will read the INI file again if it has changed since it was last read, and
+	 * tell the listeners. If the file cannot be read, the current settings are kept.
+	 *
+	 */
+	private static void reload() {
+		Config config;
+		synchronized (Config.class) {
+			Config old = current;
+			long modified = old.file.lastModified();
+			if ((modified == old.modified && old.file.length() == old.length) || modified == failed) {
+				return;
+			}
+
+			try {
+				config = load(old.file);
+			}
+			catch (IOException e) {
+				// Reported once, rather than every time the file is checked.
+				failed = modified;
+				System.err.println("The settings were kept, as " + old.file + " could not be read: " + e.getLocalizedMessage());
+				return;
+			}
+		}
+		System.out.println("Settings were read again from " + config.file + ".");
+
+		for (Listener listener : listeners) {
+			listener.configChanged(config);
+		}
+	}
+
+	/**
+	 * @return - the whole number set for the key, or the default if it is missing or invalid.
+	 * @param ini - the parsed INI file.
+	 * @param section - the section holding the key.
+	 * @param key - the key.
+	 * @param defaultValue - the value used if the key is missing or invalid.
+	 * @param min - the smallest valid value.
+	 */
+	private static int number(IniFile ini, String section, String key, int defaultValue, int min) {
+		String value = ini.getString(section, key, null);
+		if (value == null) {
+			return defaultValue;
+		}
+
+		try {
+			int number = Integer.parseInt(value);
+			if (number >= min) {
+				return number;
+			}
+		}
+		catch (NumberFormatException e) {
+		}
+		System.err.println("config.ini: " + key + " in [" + section + "] should be a whole number of at least " + min
+				+ ", not \"" + value + "\"; using " + defaultValue + ".");
+		return defaultValue;
+	}
+
+	/**
+	 * @return - the time to wait after a link is run, so it opens before the next one (milliseconds).
+	 */
+	public int getSleepTime() {
+		return sleepTime;
+	}
+
+	/**
+	 * @return - the width of the window when the program starts.
+	 */
+	public int getGuiWidth() {
+		return guiWidth;
+	}
+
+	/**
+	 * @return - the height of the window when the program starts.
+	 */
+	public int getGuiHeight() {
+		return guiHeight;
+	}
+
+	/**
+	 * @return - the number of links that may be launched at once.
+	 */
+	public int getLaunchConcurrency() {
+		return launchConcurrency;
+	}
+
+	/**
+	 * @return - the time between saves of a changed session, or 0 to only save when asked (seconds).
+	 */
+	public int getAutosaveSeconds() {
+		return autosaveSeconds;
+	}
+
+	/**
+	 * @return - the number of parsed shortcuts kept by the import cache.
+	 */
+	public int getImportCacheSize() {
+		return importCacheSize;
+	}
+
+	/**
+	 * @return - what to do with an imported link that is already on the tab: ask, skip, replace, or keep.
+	 */
+	public String getDuplicatePolicy() {
+		return duplicatePolicy;
+	}
+
+	/**
+	 * @return - the patterns of the files imported from a folder, separated by semicolons.
+	 */
+	public String getImportInclude() {
+		return importInclude;
+	}
+
+	/**
+	 * @return - the patterns of the files and folders skipped when importing a folder, separated by semicolons.
+	 */
+	public String getImportExclude() {
+		return importExclude;
+	}
+
+	/**
+	 * @return - the number of folder levels imported, or 0 for no limit.
+	 */
+	public int getImportMaxDepth() {
+		return importMaxDepth;
+	}
+
+	/**
+	 * @return - the size of the smallest file imported from a folder (kilobytes).
+	 */
+	public int getImportMinSizeKB() {
+		return importMinSizeKB;
+	}
+
+	/**
+	 * @return - the size of the largest file imported from a folder, or 0 for no limit (kilobytes).
+	 */
+	public int getImportMaxSizeKB() {
+		return importMaxSizeKB;
+	}
+
+	/**
+	 * @return - true if the import filters are chosen every time a folder is dropped.
+	 */
+	public boolean isImportPrompt() {
+		return importPrompt;
+	}
+
+	/**
+	 * @return - how long a watched folder must be quiet before its changes are applied (milliseconds).
+	 */
+	public int getWatchDebounce() {
+		return watchDebounce;
+	}
+
+	/**
+	 * @return - how often watched folders that do not report their own changes are checked (milliseconds).
+	 */
+	public int getWatchPollInterval() {
+		return watchPollInterval;
+	}
+
+	/**
+	 * @return - how tabs hold their links: objects, or columnar.
+	 */
+	public String getLinkStorage() {
+		return linkStorage;
+	}
+
+	/**
+	 * @return - true if every event handled by the window is timed.
+	 */
+	public boolean isWatchdogEnabled() {
+		return watchdogEnabled;
+	}
+
+	/**
+	 * @return - the time an event may take before it is reported (milliseconds).
+	 */
+	public int getWatchdogStallMillis() {
+		return watchdogStallMillis;
+	}
+
+	/**
+	 * @return - true if the metrics are served.
+	 */
+	public boolean isMetricsEnabled() {
+		return metricsEnabled;
+	}
+
+	/**
+	 * @return - the port the metrics are served on.
+	 */
+	public int getMetricsPort() {
+		return metricsPort;
+	}
+
+	/**
+	 * @return - true if a later launch hands its arguments to the program already running.
+	 */
+	public boolean isSingleInstance() {
+		return singleInstance;
+	}
+
+	/**
+	 * @return - true if the control API is served.
+	 */
+	public boolean isApiEnabled() {
+		return apiEnabled;
+	}
+
+	/**
+	 * @return - the port the control API is served on.
+	 */
+	public int getApiPort() {
+		return apiPort;
+	}
+
+	/**
+	 * @return - the value of CUSTOM_VAR when the program starts.
+	 */
+	public String getCustomVarValue() {
+		return customVarValue;
+	}
+
+	/**
+	 * @return - the variables defined in the INI file, which cannot be changed.
+	 */
+	public Map<String, String> getVariables() {
+		return variables;
+	}
+}
@@ -0,0 +1,682 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * This class serves an HTTP API on this computer's loopback address, so scripts and other tools
+ * can list, search, and run links without going through the window. Answers are JSON, except
+ * for the output of a launch, which is plain text.
+ *
+ * GET  /api/tabs                  - the tabs, and the number of links on each.
+ * GET  /api/links?tab=N           - the links of a tab, or of every tab.
+ * GET  /api/search?q=text&limit=N - the links best matching the text, as found by Search Links.
+ * POST /api/links/ID/launch       - queues the link to be run, as the Run button does.
+ * GET  /api/launches/N            - the state of a launch: queued, running, succeeded, or failed.
+ * GET  /api/launches/N/output     - the output of the commands run by a launch, sent as it is
+ *                                   written, until the launch finishes.
+ *
+ * A link's ID is its tab and position, such as 2.15, so it changes as links are moved or removed.
+ * Every request must carry the key kept in api.token, as "Authorization: Bearer key", so web
+ * pages open in a browser cannot run links.
+ *
+ * The tabs and links are read from a copy of the session, taken on the GUI thread. A copy more
+ * than a quarter of a second old is checked against the session before it is used, and taken
+ * again if the session has changed, so most requests are answered without waiting for the
+ * window, and the JSON of each tab is only written once. A link is only run if it is still at
+ * the position of its ID; otherwise the request is refused with 409 Conflict.
+ * Requests are handled on virtual threads on Java 21 or later, and on a pool of threads before.
+ *
+ * @author Ian Gardea
+ *
+ */
+class ControlApi {
+
+	private static final File TOKEN_FILE = new File("./api.token");
+
+	// How old the copy of the session may be before it is taken again.
+	private static final long REFRESH_MILLIS = 250;
+
+	// How long a request waits for the GUI thread, which may be busy.
+	private static final long GUI_TIMEOUT_MILLIS = 2000;
+
+	// How long an output stream waits for a line before checking whether the client is still there.
+	private static final long OUTPUT_WAIT_MILLIS = 1000;
+
+	private static final int SEARCH_LIMIT = 20;
+	private static final int MAX_SEARCH_LIMIT = 1000;
+
+	// The launches that can still be asked about, oldest first.
+	private static final int MAX_LAUNCHES = 1000;
+	private static final Map<Long, LinkLauncher.Launch> launches = new LinkedHashMap<Long, LinkLauncher.Launch>() {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, LinkLauncher.Launch> eldest) {
+			return size() > MAX_LAUNCHES;
+		}
+	};
+
+	private static HttpServer server;
+	private static byte[]     token;
+
+	private static volatile Snapshot    snapshot;
+
+	/**
+	 * This class is an error answered with its status, and a message.
+	 */
+	private static class Failure extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		private final int status;
+
+		private Failure(int status, String message) {
+			super(message);
+			this.status = status;
+		}
+	}
+
+	/**
+	 * This class is a copy of the tabs and links, which can be read from any thread.
+	 */
+	private static class Snapshot {
+		private final long             version;
+		private volatile long          taken = System.currentTimeMillis();
+		private final String[]         names;
+		private final File[]           folders;
+		private final CustomLinkList[] lists;
+		private final CustomLink[][]   links;
+		private final byte[]           tabsJson;
+
+		// Written when first asked for: the JSON of each tab's links, then of every link; and the position of each link.
+		private final AtomicReferenceArray<byte[]>                   linksJson;
+		private final AtomicReferenceArray<Map<CustomLink, Integer>> positions;
+
+		/**
+		 * This constructor copies the tabs. It must be called on the GUI thread.
+		 *
+		 * @param tabList - the tabs.
+		 * @param version - the modification count of the tabs, to tell when they change.
+		 */
+		private Snapshot(CustomTabList tabList, long version) {
+			this.version = version;
+			ArrayList<CustomLinkPane> tabs = tabList.getTabList();
+			names = new String[tabs.size()];
+			folders = new File[tabs.size()];
+			lists = new CustomLinkList[tabs.size()];
+			links = new CustomLink[tabs.size()][];
+			linksJson = new AtomicReferenceArray<byte[]>(tabs.size() + 1);
+			positions = new AtomicReferenceArray<Map<CustomLink, Integer>>(tabs.size());
+
+			StringBuilder sb = new StringBuilder("{\"tabs\":[");
+			for (int t=0; t<tabs.size(); t++) {
+				lists[t] = tabs.get(t).getLinkList();
+				names[t] = lists[t].getName();
+				folders[t] = tabs.get(t).getWatchedFolder();
+				links[t] = new CustomLink[lists[t].getListSize()];
+				int count = 0;
+				for (int i=0; i<links[t].length; i++) {
+					links[t][i] = lists[t].getLinkAt(i);
+					if (links[t][i].getType() != CustomLink.SEP) {
+						count++;
+					}
+				}
+
+				sb.append(t == 0 ? "{" : ",{").append("\"id\":").append(t).append(",\"name\":");
+				quote(sb, names[t]);
+				sb.append(",\"folder\":");
+				quote(sb, folders[t] == null ? null : folders[t].getPath());
+				sb.append(",\"links\":").append(count).append('}');
+			}
+			tabsJson = sb.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * @return - the JSON of the links of a tab, or of every tab.
+		 * @param tab - the tab, or -1 for every tab.
+		 */
+		private byte[] linksJson(int tab) {
+			int slot = tab < 0 ? names.length : tab;
+			byte[] json = linksJson.get(slot);
+			if (json == null) {
+				StringBuilder sb = new StringBuilder("{\"links\":[");
+				boolean first = true;
+				for (int t=0; t<names.length; t++) {
+					if (tab >= 0 && t != tab) {
+						continue;
+					}
+					for (int i=0; i<links[t].length; i++) {
+						if (links[t][i].getType() != CustomLink.SEP) {
+							sb.append(first ? "" : ",");
+							link(sb, t, i, links[t][i]);
+							first = false;
+						}
+					}
+				}
+				json = sb.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+				linksJson.set(slot, json);
+			}
+			return json;
+		}
+
+		/**
+		 * @return - the position of the link on the tab, or -1 if it is not there.
+		 * @param tab - the tab.
+		 * @param link - the link.
+		 */
+		private int positionOf(int tab, CustomLink link) {
+			Map<CustomLink, Integer> map = positions.get(tab);
+			if (map == null) {
+				map = new HashMap<CustomLink, Integer>();
+				for (int i=links[tab].length-1; i>=0; i--) {
+					// Of several equal links, the first is found.
+					map.put(links[tab][i], i);
+				}
+				positions.set(tab, map);
+			}
+			Integer position = map.get(link);
+			return position == null ? -1 : position;
+		}
+
+		/**
+		 * @return - the tab showing the link list, or -1 if none does.
+		 * @param list - the link list.
+		 */
+		private int tabOf(CustomLinkList list) {
+			for (int t=0; t<lists.length; t++) {
+				if (lists[t] == list) {
+					return t;
+				}
+			}
+			return -1;
+		}
+	}
+
+	private ControlApi() {
+	}
+
+	/**
+	 * This function will serve the API at http://127.0.0.1:port/api/, if it is not already served.
+	 *
+	 * @param port - the port to listen on.
+	 */
+	public static synchronized void serve(int port) {
+		if (server != null) {
+			return;
+		}
+
+		// Send each answer at once. Otherwise, small answers on a kept-alive connection wait for the
+		// client to acknowledge the headers, which takes 40 ms on most systems.
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+
+		final HttpServer server;
+		try {
+			token = KeyFile.readOrCreate(TOKEN_FILE).getBytes(StandardCharsets.UTF_8);
+			server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		}
+		catch (IOException e) {
+			JOptionPane.showMessageDialog(LinkManager.getFrame(), "The control API cannot be served on port " + port + ".\n" + e.getLocalizedMessage(),
+					"Control API Error", JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+
+		server.createContext("/api/", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					route(exchange);
+				}
+				catch (Failure e) {
+					StringBuilder sb = new StringBuilder("{\"error\":");
+					quote(sb, e.getMessage());
+					send(exchange, e.status, sb.append('}').toString().getBytes(StandardCharsets.UTF_8));
+				}
+				finally {
+					exchange.close();
+				}
+			}
+		});
+		server.setExecutor(newExecutor());
+
+		// Start the server from a daemon thread, so the thread it starts is a daemon too,
+		// and the program still ends when its window is closed.
+		Thread starter = new Thread(new Runnable() {
+			public void run() {
+				server.start();
+			}
+		}, "Control API");
+		starter.setDaemon(true);
+		starter.start();
+		ControlApi.server = server;
+	}
+
+	/**
+	 * @return - a virtual thread for every request on Java 21 or later, so a request streaming
+	 *           output never holds a thread of its own; otherwise, a pool of daemon threads.
+	 */
+	private static ExecutorService newExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "Control API-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+	}
+
+	/**
+	 * This function will answer a request.
+	 *
+	 * @param exchange - the request, and its answer.
+	 */
+	private static void route(HttpExchange exchange) throws IOException, Failure {
+		String header = exchange.getRequestHeaders().getFirst("Authorization");
+		if (header == null || !header.startsWith("Bearer ")
+				|| !MessageDigest.isEqual(header.substring(7).trim().getBytes(StandardCharsets.UTF_8), token)) {
+			throw new Failure(401, "The key from " + TOKEN_FILE.getName() + " must be sent as: Authorization: Bearer key");
+		}
+
+		String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+		Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+		String method = exchange.getRequestMethod();
+
+		if (path.length == 1 && path[0].equals("tabs")) {
+			expect(method, "GET");
+			send(exchange, 200, snapshot().tabsJson);
+		}
+		else if (path.length == 1 && path[0].equals("links")) {
+			expect(method, "GET");
+			Snapshot s = snapshot();
+			int tab = query.containsKey("tab") ? number(query.get("tab")) : -1;
+			if (tab >= s.names.length) {
+				throw new Failure(404, "There is no tab " + tab + ".");
+			}
+			send(exchange, 200, s.linksJson(tab));
+		}
+		else if (path.length == 1 && path[0].equals("search")) {
+			expect(method, "GET");
+			String text = query.get("q");
+			if (text == null) {
+				throw new Failure(400, "The text to search for must be given as q.");
+			}
+			int limit = query.containsKey("limit") ? Math.min(number(query.get("limit")), MAX_SEARCH_LIMIT) : SEARCH_LIMIT;
+			send(exchange, 200, search(text, limit));
+		}
+		else if (path.length == 3 && path[0].equals("links") && path[2].equals("launch")) {
+			expect(method, "POST");
+			LinkLauncher.Launch launch = launchLink(path[1]);
+			synchronized (launches) {
+				launches.put(launch.getId(), launch);
+			}
+			exchange.getResponseHeaders().set("Location", "/api/launches/" + launch.getId());
+			send(exchange, 202, launchJson(launch));
+		}
+		else if (path.length == 2 && path[0].equals("launches")) {
+			expect(method, "GET");
+			send(exchange, 200, launchJson(launch(path[1])));
+		}
+		else if (path.length == 3 && path[0].equals("launches") && path[2].equals("output")) {
+			expect(method, "GET");
+			stream(exchange, launch(path[1]));
+		}
+		else {
+			throw new Failure(404, "There is no " + exchange.getRequestURI().getPath() + ".");
+		}
+	}
+
+	/**
+	 * @return - the copy of the tabs and links, taken again first if it is old and the session
+	 *           has changed since.
+	 */
+	private static Snapshot snapshot() throws Failure {
+		Snapshot s = snapshot;
+		if (s != null && System.currentTimeMillis() - s.taken <= REFRESH_MILLIS) {
+			return s;
+		}
+
+		// Telling whether the session has changed only compares a count, so it is done before answering.
+		s = onGuiThread(new Callable<Snapshot>() {
+			public Snapshot call() {
+				return refresh();
+			}
+		});
+		if (s == null) {
+			throw new Failure(503, "The session has not been loaded yet.");
+		}
+		return s;
+	}
+
+	/**
+	 * This function will copy the tabs and links, if they have changed since the last copy.
+	 * It must be called on the GUI thread.
+	 *
+	 * @return - the current copy, or null if the window has no tabs yet.
+	 */
+	private static Snapshot refresh() {
+		CustomTabList tabList = LinkManager.getTabbedList();
+		if (tabList == null) {
+			return null;
+		}
+
+		long version = tabList.getModificationCount();
+		Snapshot s = snapshot;
+		if (s != null && s.version == version) {
+			s.taken = System.currentTimeMillis();
+			return s;
+		}
+		s = new Snapshot(tabList, version);
+		snapshot = s;
+		return s;
+	}
+
+	/**
+	 * @return - the JSON of the links best matching the text.
+	 * @param text - the text to search for.
+	 * @param limit - the largest number of links to answer with.
+	 */
+	private static byte[] search(final String text, final int limit) throws Failure {
+		Snapshot s = snapshot();
+
+		// The search index is kept on the GUI thread, like the link lists it follows.
+		List<SearchIndex.Match> matches = onGuiThread(new Callable<List<SearchIndex.Match>>() {
+			public List<SearchIndex.Match> call() {
+				return SearchIndex.getInstance().search(text, limit);
+			}
+		});
+
+		StringBuilder sb = new StringBuilder("{\"links\":[");
+		boolean first = true;
+		for (SearchIndex.Match match : matches) {
+			// Links added since the copy was taken are left out, as they have no ID yet.
+			int tab = s.tabOf(match.getList());
+			int position = tab < 0 ? -1 : s.positionOf(tab, match.getLink());
+			if (position >= 0) {
+				sb.append(first ? "" : ",");
+				link(sb, tab, position, match.getLink());
+				first = false;
+			}
+		}
+		return sb.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * This function will run the link of the ID, as long as it is still the link at that
+	 * position in the window. The ID was read from a copy of the session, so the link may have
+	 * been moved or removed since.
+	 *
+	 * @return - the launch of the link.
+	 * @param id - the tab and position of the link, such as 2.15.
+	 */
+	private static LinkLauncher.Launch launchLink(final String id) throws Failure {
+		Snapshot s = snapshot();
+		int dot = id.indexOf('.');
+		int tab = dot > 0 ? number(id.substring(0, dot)) : -1;
+		final int position = dot > 0 ? number(id.substring(dot + 1)) : -1;
+		if (tab < 0 || tab >= s.links.length || position >= s.links[tab].length
+				|| s.links[tab][position].getType() == CustomLink.SEP) {
+			throw new Failure(404, "There is no link " + id + ".");
+		}
+
+		// Compare with the window and queue the link in one step, so it cannot change in between.
+		final CustomLinkList list = s.lists[tab];
+		final CustomLink link = s.links[tab][position];
+		final int index = tab;
+		LinkLauncher.Launch launch = onGuiThread(new Callable<LinkLauncher.Launch>() {
+			public LinkLauncher.Launch call() {
+				List<CustomLinkPane> tabs = LinkManager.getTabbedList().getTabList();
+				if (index >= tabs.size() || tabs.get(index).getLinkList() != list
+						|| position >= list.getListSize() || !link.equals(list.getLinkAt(position))) {
+					return null;
+				}
+				return LinkLauncher.getInstance().launch(link);
+			}
+		});
+		if (launch == null) {
+			throw new Failure(409, "Link " + id + " has been moved or removed; list the links again for its ID.");
+		}
+		return launch;
+	}
+
+	/**
+	 * @return - the launch of the number.
+	 * @param id - the number of the launch.
+	 */
+	private static LinkLauncher.Launch launch(String id) throws Failure {
+		LinkLauncher.Launch launch;
+		synchronized (launches) {
+			launch = launches.get((long) number(id));
+		}
+		if (launch == null) {
+			throw new Failure(404, "There is no launch " + id + ", or it was too long ago.");
+		}
+		return launch;
+	}
+
+	/**
+	 * This function will send the output of the launch as it is written, until the launch finishes.
+	 *
+	 * @param exchange - the request, and its answer.
+	 * @param launch - the launch.
+	 */
+	private static void stream(HttpExchange exchange, LinkLauncher.Launch launch) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(200, 0);
+		OutputStream out = exchange.getResponseBody();
+
+		int from = 0;
+		while (true) {
+			// Checked before reading, so lines written just before the launch finished are still sent.
+			boolean finished = launch.isFinished();
+			List<String> lines;
+			try {
+				lines = launch.read(from, OUTPUT_WAIT_MILLIS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+
+			for (String line : lines) {
+				out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+			}
+			from += lines.size();
+
+			// Sending nothing still finds out whether the client has gone.
+			out.flush();
+			if (finished && lines.isEmpty()) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return - the value the callable returns on the GUI thread.
+	 * @param callable - what to run on the GUI thread.
+	 */
+	private static <T> T onGuiThread(Callable<T> callable) throws Failure {
+		FutureTask<T> task = new FutureTask<T>(callable);
+		SwingUtilities.invokeLater(task);
+		try {
+			return task.get(GUI_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e) {
+			// Nothing is done once the request has been refused, unless it had already started.
+			task.cancel(false);
+			throw new Failure(503, "The window is busy; try again.");
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new Failure(503, "The request was interrupted.");
+		}
+		catch (ExecutionException e) {
+			throw new Failure(500, String.valueOf(e.getCause()));
+		}
+	}
+
+	/**
+	 * This function will refuse the request, unless it uses the method expected.
+	 *
+	 * @param method - the method of the request.
+	 * @param expected - the method expected.
+	 */
+	private static void expect(String method, String expected) throws Failure {
+		if (!method.equals(expected)) {
+			throw new Failure(405, "Only " + expected + " is allowed here.");
+		}
+	}
+
+	/**
+	 * @return - the number, which must be zero or more.
+	 * @param text - the number, as sent.
+	 */
+	private static int number(String text) throws Failure {
+		try {
+			int number = Integer.parseInt(text);
+			if (number >= 0) {
+				return number;
+			}
+		}
+		catch (NumberFormatException e) {
+		}
+		throw new Failure(400, "\"" + text + "\" is not a number.");
+	}
+
+	/**
+	 * @return - the parameters of the query, decoded.
+	 * @param raw - the query, as sent, or null if there is none.
+	 */
+	private static Map<String, String> query(String raw) throws Failure {
+		Map<String, String> query = new HashMap<String, String>();
+		if (raw == null) {
+			return query;
+		}
+		try {
+			for (String parameter : raw.split("&")) {
+				int equals = parameter.indexOf('=');
+				if (equals > 0) {
+					query.put(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"), URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+				}
+			}
+		}
+		catch (UnsupportedEncodingException | IllegalArgumentException e) {
+			throw new Failure(400, "The query could not be read.");
+		}
+		return query;
+	}
+
+	/**
+	 * This function will send a JSON answer.
+	 *
+	 * @param exchange - the request, and its answer.
+	 * @param status - the status of the answer.
+	 * @param body - the JSON.
+	 */
+	private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(body);
+	}
+
+	/**
+	 * @return - the JSON of the launch.
+	 * @param launch - the launch.
+	 */
+	private static byte[] launchJson(LinkLauncher.Launch launch) {
+		long[] times = launch.getTimes();
+		StringBuilder sb = new StringBuilder("{\"id\":").append(launch.getId()).append(",\"link\":");
+		quote(sb, launch.getName());
+		sb.append(",\"state\":");
+		quote(sb, launch.getState());
+		sb.append(",\"queued\":").append(times[0]);
+		sb.append(",\"started\":").append(times[1]);
+		sb.append(",\"finished\":").append(times[2]);
+		return sb.append('}').toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes the JSON of a link.
+	 *
+	 * @param sb - the JSON being written.
+	 * @param tab - the tab of the link.
+	 * @param position - the position of the link on its tab.
+	 * @param link - the link.
+	 */
+	private static void link(StringBuilder sb, int tab, int position, CustomLink link) {
+		sb.append("{\"id\":\"").append(tab).append('.').append(position).append("\",\"tab\":").append(tab).append(",\"name\":");
+		quote(sb, link.getName());
+		sb.append(",\"type\":");
+		quote(sb, LinkTypes.getName(link.getType()));
+		sb.append(",\"target\":");
+		quote(sb, link.getTarget());
+		sb.append('}');
+	}
+
+	/**
+	 * Writes a JSON string, escaping quotes, backslashes, and control characters, or null.
+	 *
+	 * @param sb - the JSON being written.
+	 * @param value - the string, or null.
+	 */
+	private static void quote(StringBuilder sb, String value) {
+		if (value == null) {
+			sb.append("null");
+			return;
+		}
+
+		sb.append('"');
+		for (int i=0; i<value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':  sb.append("\\\""); break;
+			case '\\': sb.append("\\\\"); break;
+			case '\n': sb.append("\\n");  break;
+			case '\r': sb.append("\\r");  break;
+			case '\t': sb.append("\\t");  break;
+			default:
+				if (c < 0x20) {
+					sb.append(String.format("\\u%04x", (int) c));
+				}
+				else {
+					sb.append(c);
+				}
+			}
+		}
+		sb.append('"');
+	}
+}
@@ -1,46 +1,33 @@
-import java.awt.Desktop;
-import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.net.URI;
 import java.net.URISyntaxException;
-import java.net.URL;
-import java.net.URLDecoder;
-import java.nio.file.Paths;
-
-import javax.swing.JLabel;
-import javax.swing.JOptionPane;
+import java.util.Objects;
 
 /**
  * This class will represent a standard link that has a name, target, and type.
  * 
  * The link type will be used to determine what action to take when it is clicked.
  * For instance, a web URL will be treated differently than a file path or a remote path, etc.
+ * 
+ * Links hold no Swing state, and cannot be changed once created. To rename or retarget a link,
+ * a new link is created and put in its place, so the link lists are notified of every change.
+ * Links are drawn on screen by the shared LinkCellRenderer.
  *  
  * @author Ian Gardea
  *
  */
-public class CustomLink extends JLabel{
-	
-	private static final long serialVersionUID = 1L;
+public class CustomLink {
 	
 	public static final int HTTP = 0; // Web URL
 	public static final int FILE = 1; // Regular file path
 	public static final int FTP  = 2; // Remote path 
 	public static final int CMD  = 3; // DOS command
 	public static final int SEP  = 4; // Separator
+	// Further types are numbered by LinkTypes.
 	
-	// String representation of the above integer variables. 
-	private static final String strHTTP = "http";
-	private static final String strFILE = "file";
-	private static final String strFTP  = "ftp";
-	private static final String strCMD  = "cmd";
-	private static final String strSEP  = "sep";
-
 	// Local variables.
-	private String name;
-	private String target;
-	private int    type;
+	private final String name;
+	private final String target;
+	private final byte   type;
 
 	/**
 	 * This constructor defines a link using only a name. These
@@ -52,8 +39,6 @@ public class CustomLink extends JLabel{
 	 * @param name - the name of the link.
 	 */
 	public CustomLink(String name) {
-		super();
-
 		this.name = name;
 		this.target = "SEPARATOR";
 		this.type = CustomLink.SEP;
@@ -68,11 +53,9 @@ public class CustomLink extends JLabel{
 	 * @param type - the type of the link as an integer.
 	 */
 	public CustomLink(String name, String target, int type) {
-		super();
-
 		this.name = name;
 		this.target = target;
-		this.type = type;
+		this.type = (byte) (LinkTypes.isType(type) ? type : CustomLink.FILE);
 	}
 
 	/**
@@ -84,13 +67,8 @@ public class CustomLink extends JLabel{
 	 * @param type - the type of the link as a String.
 	 */
 	public CustomLink(String name, String target, String type) {
-		super();
-
-		this.name = name;
-		this.target = target;
-		
 		// Convert the type so only one value type needs to be considered going forward.
-		this.type = setType(type);
+		this(name, target, getTypeFromString(type));
 	}
 
 	/**
@@ -119,285 +97,118 @@ public class CustomLink extends JLabel{
 	 * @param type - the integer type to be converted.
 	 */
 	public static String getTypeAsString(int type) {
-		switch(type) {
-		case CustomLink.HTTP: return strHTTP;
-		case CustomLink.FILE: return strFILE;
-		case CustomLink.FTP: return strFTP;
-		case CustomLink.CMD: return strCMD;
-		case CustomLink.SEP: return strSEP;
-		default: return strFILE;
-		}
+		return LinkTypes.getName(type);
 	}
 	
 	/**
-	 * @param name - the name to be assigned to the link.
+	 * @return - a copy of the link with a new name.
+	 * @param name - the name to be assigned to the copy.
 	 */
-	public void setName(String name){
-		this.name = name;
+	public CustomLink withName(String name){
+		return new CustomLink(name, target, type);
 	}
 
 	/**
-	 * @param target - the target/file-path to be assigned to the link.
+	 * @return - the integer type represented by the String, or FILE if it is not recognized.
+	 * @param sType - the String type to be converted.
 	 */
-	public void setTarget(String target){
-		this.target = target;
+	public static int getTypeFromString(String sType) {
+		int type = parseType(sType);
+		return type < 0 ? CustomLink.FILE : type;
 	}
 
 	/**
-	 * This function determines the type assigned to the customized link.
+	 * This function will validate a stored String type, such as the Type attribute of a saved link.
 	 * 
-	 * @return - the converted integer type of the link.
-	 * @param sType - the String type currently assigned to the link.
+	 * @return - the integer type represented by the String, or -1 if it is missing or not recognized.
+	 * @param sType - the String type to be converted.
 	 */
-	public int setType(String sType){
-		switch(sType) {
-		case strHTTP: return setType(CustomLink.HTTP);
-		case strFILE: return setType(CustomLink.FILE);
-		case strFTP: return setType(CustomLink.FTP);
-		case strCMD: return setType(CustomLink.CMD);
-		case strSEP: return setType(CustomLink.SEP);
-		default: return CustomLink.FILE;
+	public static int parseType(String sType) {
+		if(sType == null) {
+			return -1;
 		}
+		return LinkTypes.find(sType);
 	}
 	
-	/**
-	 * This setter will assign the type to the specified value, and
-	 * then return the value that was assigned.
-	 * 
-	 * @return - the integer type assigned to the link.
-	 * @param iType - the integer type to be assigned to the link.
-	 */
-	public int setType(int iType){
-		switch(iType) {
-		case CustomLink.HTTP: 
-			type = CustomLink.HTTP;
-			return type;
-		case CustomLink.FILE: 
-			type = CustomLink.FILE;
-			return type;
-		case CustomLink.FTP: 
-			type = CustomLink.FTP;
-			return type;
-		case CustomLink.CMD: 
-			type = CustomLink.CMD;
-			return type;
-		case CustomLink.SEP: 
-			type = CustomLink.SEP;
-			return type;
-		default: return CustomLink.FILE;
-		}
-	}
-
 	/**
 	 * This function will determine what type to assign
 	 * to a link by parsing the target string passed in.
 	 * 
+	 * Only the prefixes that can apply to the target's first character are checked, ignoring case, 
+	 * using the tables built by LinkTypes from every registered type. The type is worked out once, 
+	 * when a link is created or retargeted, and then stored on the link.
+	 * 
 	 * @return - the calculated integer type of the link.
 	 * @param target - the String target of the link.
 	 */
 	public static int determineType(String target){
-		// Standard checks.
-		if(target.toUpperCase().startsWith("HTTP:")) {
-			return CustomLink.HTTP;
-		}
-		else if(target.toUpperCase().startsWith("HTTPS:")) {
-			return CustomLink.HTTP;
-		}
-		else if(target.toUpperCase().startsWith("WWW.")) {
-			return CustomLink.HTTP;
-		}
-		else if(target.toUpperCase().startsWith("\\\\")) {
-			return CustomLink.FTP;
-		}
-		
-		// If no match was found, try matching properties that apply to Windows only.
-		else if(target.toUpperCase().startsWith("%WINDIR%")) {
-			return CustomLink.FTP;
-		}
-		else if(target.toUpperCase().startsWith("COMMAND: ")) {
-			return CustomLink.CMD;
-		}
-		else if(target.toUpperCase().startsWith("SEPARATOR")) {
-			return CustomLink.SEP;
-		}
-
-		// If no match was found, then try using the file extension.
-		// If all else fails, then assume that this the link type is a file.
-		int extIndex = target.lastIndexOf("."); 
-		if (extIndex == -1) { 
-			return CustomLink.FILE; 
-		} 
-		else { 
-			switch(target.substring(extIndex + 1).toUpperCase()) {
-			case "URL": return CustomLink.HTTP;
-			default: return CustomLink.FILE;
-			}
-		}
+		return LinkTypes.classify(target);
 	}
 
 	/**
-	 * This function will utilize the Desktop framework to open/browse 
-	 * the link's target path. 
+	 * This function will open/browse the link's target path, using the
+	 * handler of the link's type.
 	 * 
-	 * This framework will most likely only work properly on Windows platforms.
+	 * The handlers will most likely only work properly on Windows platforms.
+	 * Errors are reported through the LinkLauncher, as links are usually run on its thread.
 	 * 
 	 * @return - the success/failure of the browse operation.
 	 */
 	public boolean browse(){
 		boolean success = true;
+		FlightEvents.Span span = FlightEvents.begin(FlightEvents.LAUNCH);
+		long start = System.nanoTime();
 
 		try {
-			// Get the link target, and replace the custom variable placeholder String with the actual value assigned.
-			String temp = target.replace("CUSTOM_VAR", LinkManager.CUSTOM_VAR);	
+			// Get the link target, with each variable replaced by the value currently assigned.
+			String temp = LinkTemplate.forTarget(target).expand();
 			
-			// Process the link based on its type.
-			if(type == CustomLink.FILE) {
-				// Use the desktop framework to browse, if supported.
-				if(Desktop.isDesktopSupported()) {
-					URI uri = Paths.get(temp).toUri();
-					uri.normalize();
-					Desktop.getDesktop().browse(uri);
-				}
-				else {
-					success = false;
-				}
-			}
-			else if(type == CustomLink.HTTP) {
-				// Convert the URL to a URI, then use the desktop framework to browse, if supported.
-				if(Desktop.isDesktopSupported()) {
-					URL url = new URL(temp);
-					Desktop.getDesktop().browse(url.toURI());
-				}
-				else {
-					success = false;
-				}
-			}
-			else if(type == CustomLink.FTP || type == CustomLink.CMD) {
-				try {
-					// Now things get interesting...
-					// The basic idea of the below code is to create a batch file that will do the heavy lifting and process
-					// commands like they would be on the Windows OS.
-					
-					// Create a temporary batch file that will be used to run the commands written to it.
-					final File file = new File("run.bat");
-					String fName = file.getName();
-
-					file.createNewFile();
-					PrintWriter writer = new PrintWriter(file, "UTF-8");
-					
-					// Set the batch to not display unnecessary information.
-					writer.println("@echo off");
-					
-					// If this is a DOS command, pass the command specified after the "COMMAND: " tag.
-					if(type == CustomLink.CMD) {
-						temp = URLDecoder.decode(temp, "UTF-8"); // Decode the URL for compatibility.
-						temp = temp.substring(9);                // Truncate the "COMMAND: " in the beginning of the String.
-						
-						// Keep the command prompt on screen after processing PING, IPCONFIG, or NSLOOKUP command.
-						if(temp.toUpperCase().contains("PING") 
-								|| temp.toUpperCase().contains("NSLOOKUP")
-								|| temp.toUpperCase().contains("IPCONFIG")) {
-							writer.println("start call " + temp);
-						}
-						else {
-							writer.println("start " + temp);
-						}
-					}
-					// If this is a remote path, then surround the provided target with quotes, and run it in Windows explorer.
-					else if(temp.startsWith("\\\\")) {
-						writer.println("%SystemRoot%\\explorer.exe \"" + temp + "\"");
-					}
-					else if(temp.toUpperCase().startsWith("%WINDIR%")) {
-						writer.println("start " + temp);
-					}
-					else {
-						success = false;
-					}
-					
-					// Suspend the thread to prevent undesirable effects.
-					// For instance, setting this sleep timer allow tabs to be created in web 
-					// browsers when multiple URLs are being opened.
-					// If this is not done, then it possible that not every selected link will run.
-					writer.println("ping 1.1.1.1 -n 1 -w " + LinkManager.SLEEPTIME + ">nul");
-					writer.close();
-
-					// The below will run the windows batch file based on the version of windows being used.
-					
-					/*
-					 * Properly handle commands sent to and from the batch file.
-					 * Credit:
-					 * JAVA TRAPS
-					 * By Michael C. Daconta
-					 * http://www.javaworld.com/article/2071275/core-java/when-runtime-exec---won-t.html?page=2
-					 */
-
-					String osName = System.getProperty("os.name" );
-					String[] cmd = new String[3];
-					if( osName.equals("Windows NT")) {
-						cmd[0] = "cmd.exe" ;
-					}
-					else if(osName.equals("Windows 95")){
-						cmd[0] = "command.com" ;
-					}
-					else {
-						cmd[0] = "cmd" ;
-					}
-					
-					cmd[1] = "/C" ;
-					cmd[2] = fName; // Batch file name.
-
-					Runtime rt = Runtime.getRuntime();
-					System.out.println("Executing " + cmd[0] + " " + cmd[1] + " " + cmd[2]);
-					Process proc = rt.exec(cmd);
-
-					// Errors
-					StreamInterpreter errorInterpreter = new StreamInterpreter(proc.getErrorStream(), "ERROR");            
-
-					// General output
-					StreamInterpreter outputInterpreter = new StreamInterpreter(proc.getInputStream(), "OUTPUT");
-
-					// Kick off the I/O stream
-					errorInterpreter.start();
-					outputInterpreter.start();
-
-					// Any errors?
-					int exitVal = proc.waitFor();
-
-					System.out.println("ExitValue: " + exitVal); 
-					// End of credited code.
-					
-					// Delete the temporary batch file.
-					file.delete();
-				} 
-				catch (Throwable t) {
-					JOptionPane.showMessageDialog(LinkManager.getFrame(), t.getLocalizedMessage(),
-							"I/O Error", JOptionPane.ERROR_MESSAGE);
-					success = false;
-				}
-			}
-			else {
-				success = false;
-			}
+			// Process the link with the handler of its type.
+			success = LinkTypes.get(type).launch(temp);
 		}
 		catch (URISyntaxException e) {
-			JOptionPane.showMessageDialog(LinkManager.getFrame(), e.getLocalizedMessage(),
-					"URI Syntax Exception", JOptionPane.ERROR_MESSAGE);
+			LinkLauncher.reportError(e, "URI Syntax Exception");
 			success = false;
 		}
 		catch (IOException e) {
-			JOptionPane.showMessageDialog(LinkManager.getFrame(), e.getLocalizedMessage(),
-					"I/O Exception", JOptionPane.ERROR_MESSAGE);
+			LinkLauncher.reportError(e, "I/O Exception");
 			success = false;
 		}
 		catch (Exception e) {
-			JOptionPane.showMessageDialog(LinkManager.getFrame(), e.getLocalizedMessage(),
-					"Unknown Error", JOptionPane.ERROR_MESSAGE);
+			LinkLauncher.reportError(e, "Unknown Error");
 			success = false;
 		}
 
+		span.commit(LinkTypes.getName(type), success ? 1 : 0, 0);
+		Metrics.recordLaunch(LinkTypes.getName(type), success, 1, System.nanoTime() - start);
 		return success;
 	}
 
+	/**
+	 * @return - true if the object is a link with the same name, target, and type.
+	 * @param obj - the object to compare to.
+	 */
+	@Override
+	public boolean equals(Object obj){
+		if(this == obj) {
+			return true;
+		}
+		if(!(obj instanceof CustomLink)) {
+			return false;
+		}
+		
+		CustomLink other = (CustomLink) obj;
+		return type == other.type && Objects.equals(name, other.name) && Objects.equals(target, other.target);
+	}
+
+	/**
+	 * @return - a hash code built from the link's name, target, and type.
+	 */
+	@Override
+	public int hashCode(){
+		return Objects.hash(name, target, type);
+	}
+
 	/**
 	 * 
 	 */
@@ -1,7 +1,11 @@
 
 import java.awt.GridLayout;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 
-import javax.swing.DefaultListModel;
 import javax.swing.JLabel;
 import javax.swing.JList;
 import javax.swing.JOptionPane;
@@ -22,15 +26,34 @@ public class CustomLinkList extends JList<CustomLink> {
 	private static final long serialVersionUID = 1L;
 
 	//JPanel variables
-	private String                       listName;
-	private DefaultListModel<CustomLink> listModel;
+	private String        listName;
+	private LinkListModel listModel;
+	
+	// The links pointing to each normalized target, used to detect and replace duplicates.
+	private final HashMap<String, Target> targetIndex = new HashMap<String, Target>();
+
+	// Set when links have been removed or moved, until the first positions are found again.
+	private boolean positionsStale;
+
+	/**
+	 * This class counts the links pointing to a target, and keeps the position of the first.
+	 */
+	private static class Target {
+		private int count;
+		private int first;
+
+		private Target(int first) {
+			this.count = 1;
+			this.first = first;
+		}
+	}
 
 	/**
 	 * This constructor defines a list of links using a default name.
 	 * 
 	 */
 	public CustomLinkList() {
-		listModel = new DefaultListModel<CustomLink>();
+		listModel = new LinkListModel();
 		setModel(listModel);
 
 		this.listName = "Default";
@@ -40,7 +63,18 @@ public class CustomLinkList extends JList<CustomLink> {
 	 * @param listName - the name assigned to the link list.
 	 */
 	public CustomLinkList(String listName) {
-		listModel = new DefaultListModel<CustomLink>();
+		listModel = new LinkListModel();
+		setModel(listModel);
+
+		this.listName = listName;
+	}
+
+	/**
+	 * @param listName - the name assigned to the link list.
+	 * @param store - the store to hold the links in, rather than the one chosen in the INI file.
+	 */
+	public CustomLinkList(String listName, LinkStore store) {
+		listModel = new LinkListModel(store);
 		setModel(listModel);
 
 		this.listName = listName;
@@ -58,7 +92,15 @@ public class CustomLinkList extends JList<CustomLink> {
 	 * @param index - the integer position of the link to retrieve from the link list.
 	 */
 	public CustomLink getLinkAt(int index) {
-		return listModel.elementAt(index);
+		return listModel.getElementAt(index);
+	}
+
+	/**
+	 * @return - the position of the link in the link list, or -1 if it is not present.
+	 * @param link - the link to search for.
+	 */
+	public int indexOf(CustomLink link) {
+		return listModel.indexOf(link);
 	}
 
 	/**
@@ -81,9 +123,24 @@ public class CustomLinkList extends JList<CustomLink> {
 	 * @param link - the link object to be added to the link list.
 	 */
 	public void addElement(CustomLink link) {
+		index(key(link), listModel.getSize());
 		listModel.addElement(link);
 	}
 
+	/**
+	 * Adds several links to the end of the link list at once, such as when a session is loaded.
+	 * The table showing the list is only notified once.
+	 * 
+	 * @param links - the link objects to be added to the link list.
+	 */
+	public void addLinks(List<CustomLink> links) {
+		int position = listModel.getSize();
+		for (CustomLink link : links) {
+			index(key(link), position++);
+		}
+		listModel.addAll(links);
+	}
+
 	/**
 	 * Adds a link to the link list using a specific name, target, and link type
 	 * as a String.
@@ -94,7 +151,7 @@ public class CustomLinkList extends JList<CustomLink> {
 	 * @param type - the String type of the link to be added to the link list.
 	 */
 	public void addElement(String name, String target, String type) {
-		listModel.addElement(new CustomLink(name, target, type));
+		addElement(new CustomLink(name, target, type));
 	}
 
 	/**
@@ -107,7 +164,25 @@ public class CustomLinkList extends JList<CustomLink> {
 	 * @param type - the integer type of the link to be added to the link list.
 	 */
 	public void addElement(String name, String target, int type) {
-		listModel.addElement(new CustomLink(name, target, type));
+		addElement(new CustomLink(name, target, type));
+	}
+
+	/**
+	 * Replaces the link at the provided position in the link list.
+	 * 
+	 * @param index - the integer position of the link to be replaced.
+	 * @param link - the link to place at the position.
+	 */
+	public void setLinkAt(int index, CustomLink link) {
+		String oldKey = key(listModel.getElementAt(index));
+		String newKey = key(link);
+
+		// A link replaced by one with the same target, such as a renamed link, leaves the index as it is.
+		if (oldKey == null ? newKey != null : !oldKey.equals(newKey)) {
+			unindex(oldKey, index);
+			index(newKey, index);
+		}
+		listModel.setElementAt(link, index);
 	}
 
 	/**
@@ -120,7 +195,206 @@ public class CustomLinkList extends JList<CustomLink> {
 	 */
 	@Override
 	public void remove(int index) {
-		listModel.remove(index);
+		unindex(key(listModel.remove(index)), index);
+
+		// Every later link has moved up.
+		if (index < listModel.getSize()) {
+			positionsStale = true;
+		}
+	}
+
+	/**
+	 * Removes the links at the provided positions from the list of links in a single pass.
+	 * 
+	 * @return - the number of links removed.
+	 * @param indices - the integer positions of the links to be removed from the link list.
+	 */
+	public int removeLinks(BitSet indices) {
+		for (int i = indices.nextSetBit(0); i >= 0 && i < listModel.getSize(); i = indices.nextSetBit(i + 1)) {
+			unindex(key(listModel.getElementAt(i)), i);
+		}
+		positionsStale = true;
+		return listModel.removeAll(indices);
+	}
+
+	/**
+	 * @return - true if a link in the link list already points to the target.
+	 * @param target - the target to search for.
+	 */
+	public boolean containsTarget(String target) {
+		return targetIndex.containsKey(normalize(target));
+	}
+
+	/**
+	 * Replaces the first link in the link list that points to the same target as the
+	 * provided link. If there is no such link, the provided link is added instead.
+	 * 
+	 * The position of the first link is kept in the duplicate index, so no links are read,
+	 * unless links have been removed or moved since the last replacement.
+	 * 
+	 * @param link - the link to place in the link list.
+	 */
+	public void replaceDuplicate(CustomLink link) {
+		String key = normalize(link.getTarget(), link.getType());
+		Target target = targetIndex.get(key);
+
+		if (target != null) {
+			if (positionsStale) {
+				findPositions();
+			}
+			setLinkAt(target.first, link);
+			return;
+		}
+		addElement(link);
+	}
+
+	/**
+	 * Removes every link that points to the same target as an earlier link in the link list.
+	 * Separators are never removed.
+	 * 
+	 * @return - the number of links that were removed.
+	 */
+	public int removeDuplicates() {
+		HashSet<String> seen = new HashSet<String>();
+		BitSet duplicates = new BitSet(listModel.getSize());
+
+		for (int i=0; i<listModel.getSize(); i++) {
+			CustomLink temp = listModel.getElementAt(i);
+			if (temp.getType() != CustomLink.SEP && !seen.add(normalize(temp.getTarget(), temp.getType()))) {
+				duplicates.set(i);
+			}
+		}
+		return removeLinks(duplicates);
+	}
+
+	/**
+	 * @return - the key of the link in the duplicate index, or null for a separator.
+	 * @param link - the link.
+	 */
+	private static String key(CustomLink link) {
+		return link.getType() == CustomLink.SEP ? null : normalize(link.getTarget(), link.getType());
+	}
+
+	/**
+	 * Adds a link's target to the duplicate index.
+	 * 
+	 * @param key - the key of the link being added to the link list, or null for a separator.
+	 * @param position - the integer position of the link in the link list.
+	 */
+	private void index(String key, int position) {
+		if (key != null) {
+			Target target = targetIndex.get(key);
+
+			if (target == null) {
+				targetIndex.put(key, new Target(position));
+			}
+			else {
+				target.count++;
+				target.first = Math.min(target.first, position);
+			}
+		}
+	}
+
+	/**
+	 * Removes a link's target from the duplicate index.
+	 * 
+	 * @param key - the key of the link being removed from the link list, or null for a separator.
+	 * @param position - the integer position the link had in the link list.
+	 */
+	private void unindex(String key, int position) {
+		if (key != null) {
+			Target target = targetIndex.get(key);
+
+			if (target == null || target.count <= 1) {
+				targetIndex.remove(key);
+			}
+			else {
+				target.count--;
+
+				// The next link pointing to the target is now the first, wherever it is.
+				if (target.first == position) {
+					positionsStale = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * This function will find the position of the first link pointing to each target again,
+	 * after links have been removed or moved.
+	 * 
+	 */
+	private void findPositions() {
+		for (Target target : targetIndex.values()) {
+			target.first = -1;
+		}
+		for (int i=0; i<listModel.getSize(); i++) {
+			String key = key(listModel.getElementAt(i));
+			if (key != null) {
+				Target target = targetIndex.get(key);
+				if (target.first < 0) {
+					target.first = i;
+				}
+			}
+		}
+		positionsStale = false;
+	}
+
+	/**
+	 * Converts a target to the form used to compare targets, so that differences that do not
+	 * change where it points are ignored. The type is worked out from the target.
+	 * 
+	 * @return - the normalized target.
+	 * @param target - the target to normalize.
+	 */
+	static String normalize(String target) {
+		return target == null ? "" : normalize(target, CustomLink.determineType(target.trim()));
+	}
+
+	/**
+	 * Converts a target to the form used to compare targets. Surrounding white space is always
+	 * ignored. Paths ignore case, slash direction, and trailing slashes, as Windows does; web
+	 * addresses ignore the case of their scheme and host, and trailing slashes, but not the case
+	 * of the rest; other targets, such as commands, are compared as they are.
+	 * 
+	 * @return - the normalized target.
+	 * @param target - the target to normalize.
+	 * @param type - the type of the link pointing to the target.
+	 */
+	static String normalize(String target, int type) {
+		if (target == null) {
+			return "";
+		}
+
+		String key = target.trim();
+		char slash;
+		if (type == CustomLink.FILE || type == CustomLink.FTP) {
+			key = key.toLowerCase(Locale.ROOT).replace('/', '\\');
+			slash = '\\';
+		}
+		else if (type == CustomLink.HTTP) {
+			// The host ends at the first slash, query, or fragment after the scheme.
+			int scheme = key.indexOf("://");
+			int host = key.length();
+			for (int i=scheme < 0 ? 0 : scheme + 3; i<key.length(); i++) {
+				char c = key.charAt(i);
+				if (c == '/' || c == '?' || c == '#') {
+					host = i;
+					break;
+				}
+			}
+			key = key.substring(0, host).toLowerCase(Locale.ROOT) + key.substring(host);
+			slash = '/';
+		}
+		else {
+			return key;
+		}
+
+		int end = key.length();
+		while (end > 0 && key.charAt(end - 1) == slash) {
+			end--;
+		}
+		return key.substring(0, end);
 	}
 
 	/**
@@ -134,9 +408,8 @@ public class CustomLinkList extends JList<CustomLink> {
 			// Only swap if the indices are within the bounds of the array.
 			if (start >= 0 && start < listModel.getSize()
 					&& target >= 0 && target < listModel.getSize()) {
-				CustomLink temp = listModel.getElementAt(start);
-				listModel.setElementAt(listModel.getElementAt(target), start);
-				listModel.setElementAt(temp, target);
+				listModel.swap(start, target);
+				positionsStale = true;
 			}
 		}
 		catch(final ArrayIndexOutOfBoundsException e){
@@ -172,7 +445,8 @@ public class CustomLinkList extends JList<CustomLink> {
 				promptRenameLink(index);
 			} 
 			else {
-				this.getLinkAt(index).setName(input);
+				// Links cannot be changed, so put a renamed copy in its place.
+				setLinkAt(index, getLinkAt(index).withName(input));
 			}
 		}
 	}
@@ -199,9 +473,7 @@ public class CustomLinkList extends JList<CustomLink> {
 				promptRenameLink(index);
 			} 
 			else {
-				this.getLinkAt(index).setTarget(input);
-				this.getLinkAt(index).setType(
-						CustomLink.determineType(this.getLinkAt(index).getTarget()));
+				setLinkAt(index, new CustomLink(getLinkAt(index).getName(), input, CustomLink.determineType(input)));
 			}
 		}
 	}
@@ -233,7 +505,7 @@ public class CustomLinkList extends JList<CustomLink> {
 			else {
 				// Make the link and update the link list.
 				CustomLink temp = new CustomLink(nField.getText(), tField.getText(), CustomLink.determineType(tField.getText()));
-				listModel.addElement(temp);
+				new DuplicateResolver(false).add(this, temp);
 			}
 		}
 
@@ -264,7 +536,7 @@ public class CustomLinkList extends JList<CustomLink> {
 		else {
 			// Make the link and update the link list.
 			CustomLink temp = new CustomLink(input, target, CustomLink.determineType(target));
-			listModel.addElement(temp);
+			new DuplicateResolver(false).add(this, temp);
 		}
 	}
 	
@@ -277,7 +549,7 @@ public class CustomLinkList extends JList<CustomLink> {
 		// Make the link and update the link list.
 		CustomLink temp = new CustomLink(
 				"______________________________________________________________________");
-		listModel.addElement(temp);
+		addElement(temp);
 	}
 
 	/**
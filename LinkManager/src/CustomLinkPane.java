@@ -5,6 +5,8 @@ import java.awt.event.ActionListener;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.awt.event.KeyEvent;
+import java.io.File;
+import java.util.ArrayList;
 
 import javax.swing.BorderFactory;
 import javax.swing.InputMap;
@@ -16,8 +18,6 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.KeyStroke;
-import javax.swing.SwingUtilities;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableColumn;
 
 /**
@@ -33,14 +33,22 @@ public class CustomLinkPane extends JPanel {
 	
 	private final CustomLinkList linkList = new CustomLinkList();
 	
-	private JTable  tablePanel;
-	private JPanel  buttonPanel; 
-	private JButton runButton;
-	private JButton deleteButton;
+	private LinkTableModel tableModel;
+	private JTable         tablePanel;
+	private JPanel         buttonPanel; 
+	private JButton        runButton;
+	private JButton        deleteButton;
+	private JCheckBox      selectAllBox;
+	private JLabel         selectAllLabel;
+	
+	private FolderWatcher watcher;
 
 	/**
 	 * This constructor will initialize the components to be added to the link content pane.
 	 * 
+	 * The components are only created once. The table is bound to the link list, so any link 
+	 * that is added, changed, or removed is reflected in the table without rebuilding it.
+	 * 
 	 */
 	public CustomLinkPane() {
 		// Inherit all of JPanel's native traits.
@@ -50,11 +58,10 @@ public class CustomLinkPane extends JPanel {
 		// Enable DnD
 		DropTargetHandler.enableDragListeners(this);
 		
-		// Assigning null value since these are created dynamically.
-		tablePanel      = null; 
-		buttonPanel     = null;
-		runButton       = null;
-		deleteButton    = null;
+		build();
+		
+		// Make the pane's links searchable from every tab.
+		SearchIndex.getInstance().register(linkList);
 	}
 	
 	/**
@@ -72,15 +79,74 @@ public class CustomLinkPane extends JPanel {
 	}
 	
 	/**
-	 * This function will create the various components to be added to the tab's content pane.
+	 * @return - the model presenting the list of links in the table
+	 */
+	public LinkTableModel getLinkTableModel(){
+		return tableModel;
+	}
+	
+	/**
+	 * @return - the folder this pane is kept in sync with, or null if it is not bound to a folder.
+	 */
+	public File getWatchedFolder(){
+		return watcher == null ? null : watcher.getRoot().toFile();
+	}
+	
+	/**
+	 * This function will bind the pane to a folder, so that its links mirror the files within it.
+	 * Any previous binding is removed first.
 	 * 
-	 * It is designed to allow dynamic creation of links.
+	 * @param folder - the folder to keep the pane in sync with, or null to remove the binding.
+	 */
+	public void setWatchedFolder(File folder){
+		stopWatching();
+		
+		if(folder != null) {
+			watcher = new FolderWatcher(this, folder.toPath());
+			watcher.start();
+		}
+	}
+	
+	/**
+	 * Stops keeping the pane in sync with its folder, if it is bound to one. 
+	 * The links currently in the pane are kept.
 	 * 
 	 */
-	public void refresh() {
-		// Clear the panel of all content, and rebuild it based off of what is currently in the link list.
-		removeAll();
-
+	public void stopWatching(){
+		if(watcher != null) {
+			watcher.stop();
+			watcher = null;
+		}
+	}
+	
+	/**
+	 * Releases the pane once its tab has been removed. It stops watching its folder, 
+	 * and its links can no longer be found by searching.
+	 * 
+	 */
+	public void close(){
+		stopWatching();
+		SearchIndex.getInstance().unregister(linkList);
+	}
+	
+	/**
+	 * Scrolls the table to show a link, and checks its check box.
+	 * 
+	 * @param link - the link to show.
+	 */
+	public void showLink(CustomLink link){
+		int row = linkList.indexOf(link);
+		if(row >= 0) {
+			tableModel.setValueAt(true, row, LinkTableModel.CHECK_BOX_COLUMN);
+			tablePanel.scrollRectToVisible(tablePanel.getCellRect(row, LinkTableModel.NAME_COLUMN, true));
+		}
+	}
+	
+	/**
+	 * This function will create the various components to be added to the tab's content pane.
+	 * 
+	 */
+	private void build() {
 		// Create a button that will run selected check box's file path
 		runButton = new JButton("Run");
 		
@@ -101,67 +167,33 @@ public class CustomLinkPane extends JPanel {
 		buttonPanel = new JPanel(); 
 		
 		// Create a "select all" check box.
-		final JCheckBox selectAllBox   = new JCheckBox();
-		final JLabel    selectAllLabel = new JLabel();
+		selectAllBox   = new JCheckBox();
+		selectAllLabel = new JLabel();
 		selectAllLabel.setText("Select All");
 		
-		// This will be the boolean representation of the click state for each check box (checked = true, unchecked = false).
-		final Boolean[] listSelection = new Boolean[linkList.getModel().getSize()];
-		
 		// Create a new table that will hold the check-boxes, and an adjacent list of links.
-		// Customize the table model by disabling the editing features, which maintaining the check-box functionality.
-		final DefaultTableModel tableModel = new DefaultTableModel() {
-
-		    /**
-			 * Disable editing features of the JTable.
-			 */
-			private static final long serialVersionUID = 1L;
-
-			@Override
-		    public boolean isCellEditable(int row, int column) {
-		       // Maintain check-box functionality.
-		       if(column == 0){
-		    	   return true;
-		       }
-		       return false;
-		    }
-		};
-		
-		// This definition only serves to override to cell rendering such that the first column is always a check-box.
-		tablePanel = new JTable(tableModel) {
-
-            private static final long serialVersionUID = 1L;
-            
-            @Override
-            public Class<?> getColumnClass(int column) {
-                switch (column) {
-                    case 0:
-                    	return Boolean.class;
-                    case 1:
-                        return String.class;
-                    default:
-                    	return String.class;   
-                }
-            }
-        };
+		// The table model only allows the check-boxes to be edited.
+		tableModel = new LinkTableModel(linkList);
+		tablePanel = new JTable(tableModel);
         
 		tablePanel.setFillsViewportHeight(true);
 		tablePanel.setShowGrid(false);                           // Hide cell grid
 		tablePanel.setBackground(SystemColor.menu);              // Match background color
 		tablePanel.setRowSelectionAllowed(false);                // Disable highlighting
 		tablePanel.getTableHeader().setReorderingAllowed(false); // Disable column sorting
+		tablePanel.setDefaultRenderer(CustomLink.class, LinkCellRenderer.getInstance());
 		
-		tableModel.setRowCount(listSelection.length);            // The number of links.
-		tableModel.setColumnCount(2);                            // Check box and the adjacent link.
-		
-		// Represents the row that contains check-boxes.
-		final int checkBoxRow = 0;
+		// Give every row the same, fixed height. The table can then find the visible rows 
+		// by arithmetic, and only those rows are read from the link list and painted.
+		int rowHeight = Math.max(new JCheckBox().getPreferredSize().height,
+				tablePanel.getFontMetrics(tablePanel.getFont()).getHeight() + 2);
+		tablePanel.setRowHeight(rowHeight);
 		
 		// Re-size table.
 	    TableColumn column = null;
 	    for (int i=0; i<tablePanel.getColumnCount(); i++) {
 	        column = tablePanel.getColumnModel().getColumn(i);
-	        if (i == 0) {
+	        if (i == LinkTableModel.CHECK_BOX_COLUMN) {
 	        	// Set to a static size, and ensure it cannot be changed.
 	            column.setMaxWidth(24);
 	            column.setMinWidth(24);
@@ -181,102 +213,60 @@ public class CustomLinkPane extends JPanel {
 			@Override
 			public void itemStateChanged(ItemEvent e) {
 				if(e.getStateChange() == ItemEvent.SELECTED){
-					for(int i=0; i<listSelection.length; i++){
-						tableModel.setValueAt(true, i, checkBoxRow);
-					}
+					tableModel.setAllSelected(true);
 					selectAllLabel.setText("Select None");
-					repaint();
 				}
 				else{
-					for(int i=0; i<listSelection.length; i++){
-						tableModel.setValueAt(false, i, checkBoxRow);
-					}
+					tableModel.setAllSelected(false);
 					selectAllLabel.setText("Select All");
-					repaint();
 				}
+				tablePanel.getTableHeader().repaint();
 			}
 		});
 	
 		// Add an action listener for the run button.
 		runButton.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent event) {
-				int unselectedCount = 0;
-				for(int i=0; i<listSelection.length; i++){
-					if((boolean) tableModel.getValueAt(i, checkBoxRow)){
-						final CustomLink temp = linkList.getLinkAt(i);
-
-						// Create a new thread for each active check box item after all pending threads are finished
-						SwingUtilities.invokeLater(new Runnable(){
-							public void run(){
-								try {			
-									temp.browse();
-
-									// Suspend the thread to prevent undesirable effects.
-									// For instance, setting this sleep timer allow tabs to be created in web 
-									// browsers when multiple URLs are being opened.
-									// If this is not done, then it possible that not every selected link will run.
-									Thread.sleep(LinkManager.SLEEPTIME);
-								} 
-								catch (final InterruptedException e) {
-									// Show message box with error details
-									SwingUtilities.invokeLater(new Runnable(){
-										public void run(){
-											JOptionPane.showMessageDialog(LinkManager.getFrame(), e.getLocalizedMessage(),
-													"Unable to open file", JOptionPane.ERROR_MESSAGE);
-										}
-									});
-								}
-							}
-						});
-					}
-					else{
-						unselectedCount++;
-						if(unselectedCount == linkList.getListSize()){
-							JOptionPane.showMessageDialog(LinkManager.getFrame(), "Nothing has been selected!",
-									"Notification", JOptionPane.WARNING_MESSAGE);
-						}
+				if(!tableModel.hasSelection()) {
+					JOptionPane.showMessageDialog(LinkManager.getFrame(), "Nothing has been selected!",
+							"Notification", JOptionPane.WARNING_MESSAGE);
+					return;
+				}
+				
+				// Each active check box item is run in turn, away from the GUI thread.
+				ArrayList<CustomLink> links = new ArrayList<CustomLink>();
+				for(int i=0; i<tableModel.getRowCount(); i++){
+					if(tableModel.isSelected(i)){
+						links.add(linkList.getLinkAt(i));
 					}
 				}
+				LinkLauncher.getInstance().launchAll(links);
 				// This is ran to auto-clear selections when a link is ran.
-				refresh();
+				clearSelection();
 			}
 		});
 		
 		// Add an action listener for the delete button.
 		deleteButton.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent event) {
-				int unselectedCount = 0;
-				
-				for(int i=listSelection.length-1; i>=0; i--){
-					if((boolean) tableModel.getValueAt(i, checkBoxRow)){
-						unselectedCount--;
-						linkList.remove(i);
-						refresh();
-					}
-					else{
-						unselectedCount++;
-						if(unselectedCount == linkList.getListSize()){
-							JOptionPane.showMessageDialog(LinkManager.getFrame(), "Nothing has been selected!",
-									"Notification", JOptionPane.WARNING_MESSAGE);
-						}
-					}
+				if(!tableModel.hasSelection()) {
+					JOptionPane.showMessageDialog(LinkManager.getFrame(), "Nothing has been selected!",
+							"Notification", JOptionPane.WARNING_MESSAGE);
+					return;
 				}
+				
+				// Remove every checked link at once, rather than one row at a time.
+				linkList.removeLinks(tableModel.getSelectedRows());
+				clearSelection();
 			}
 		});
-
-		// Fill the list selection check-boxes.	By default, this will always empty selections on refresh.
-		for(int i=0; i<listSelection.length; i++){
-			// JTables use boolean values to render check-boxes.
-			tableModel.setValueAt(false, i, 0);
-			tableModel.setValueAt(linkList.getModel().getElementAt(i).getName(), i, 1);
-
-		}
 		
-		tablePanel.getColumnModel().getColumn(0).setHeaderRenderer(new EditableHeaderRenderer(selectAllBox));
-		tablePanel.getColumnModel().getColumn(1).setHeaderRenderer(new EditableHeaderRenderer(selectAllLabel));
+		tablePanel.getColumnModel().getColumn(LinkTableModel.CHECK_BOX_COLUMN).setHeaderRenderer(new EditableHeaderRenderer(selectAllBox));
+		tablePanel.getColumnModel().getColumn(LinkTableModel.NAME_COLUMN).setHeaderRenderer(new EditableHeaderRenderer(selectAllLabel));
 		
 		JScrollPane scrollPane = new JScrollPane(tablePanel);
 		scrollPane.setBorder(BorderFactory.createEmptyBorder());
+		scrollPane.getVerticalScrollBar().setUnitIncrement(rowHeight);
 		
 		// Add components
 		add(scrollPane, BorderLayout.WEST);
@@ -285,10 +275,46 @@ public class CustomLinkPane extends JPanel {
 		buttonPanel.add(deleteButton);
 		
 		add(buttonPanel, BorderLayout.SOUTH);
+	}
+	
+	/**
+	 * Un-checks every link's check box, including the "select all" check box.
+	 * 
+	 */
+	public void clearSelection() {
+		// Un-checking the "select all" check box will also un-check every link.
+		if(selectAllBox.isSelected()) {
+			selectAllBox.setSelected(false);
+		}
+		else {
+			tableModel.setAllSelected(false);
+		}
+	}
+	
+	/**
+	 * Checks or un-checks every link's check box, through the "select all" check box.
+	 * 
+	 * @param selected - true to check every link, false to un-check every link.
+	 */
+	public void setAllSelected(boolean selected) {
+		selectAllBox.setSelected(selected);
+	}
+	
+	/**
+	 * This function will redraw every row of the table, and clear any selections.
+	 * 
+	 * Changes made through the link list are shown row by row as they happen, so this
+	 * is only needed if links were changed without the link list being notified.
+	 * 
+	 */
+	public void refresh() {
+		FlightEvents.Span span = FlightEvents.begin(FlightEvents.REFRESH);
+		clearSelection();
+		tableModel.fireTableDataChanged();
 		
-		// Required to see components after they are dynamically created (such as via DnD).
 		revalidate();
 		repaint();
+		span.commit(getLinkList().getName(), getLinkList().getListSize(), 0);
 	}
 	
 	/**
@@ -297,7 +323,8 @@ public class CustomLinkPane extends JPanel {
 	 */
 	public void doRun() {
 		if(runButton != null) {
-			runButton.doClick();
+			// Click without holding the button down, which would stall the GUI thread.
+			runButton.doClick(0);
 		}
 	}
 	
@@ -307,7 +334,8 @@ public class CustomLinkPane extends JPanel {
 	 */
 	public void doDelete() {
 		if(deleteButton != null) {
-			deleteButton.doClick();
+			// Click without holding the button down, which would stall the GUI thread.
+			deleteButton.doClick(0);
 		}
 	}
 }
\ No newline at end of file
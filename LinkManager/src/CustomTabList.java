@@ -1,35 +1,36 @@
+import java.awt.event.ActionEvent;
+import java.awt.Component;
+import java.awt.event.ActionListener;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
+import javax.swing.Icon;
+import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.JTabbedPane;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 
-import org.w3c.dom.Attr;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 /**
  * This class represents a list of tabs that can be sorted via drag and drop (DnD) and renamed via double-click.
  * Each instance will contain a CustomLinkPane.
  * 
- * Tab configurations can be saved to, and re-opened from an XML file.
+ * Tab configurations can be saved to, and re-opened from an XML file, and saved automatically
+ * every few seconds while they have unsaved changes.
  * 
  * @author Ian Gardea
  *
@@ -38,18 +39,29 @@ public class CustomTabList extends JTabbedPane {
 	
 	private static final long serialVersionUID = 1L;
 
-	// XML file variables
-	private TransformerFactory transformerFactory;
-	private Transformer        transformer;
-	
-	private DocumentBuilderFactory dbFactory;
-	private DocumentBuilder dBuilder;
-	
-	private Document doc;
-	
 	// Tab list
 	private ArrayList<CustomLinkPane> tabs;
 	
+	// Counts every change to the tabs and their links. The count when the tabs were last saved
+	// or loaded tells whether they have changed, without reading every link.
+	private long    modifications;
+	private long    saved;
+	private boolean loading;
+	private Timer   autosave;
+
+	// Counts the changes made to the links of every tab.
+	private final ListDataListener changes = new ListDataListener() {
+		public void intervalAdded(ListDataEvent e) {
+			modifications++;
+		}
+		public void intervalRemoved(ListDataEvent e) {
+			modifications++;
+		}
+		public void contentsChanged(ListDataEvent e) {
+			modifications++;
+		}
+	};
+	
 	/**
 	 * This constructor will initialize the components to be added to the tab content pane.
 	 * 
@@ -69,6 +81,66 @@ public class CustomTabList extends JTabbedPane {
 		
 		// Add the tab to the pane.
 		add(temp, temp.getLinkList().getName());
+		saved = modifications;
+	}
+	
+	/**
+	 * This function will save the session whenever it has changed, checking every few seconds.
+	 * Nothing is saved while editing is disabled, or while the session is being loaded.
+	 * 
+	 * @param f - the XML session file to be saved.
+	 * @param seconds - the time between checks, or 0 to only save when asked.
+	 */
+	public void setAutosave(final File f, int seconds) {
+		if(autosave != null) {
+			autosave.stop();
+			autosave = null;
+		}
+		if(seconds <= 0) {
+			return;
+		}
+		
+		autosave = new Timer(seconds * 1000, new ActionListener() {
+			public void actionPerformed(ActionEvent event) {
+				if(!loading && !LinkManager.isLocked() && modifications != saved) {
+					saveDocument(f);
+				}
+			}
+		});
+		autosave.start();
+	}
+	
+	/**
+	 * @return - the number of changes made to the tabs, their names and folders, and their links,
+	 *           which only needs to be compared to tell whether anything has changed.
+	 */
+	long getModificationCount() {
+		return modifications;
+	}
+	
+	/**
+	 * This function will count the changes to the links of each tab that is added.
+	 */
+	@Override
+	public void insertTab(String title, Icon icon, Component component, String tip, int index) {
+		super.insertTab(title, icon, component, tip, index);
+		if(component instanceof CustomLinkPane) {
+			((CustomLinkPane) component).getLinkList().getModel().addListDataListener(changes);
+		}
+		modifications++;
+	}
+	
+	/**
+	 * This function will stop counting the changes to the links of a tab that is removed.
+	 */
+	@Override
+	public void removeTabAt(int index) {
+		Component component = getComponentAt(index);
+		if(component instanceof CustomLinkPane) {
+			((CustomLinkPane) component).getLinkList().getModel().removeListDataListener(changes);
+		}
+		super.removeTabAt(index);
+		modifications++;
 	}
 	
 	/**
@@ -85,6 +157,7 @@ public class CustomTabList extends JTabbedPane {
 				CustomLinkPane temp = tabs.get(start);
 			      tabs.set(start, tabs.get(target));
 			      tabs.set(target, temp);
+			      modifications++;
 			}
 		}
 		catch(final ArrayIndexOutOfBoundsException e){
@@ -168,7 +241,7 @@ public class CustomTabList extends JTabbedPane {
 	 */
 	public void deleteCurrentTab() {
 		if(tabs.size() > 1){
-			tabs.remove(getSelectedIndex());
+			tabs.remove(getSelectedIndex()).close();
 			this.remove(getSelectedIndex());
 		}
 		else{
@@ -177,6 +250,97 @@ public class CustomTabList extends JTabbedPane {
 		}
 	}
 	
+	/**
+	 * This function will prompt the user for a folder that the currently selected tab will be
+	 * kept in sync with. The tab's links will then mirror the files found within the folder.
+	 * 
+	 */
+	public void promptWatchFolder() {
+		int index = getSelectedIndex();
+		CustomLinkPane pane = tabs.get(index);
+		
+		JFileChooser chooser = new JFileChooser(pane.getWatchedFolder());
+		chooser.setDialogTitle("Select the folder to keep this tab in sync with");
+		chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+		
+		if(chooser.showOpenDialog(LinkManager.getFrame()) != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
+		
+		// Links that are not found in the folder will be removed, so confirm before continuing.
+		if(pane.getLinkList().getListSize() > 0) {
+			int dialogResult = JOptionPane.showConfirmDialog(LinkManager.getFrame(), "Links on this tab that are not found in the folder will be removed.\n"
+					+ "Continue?", "Watch Folder", JOptionPane.YES_NO_OPTION);
+			if(dialogResult != JOptionPane.YES_OPTION) {
+				return;
+			}
+		}
+		
+		watchFolder(index, chooser.getSelectedFile());
+	}
+	
+	/**
+	 * This function will bind a tab to a folder, or remove its binding.
+	 * 
+	 * @param index - the integer position of the tab in the tab list.
+	 * @param folder - the folder to keep the tab in sync with, or null to remove the binding.
+	 */
+	public void watchFolder(int index, File folder) {
+		tabs.get(index).setWatchedFolder(folder);
+		modifications++;
+		setToolTipTextAt(index, folder == null ? null : "Watching " + folder.getPath());
+	}
+	
+	/**
+	 * This function will remove duplicate links from every tab, after receiving confirmation 
+	 * from the user. The first link pointing to each target is kept.
+	 * 
+	 */
+	public void removeDuplicates() {
+		int dialogResult = JOptionPane.showConfirmDialog(LinkManager.getFrame(), "Remove duplicate links from all tabs?\n"
+				+ "The first link pointing to each target will be kept.", "Remove Duplicate Links", JOptionPane.YES_NO_OPTION);
+		if(dialogResult != JOptionPane.YES_OPTION) {
+			return;
+		}
+		
+		int removed = 0;
+		for(int i=0; i<tabs.size(); i++) {
+			removed += tabs.get(i).getLinkList().removeDuplicates();
+		}
+		
+		JOptionPane.showMessageDialog(LinkManager.getFrame(), "Removed " + removed + " duplicate link(s).",
+				"Notification", JOptionPane.INFORMATION_MESSAGE);
+	}
+	
+	/**
+	 * Closes and removes every tab.
+	 * 
+	 */
+	private void clearTabs() {
+		for(int i=0; i<tabs.size(); i++) {
+			tabs.get(i).close();
+		}
+		
+		removeAll();
+		tabs.clear();
+	}
+	
+	/**
+	 * This function will switch to the tab containing a link list, and scroll to one of its links.
+	 * 
+	 * @param list - the link list containing the link.
+	 * @param link - the link to show.
+	 */
+	public void showLink(CustomLinkList list, CustomLink link) {
+		for(int i=0; i<tabs.size(); i++) {
+			if(tabs.get(i).getLinkList() == list) {
+				setSelectedIndex(i);
+				tabs.get(i).showLink(link);
+				return;
+			}
+		}
+	}
+	
 	/**
 	 * @return - the list of tabs.
 	 */
@@ -194,6 +358,7 @@ public class CustomTabList extends JTabbedPane {
 	@Override
 	public void setTitleAt(int index, String title) {
 		tabs.get(index).getLinkList().setName(title);
+		modifications++;
 		
 		super.setTitleAt(index, title);
 	}
@@ -222,8 +387,7 @@ public class CustomTabList extends JTabbedPane {
 				// Clear the old file before proceeding.
 				Files.deleteIfExists(Paths.get(f.getPath()));
 								
-				removeAll();
-				tabs.clear();
+				clearTabs();
 				
 				// We will always have a default tab giving our list a minimum size of 1.
 				// Make the tab and update the tab list.
@@ -232,8 +396,6 @@ public class CustomTabList extends JTabbedPane {
 								
 				// Add the tab to the pane.
 				add(temp, temp.getLinkList().getName());
-
-				tabs.get(0).refresh();
 				
 				saveDocument(f);
 			} 
@@ -257,71 +419,27 @@ public class CustomTabList extends JTabbedPane {
 	 * @param f - the XML session file to be created/updated.
 	 */
 	public void saveDocument(File f) {
+		FlightEvents.Span span = FlightEvents.begin(FlightEvents.SAVE);
+		long start = System.nanoTime();
+		int count = 0;
 		try {
-			// Clear the old file before proceeding.
-			Files.deleteIfExists(Paths.get(f.getCanonicalPath()));
-
-			transformerFactory = TransformerFactory.newInstance();
-			transformer = transformerFactory.newTransformer();
-
-			// Enable 'INDENT' and set the indent amount for the transformer.
-			transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-			transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-
-			dbFactory = DocumentBuilderFactory.newInstance();
-			dBuilder = dbFactory.newDocumentBuilder();
-					
-			// Root element
-			doc = dBuilder.newDocument();
-			Element rootElement = doc.createElement("Session");
-			doc.appendChild(rootElement);
-
-			for(int i=0; i<tabs.size(); i++){
-				// Tab elements
-				Element eTab = doc.createElement("Tab");
-				
-				Attr tID = doc.createAttribute("ID");
-				tID.setValue("" + i); // Sneaky way to cast an int to a String
-				eTab.setAttributeNode(tID);
-
-				Attr tName = doc.createAttribute("Name");
-				tName.setValue(tabs.get(i).getLinkList().getName());
-				eTab.setAttributeNode(tName);
-				
-				rootElement.appendChild(eTab);
-				
-				for(int j=0; j<tabs.get(i).getLinkList().getListSize(); j++){
-					// Link elements
-					Element eLink = doc.createElement("Link");
-					
-					// set attribute to links element
-					Attr lID = doc.createAttribute("ID");
-					lID.setValue("" + j); // Sneaky way to cast an int to a String
-					eLink.setAttributeNode(lID);
-
-					Attr aName = doc.createAttribute("Name");
-					aName.setValue(tabs.get(i).getLinkList().getLinkAt(j).getName());
-					eLink.setAttributeNode(aName);
-
-					Attr aType = doc.createAttribute("Type");
-					aType.setValue(CustomLink.getTypeAsString(
-								CustomLink.determineType(tabs.get(i).getLinkList().getLinkAt(j).getTarget())
-								)
-					);
-					
-					eLink.setAttributeNode(aType);
-					
-					Attr aTarget = doc.createAttribute("Target");
-					aTarget.setValue(tabs.get(i).getLinkList().getLinkAt(j).getTarget());
-					eLink.setAttributeNode(aTarget);
-
-					eTab.appendChild(eLink);
+			ArrayList<SessionDocument.Tab> session = new ArrayList<SessionDocument.Tab>(tabs.size());
+			for(CustomLinkPane pane : tabs) {
+				CustomLinkList list = pane.getLinkList();
+				ArrayList<CustomLink> links = new ArrayList<CustomLink>(list.getListSize());
+				for(int j=0; j<list.getListSize(); j++) {
+					links.add(list.getLinkAt(j));
 				}
+				session.add(new SessionDocument.Tab(list.getName(), pane.getWatchedFolder(), links));
+				count += links.size();
 			}
-
-			DOMSource source = new DOMSource(doc);			
-			StreamResult result = new StreamResult(f);
-			transformer.transform(source, result);
+			
+			SessionDocument.write(session, f);
+			saved = modifications;
+			span.commit(f.getName(), count, f.length());
+			Metrics.SAVE_SECONDS.record(System.nanoTime() - start);
+			Metrics.SESSION_LINKS.set(count);
+			Metrics.SESSION_BYTES.set(f.length());
 		} 
 		catch(final ParserConfigurationException e) {
 			JOptionPane.showMessageDialog(LinkManager.getFrame(), e.getLocalizedMessage(),
@@ -354,65 +472,131 @@ public class CustomTabList extends JTabbedPane {
 			}
 			
 			// Clear the current window.
-			removeAll();
-			tabs.clear();
+			clearTabs();
 			
-			DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-			DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-			Document doc = dBuilder.parse(f);
-
-			// Optional, but recommended
-			doc.getDocumentElement().normalize();
-
-			// Cycle through all Tab tags
-			NodeList nListTab = doc.getElementsByTagName("Tab");
-
-			for (int i=0; i<nListTab.getLength(); i++) {				
-				Node tNode = nListTab.item(i);
-
-				if (tNode.getNodeType() == Node.ELEMENT_NODE) {
-
-					Element tElement = (Element) tNode;
-					
-					// Add the tab
-					addTab(tElement.getAttributes().getNamedItem("Name").getNodeValue());
-					
-					// Cycle through all link tags
-					NodeList nListLink = tElement.getElementsByTagName("Link");
+			FlightEvents.Span span = FlightEvents.begin(FlightEvents.LOAD);
+			long start = System.nanoTime();
+			int count = 0;
+			List<SessionDocument.Tab> session = SessionDocument.read(f);
+			for (SessionDocument.Tab tab : session) {
+				count += addSessionTab(tab);
+			}
+			saved = modifications;
+			span.commit(f.getName(), count, f.length());
+			Metrics.LOAD_SECONDS.record(System.nanoTime() - start);
+			Metrics.SESSION_LINKS.set(count);
+			Metrics.SESSION_BYTES.set(f.length());
+		}
+		catch (final Exception e) {
+			showLoadError(e);
+		}
+	}
+	
+	/**
+	 * This function will show the tabs of a session file that is being read on another thread,
+	 * such as when the program starts. The window stays responsive while the file is read, and
+	 * each tab is added as a separate event, so the first tabs are drawn before the rest are built.
+	 * 
+	 * @param f - the source XML session file.
+	 * @param session - the tabs being read from the file.
+	 */
+	public void loadDocument(final File f, final Future<List<SessionDocument.Tab>> session) {
+		final FlightEvents.Span span = FlightEvents.begin(FlightEvents.LOAD);
+		final long start = System.nanoTime();
+		loading = true;
+		
+		Thread loader = new Thread(new Runnable() {
+			public void run() {
+				final List<SessionDocument.Tab> tabs;
+				try {
+					tabs = session.get();
+				}
+				catch (final ExecutionException e) {
+					SwingUtilities.invokeLater(new Runnable() {
+						public void run() {
+							loading = false;
+							showLoadError(e.getCause());
+							Startup.finished();
+						}
+					});
+					return;
+				}
+				catch (InterruptedException e) {
+					return;
+				}
+				
+				SwingUtilities.invokeLater(new Runnable() {
+					private int next  = 0;
+					private int count = 0;
 					
-					for (int j=0; j<nListLink.getLength(); j++) {
-						Node lNode = nListLink.item(j);
-											
-						if (lNode.getNodeType() == Node.ELEMENT_NODE) {
-							Element lElement = (Element) lNode;
-							
-							tabs.get(i).getLinkList().addElement(
-									lElement.getAttributes().getNamedItem("Name").getNodeValue(), 
-									lElement.getAttributes().getNamedItem("Target").getNodeValue(),
-									CustomLink.determineType(lElement.getAttributes().getNamedItem("Target").getNodeValue()));
+					public void run() {
+						if (next == 0) {
+							// Replace the default tab.
+							clearTabs();
+						}
+						if (next < tabs.size()) {
+							count += addSessionTab(tabs.get(next++));
+							if (next == 1) {
+								setSelectedIndex(0);
+								Startup.interactive();
+							}
+						}
+						
+						// Let the window draw the tab before the next one is added.
+						if (next < tabs.size()) {
+							SwingUtilities.invokeLater(this);
+							return;
 						}
+						
+						saved = modifications;
+						loading = false;
+						span.commit(f.getName(), count, f.length());
+						Metrics.LOAD_SECONDS.record(System.nanoTime() - start);
+						Metrics.SESSION_LINKS.set(count);
+						Metrics.SESSION_BYTES.set(f.length());
+						Startup.finished();
 					}
-				}
-				tabs.get(i).refresh();
+				});
 			}
+		}, "Session Loader");
+		loader.setDaemon(true);
+		loader.start();
+	}
+	
+	/**
+	 * Adds a tab read from the session file, with its links, and resumes watching its folder.
+	 * 
+	 * @return - the number of links added.
+	 * @param tab - the tab read from the session file.
+	 */
+	private int addSessionTab(SessionDocument.Tab tab) {
+		// Add the tab, and its links in one step, so its table is only updated once.
+		addTab(tab.getName());
+		int index = tabs.size() - 1;
+		tabs.get(index).getLinkList().addLinks(tab.getLinks());
+		
+		// Resume watching the tab's folder, which will also pick up any changes made while closed.
+		if (tab.getFolder() != null) {
+			watchFolder(index, tab.getFolder());
 		}
-		catch(final FileNotFoundException e) {
+		return tab.getLinks().size();
+	}
+	
+	/**
+	 * Shows an error raised while reading the session file.
+	 * 
+	 * @param e - the error.
+	 */
+	private void showLoadError(Throwable e) {
+		if(e instanceof FileNotFoundException) {
 			JOptionPane.showMessageDialog(LinkManager.getFrame(), e.getLocalizedMessage(),
 					"Unable to open XML file", JOptionPane.ERROR_MESSAGE);
 		}
-		catch(final ParserConfigurationException e) {
+		else if(e instanceof ParserConfigurationException || e instanceof SAXException || e instanceof IOException) {
 			JOptionPane.showMessageDialog(LinkManager.getFrame(), e.getLocalizedMessage(),
 					"Unable to parse XML file", JOptionPane.ERROR_MESSAGE);
 		}
-		catch (final SAXException e) {
-			JOptionPane.showMessageDialog(LinkManager.getFrame(), e.getLocalizedMessage(),
-					"Unable to parse XML file", JOptionPane.ERROR_MESSAGE);
-		} 
-		catch (final IOException e) {
-			JOptionPane.showMessageDialog(LinkManager.getFrame(), e.getLocalizedMessage(),
-					"Unable to parse XML file", JOptionPane.ERROR_MESSAGE);
-		}
-		catch (final Exception e) {
+		else {
 			JOptionPane.showMessageDialog(LinkManager.getFrame(), e.getLocalizedMessage(),
 					"Unknown Error", JOptionPane.ERROR_MESSAGE);
 		}
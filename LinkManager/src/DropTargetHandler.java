@@ -1,3 +1,4 @@
+import java.awt.GraphicsEnvironment;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
 import java.awt.datatransfer.UnsupportedFlavorException;
@@ -8,9 +9,10 @@ import java.awt.dnd.DropTargetDropEvent;
 import java.awt.dnd.DropTargetEvent;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
 
 import javax.swing.JOptionPane;
@@ -33,6 +35,11 @@ public class DropTargetHandler extends DropTarget {
 	 * @param pane - the CustomLinkPane object to be set as a drop target.
 	 */
 	public static void enableDragListeners(CustomLinkPane pane) {
+		// Nothing can be dropped without a screen, and drop targets cannot be created.
+		if (GraphicsEnvironment.isHeadless()) {
+			return;
+		}
+		
 		DropTargetHandler handler = new DropTargetHandler(pane);
 		pane.setDropTarget(handler);
 	}
@@ -47,6 +54,10 @@ public class DropTargetHandler extends DropTarget {
 	}
 	
 	private CustomLinkPane    linkPane;
+	private DuplicateResolver resolver;
+	private int               failures;
+	private int               copied;
+	private String            lastFailure;
 
 	/**
 	 * @param pane - the link pane to be initialized by this constructor.
@@ -61,7 +72,7 @@ public class DropTargetHandler extends DropTarget {
 	 * @param file - a file object to analyze. 
 	 * @return -String - the extension of the file. 
 	 */ 
-	private String getFileExtension(File file) { 
+	private static String getFileExtension(File file) { 
 		if (file == null) { 
 			return null; 
 		} 
@@ -75,98 +86,193 @@ public class DropTargetHandler extends DropTarget {
 		} 
 	}
 
-	/** 
-	 * This method accepts a File object as parameter and returns the true target URL, if found in the meta-data.
-	 *  
-	 * @param file - a file object to be analyzed. 
-	 * @return -String - the URL of the file found in the meta-data. 
-	 */ 
-	private String getUrl(File f) throws IOException {
-		// Read all file contents and store into a byte array.
-		byte[] encoded = Files.readAllBytes(Paths.get(f.getPath()));
+	/**
+	 * This function will create a link from a single file. Shortcuts (.lnk and .url) are 
+	 * resolved to their true target, using the import cache to skip parsing files that 
+	 * have not changed since they were last imported.
+	 * 
+	 * @return - the link pointing to the file's target.
+	 * @param source - the file to create a link for.
+	 */
+	static CustomLink createLink(File source) throws IOException {
+		String extension = getFileExtension(source);
 		
-		// Store byte array into an encoded screen for readability.
-		String fileContent = new String(encoded, Charset.defaultCharset());
-		fileContent = fileContent.trim();
-
-		String[] contentList = fileContent.split("\r\n");
-		for (String content : contentList) {
-			if (content.toUpperCase().startsWith("URL")) {
-				int i = content.indexOf("=");
-				return content.substring(i + 1);
-			}
+		// Use the canonical path of the file for anything that is not a shortcut.
+		if (!extension.equals("lnk") && !extension.equals("url")) {
+			return new CustomLink(
+					source.getName(),
+					source.getCanonicalPath(),
+					CustomLink.determineType(source.getCanonicalPath())
+					);
 		}
-
-		// Not a valid URL if reached.
-		return null;
+		
+		ImportCache cache = ImportCache.getInstance();
+		String path = source.getCanonicalPath();
+		long size = source.length();
+		long modified = source.lastModified();
+		
+		ImportCache.Entry entry = cache.get(path, size, modified);
+		if (entry != null) {
+			return new CustomLink(source.getName(), entry.getTarget(), entry.getType());
+		}
+		
+		String target;
+		int type;
+		
+		// If this is a shortcut, we will want to copy the true target.
+		if (extension.equals("lnk")) {
+			LinkParser lParser = new LinkParser(source);
+			
+			target = lParser.getRealFilename();
+			type = lParser.isLocal() ? CustomLink.FILE : CustomLink.FTP;
+		}
+		// The same goes for URLs, however we will use an alternate method.
+		else {
+			target = UrlParser.readUrl(source);
+			type = CustomLink.HTTP;
+		}
+		
+		// Only remember successful results, so a broken file is re-read next time.
+		if (target != null) {
+			cache.put(path, size, modified, target, type);
+		}
+		return new CustomLink(source.getName(), target, type);
 	}
 
 	/**
-	 * This function utilizes recursion to search through a list of files and/or directories.
-	 * It will only copy the files found in the folders/sub-folders to the target drop panel.
-	 * It will not copy the folder itself.
+	 * This function will copy a dropped file, or the files found in a dropped folder and its 
+	 * sub-folders, to the target drop panel. It will not copy the folder itself.
+	 * 
+	 * Folders are walked through the import filter, so excluded folders are pruned before
+	 * they are read, and only the accepted files are copied.
 	 * 
 	 * @param source - The file/directory being copied.
+	 * @param filter - The filter deciding which files within a directory are copied.
 	 */
-	private void copyFilesAndDirectories(File source) {
+	private void copyFilesAndDirectories(File source, ImportFilter filter) {
+		FlightEvents.Span span = FlightEvents.begin(FlightEvents.IMPORT);
+		long start = System.nanoTime();
+		int before = copied;
 		try {
-			// If we encounter a folder, recursively call the function to extract the contained files.
 			if(source.isDirectory()) {
-				File[] files = source.listFiles();
-
-				for (File file : files) {
-					copyFilesAndDirectories(file);
-				}
-			}
-			else {
-				// If this is a shortcut, we will want to copy the true target.
-				if (getFileExtension(source).equals("lnk")) {
-					LinkParser lParser = new LinkParser(source);
-					
-					if(lParser.isLocal()) {
-						linkPane.getLinkList().addElement(new CustomLink(
-								source.getName(), 
-								lParser.getRealFilename(),
-								CustomLink.FILE
-								));
+				filter.walk(source.toPath(), new SimpleFileVisitor<Path>() {
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+						copyFile(file.toFile());
+						return FileVisitResult.CONTINUE;
 					}
-					else {
-						linkPane.getLinkList().addElement(new CustomLink(
-								source.getName(), 
-								lParser.getRealFilename(),
-								CustomLink.FTP
-								));
+					
+					@Override
+					public FileVisitResult visitFileFailed(Path file, IOException e) {
+						failed(e);
+						return FileVisitResult.CONTINUE;
 					}
-				}
-				// The same goes for URLs, however we will use an alternate method.
-				else if (getFileExtension(source).equals("url")){
-					linkPane.getLinkList().addElement(new CustomLink(
-							source.getName(), 
-							getUrl(source),
-							CustomLink.HTTP
-							));
-				}
-				// Use the canonical path of the file.
-				else {
-					linkPane.getLinkList().addElement(new CustomLink(
-							source.getName(),
-							source.getCanonicalPath(),
-							CustomLink.determineType(source.getCanonicalPath())
-							));
-				}
+				});
+			}
+			else {
+				copyFile(source);
 			}
 		}
 		catch(final IOException e) {
-			JOptionPane.showMessageDialog(LinkManager.getFrame(), e.getLocalizedMessage(),
-					"File I/O Error.", JOptionPane.ERROR_MESSAGE);
-		} 
+			failed(e);
+		}
+		span.commit(source.getName(), copied - before, 0);
+		Metrics.IMPORT_SECONDS.record(System.nanoTime() - start);
+		Metrics.IMPORTED_FILES.add(copied - before);
+	}
+	
+	/**
+	 * Copies a single file to the target drop panel.
+	 * 
+	 * @param source - The file being copied.
+	 */
+	private void copyFile(File source) {
+		try {
+			resolver.add(linkPane.getLinkList(), createLink(source));
+			copied++;
+		}
 		catch(final Exception e) {
-			JOptionPane.showMessageDialog(LinkManager.getFrame(), e.getLocalizedMessage(),
+			failed(e);
+		}
+	}
+	
+	/**
+	 * Records a file that could not be copied. These are reported together once the drop is complete.
+	 * 
+	 * @param e - the reason the file could not be copied.
+	 */
+	private void failed(Exception e) {
+		failures++;
+		Metrics.IMPORT_FAILURES.inc();
+		lastFailure = e.getLocalizedMessage();
+	}
+	
+	/**
+	 * This function will import files and folders to the tab as if they had been dropped on it,
+	 * such as when another launch of the program hands them over.
+	 * 
+	 * @return - false if the tab does not accept drops, because editing is disabled or there is no screen.
+	 * @param pane - the tab to import to.
+	 * @param files - the files and folders to import.
+	 */
+	public static boolean importFiles(CustomLinkPane pane, List<File> files) {
+		if(!(pane.getDropTarget() instanceof DropTargetHandler)) {
+			return false;
+		}
+		((DropTargetHandler) pane.getDropTarget()).importFiles(files);
+		return true;
+	}
+	
+	/**
+	 * This function will copy the dropped files and folders to the tab, and report any that failed.
+	 * 
+	 * @param objects - the dropped objects; only files and folders are copied.
+	 */
+	private void importFiles(List<?> objects) {
+		// Folders are filtered by the INI file's rules, unless the user chooses their own for this drop.
+		ImportFilter filter = ImportFilter.fromConfig();
+		if(Config.get().isImportPrompt() && containsDirectory(objects)) {
+			filter = ImportFilter.prompt();
+			if(filter == null) {
+				return;
+			}
+		}
+
+		ImportCache cache = ImportCache.getInstance();
+
+		// Duplicates are resolved once per drop, so the user can answer for all of them at once.
+		resolver = new DuplicateResolver(true);
+		failures = 0;
+
+		for(Object object : objects) {
+			// Was a file dropped?
+			if(object instanceof File) {
+				File source = (File) object;
+				copyFilesAndDirectories(source, filter);
+			}
+		}
+
+		if(failures > 0) {
+			JOptionPane.showMessageDialog(LinkManager.getFrame(), failures + " file(s) could not be copied.\n" + lastFailure,
 					"File I/O Error.", JOptionPane.ERROR_MESSAGE);
 		}
-		finally {
-			linkPane.refresh();
+
+		// Keep the results for the next import.
+		Metrics.IMPORT_CACHED.set(cache.size());
+		cache.save();
+	}
+	
+	/**
+	 * @return - true if any of the dropped objects is a directory.
+	 * @param objects - the dropped objects.
+	 */
+	private static boolean containsDirectory(List<?> objects) {
+		for(Object object : objects) {
+			if(object instanceof File && ((File) object).isDirectory()) {
+				return true;
+			}
 		}
+		return false;
 	}
 	
 	/**
@@ -221,13 +327,7 @@ public class DropTargetHandler extends DropTarget {
 
 				List<?> objects = (List<?>)transfer.getTransferData(DataFlavor.javaFileListFlavor);
 
-				for(Object object : objects) {
-					// Was a file dropped?
-					if(object instanceof File) {
-						File source = (File) object;
-						copyFilesAndDirectories(source);
-					}
-				}
+				importFiles(objects);
 			} 
 			else if(transfer.isDataFlavorSupported(DataFlavor.stringFlavor)) {
 				dtde.acceptDrop(DnDConstants.ACTION_COPY_OR_MOVE);
@@ -251,7 +351,6 @@ public class DropTargetHandler extends DropTarget {
 		} 
 		finally {
 			dtde.dropComplete(true);
-			linkPane.refresh();
 		}
 	}
 }
@@ -0,0 +1,112 @@
+import java.awt.GridLayout;
+
+import javax.swing.JCheckBox;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+
+/**
+ * This class decides what happens when a link being added to a link list points to a target
+ * that the list already contains. The link can be skipped, replace the existing link, or be
+ * kept alongside it.
+ *
+ * Unless a choice is configured in the INI file, the user is asked. During an import, the
+ * user can apply their answer to all of the remaining duplicates.
+ *
+ * @author Ian Gardea
+ *
+ */
+class DuplicateResolver {
+
+	public static final int ASK       = -1;
+	public static final int SKIP      = 0;
+	public static final int REPLACE   = 1;
+	public static final int KEEP_BOTH = 2;
+
+	private static final String[] OPTIONS = { "Skip", "Replace", "Keep Both" };
+
+	private final boolean batch;
+	private int           choice;
+
+	/**
+	 * @param batch - true if several links are being added, so the user may apply one answer to all of them.
+	 */
+	public DuplicateResolver(boolean batch) {
+		this.batch = batch;
+		this.choice = getConfiguredChoice();
+	}
+
+	/**
+	 * @return - the choice configured in the INI file, or ASK if the user should be asked.
+	 */
+	private static int getConfiguredChoice() {
+		String policy = Config.get().getDuplicatePolicy();
+
+		if (policy == null) {
+			return ASK;
+		}
+		switch (policy.toLowerCase()) {
+		case "skip":    return SKIP;
+		case "replace": return REPLACE;
+		case "keep":    return KEEP_BOTH;
+		default:        return ASK;
+		}
+	}
+
+	/**
+	 * Adds a link to a link list, resolving it first if it is a duplicate.
+	 *
+	 * @return - true if the link list was changed.
+	 * @param list - the link list to add the link to.
+	 * @param link - the link to add.
+	 */
+	public boolean add(CustomLinkList list, CustomLink link) {
+		if (link.getType() == CustomLink.SEP || !list.containsTarget(link.getTarget())) {
+			list.addElement(link);
+			return true;
+		}
+
+		int resolved = choice == ASK ? prompt(list, link) : choice;
+		switch (resolved) {
+		case REPLACE:
+			list.replaceDuplicate(link);
+			return true;
+		case KEEP_BOTH:
+			list.addElement(link);
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Asks the user what to do with a duplicate link.
+	 *
+	 * @return - the user's choice. Closing the dialog skips the link.
+	 * @param list - the link list the link is being added to.
+	 * @param link - the duplicate link.
+	 */
+	private int prompt(CustomLinkList list, CustomLink link) {
+		JPanel myPanel = new JPanel();
+		myPanel.setLayout(new GridLayout(0,1));
+		myPanel.add(new JLabel("The tab \"" + list.getName() + "\" already has a link pointing to:"));
+		myPanel.add(new JLabel("\"" + link.getTarget() + "\""));
+
+		JCheckBox applyToAll = new JCheckBox("Do this for all remaining duplicates");
+		if (batch) {
+			myPanel.add(applyToAll);
+		}
+
+		int result = JOptionPane.showOptionDialog(LinkManager.getFrame(), myPanel,
+				"Duplicate Link", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE,
+				null, OPTIONS, OPTIONS[SKIP]);
+
+		if (result == JOptionPane.CLOSED_OPTION) {
+			result = SKIP;
+		}
+		if (applyToAll.isSelected()) {
+			choice = result;
+		}
+		return result;
+	}
+}
@@ -0,0 +1,383 @@
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.swing.AbstractButton;
+
+/**
+ * This class times every event handled by the GUI thread, to find the actions that make the
+ * window hang.
+ *
+ * Once installed, it replaces the event queue, so every event passes through it. The time each
+ * event takes is counted in a histogram covering the last few minutes. A background thread
+ * checks on the event being handled, and takes a sample of the GUI thread's stack once it has
+ * run longer than the stall limit from the INI file. When that event finishes, a stall report
+ * naming the action that was running (for instance, CustomLinkPane.refresh() during
+ * DropTargetHandler.drop()) is kept for the Help menu's Responsiveness window, and written to
+ * the stall log.
+ *
+ * Events that open a dialog wait for it to close, handling other events meanwhile, so they are
+ * not counted; the events handled by the dialog are.
+ *
+ * @author Ian Gardea
+ *
+ */
+class EventWatchdog extends EventQueue {
+
+	// The upper bound of each histogram bucket, in milliseconds. The last bucket holds everything longer.
+	public static final int[] BUCKETS = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024, 2048};
+
+	// The histogram covers this many of the most recent minutes.
+	private static final int MINUTES = 10;
+
+	// The number of stall reports kept for the Responsiveness window.
+	private static final int MAX_REPORTS = 50;
+
+	// The log is started again once it reaches this size, keeping one older copy.
+	private static final long MAX_LOG_SIZE = 1024 * 1024;
+
+	private static final File LOG = new File("./stall.log");
+
+	private static EventWatchdog instance;
+
+	/**
+	 * This class is an event being handled, and the stack sampled while it ran too long.
+	 */
+	private static class Dispatch {
+		private final AWTEvent event;
+		private final long     start;
+		private final Dispatch outer;
+		private volatile StackTraceElement[] sample;
+		private boolean        nested;
+
+		private Dispatch(AWTEvent event, long start, Dispatch outer) {
+			this.event = event;
+			this.start = start;
+			this.outer = outer;
+		}
+	}
+
+	/**
+	 * This class describes an event that ran longer than the stall limit.
+	 */
+	static class Stall {
+		private final long                time;
+		private final long                millis;
+		private final String              event;
+		private final String              action;
+		private final StackTraceElement[] stack;
+
+		private Stall(long time, long millis, String event, String action, StackTraceElement[] stack) {
+			this.time = time;
+			this.millis = millis;
+			this.event = event;
+			this.action = action;
+			this.stack = stack;
+		}
+
+		/**
+		 * @return - the number of milliseconds the event took.
+		 */
+		public long getMillis() {
+			return millis;
+		}
+
+		/**
+		 * @return - the action that was running, or a description of the event if no sample was taken.
+		 */
+		public String getAction() {
+			return action;
+		}
+
+		/**
+		 * @return - the report, with the stack sampled while the event ran.
+		 */
+		public String getDetails() {
+			StringBuilder sb = new StringBuilder(toString()).append('\n');
+			if (stack == null) {
+				sb.append("    (the event finished before its stack could be sampled)\n");
+			}
+			else {
+				for (StackTraceElement frame : stack) {
+					sb.append("    at ").append(frame).append('\n');
+				}
+			}
+			return sb.toString();
+		}
+
+		/**
+		 * @return - the time, duration, action, and event of the stall.
+		 */
+		@Override
+		public String toString() {
+			return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(time))
+					+ "  " + millis + " ms  " + action + "  [" + event + "]";
+		}
+	}
+
+	private final long stallNanos;
+	private final long pollMillis;
+
+	// The event being handled, and the GUI thread handling it.
+	private volatile Dispatch current;
+	private volatile Thread   edt;
+
+	// The histogram of each recent minute. These are only used on the GUI thread.
+	private final long[][] histograms = new long[MINUTES][BUCKETS.length + 1];
+	private final long[]   minutes    = new long[MINUTES];
+
+	private final ArrayDeque<Stall> stalls = new ArrayDeque<Stall>();
+	private final ExecutorService   writer;
+
+	/**
+	 * @return - the watchdog, or null if it has not been installed.
+	 */
+	public static synchronized EventWatchdog getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Installs the watchdog in place of the event queue, if it is not already installed.
+	 *
+	 * @param stallMillis - the time after which an event is reported as a stall.
+	 */
+	public static synchronized void install(long stallMillis) {
+		if (instance != null) {
+			return;
+		}
+		instance = new EventWatchdog(stallMillis);
+		Toolkit.getDefaultToolkit().getSystemEventQueue().push(instance);
+		instance.startSampling();
+	}
+
+	/**
+	 * @param stallMillis - the time after which an event is reported as a stall.
+	 */
+	private EventWatchdog(long stallMillis) {
+		this.stallNanos = Math.max(1, stallMillis) * 1000000L;
+		this.pollMillis = Math.max(5, stallMillis / 4);
+
+		writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Stall Log");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * This function will time an event as it is handled.
+	 *
+	 * @param event - the event to handle.
+	 */
+	@Override
+	protected void dispatchEvent(AWTEvent event) {
+		edt = Thread.currentThread();
+
+		Dispatch dispatch = new Dispatch(event, System.nanoTime(), current);
+		if (dispatch.outer != null) {
+			// The outer event is waiting on a dialog, so it is not timed.
+			dispatch.outer.nested = true;
+		}
+		current = dispatch;
+
+		try {
+			super.dispatchEvent(event);
+		}
+		finally {
+			current = dispatch.outer;
+			if (!dispatch.nested) {
+				record(dispatch, System.nanoTime() - dispatch.start);
+			}
+		}
+	}
+
+	/**
+	 * @return - the number of events in each bucket over the recent minutes.
+	 */
+	public long[] getHistogram() {
+		long[] total = new long[BUCKETS.length + 1];
+		long minute = System.currentTimeMillis() / 60000;
+		for (int i=0; i<MINUTES; i++) {
+			if (minute - minutes[i] < MINUTES) {
+				for (int b=0; b<total.length; b++) {
+					total[b] += histograms[i][b];
+				}
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * @return - the recent stalls, newest first.
+	 */
+	public List<Stall> getStalls() {
+		synchronized (stalls) {
+			return new ArrayList<Stall>(stalls);
+		}
+	}
+
+	/**
+	 * @return - the time after which an event is reported as a stall.
+	 */
+	public long getStallMillis() {
+		return stallNanos / 1000000L;
+	}
+
+	/**
+	 * @return - the stall log.
+	 */
+	public static File getLog() {
+		return LOG;
+	}
+
+	/**
+	 * Counts a handled event, and reports it if it ran too long.
+	 *
+	 * @param dispatch - the event.
+	 * @param nanos - the time it took.
+	 */
+	private void record(Dispatch dispatch, long nanos) {
+		long millis = nanos / 1000000L;
+		int bucket = Math.min(BUCKETS.length, 64 - Long.numberOfLeadingZeros(millis));
+
+		long minute = System.currentTimeMillis() / 60000;
+		int slot = (int) (minute % MINUTES);
+		if (minutes[slot] != minute) {
+			minutes[slot] = minute;
+			Arrays.fill(histograms[slot], 0);
+		}
+		histograms[slot][bucket]++;
+		Metrics.EVENT_SECONDS.record(nanos);
+
+		if (nanos >= stallNanos) {
+			Metrics.STALLS.inc();
+			String event = describe(dispatch.event);
+			StackTraceElement[] stack = dispatch.sample;
+			String action = stack == null ? event : action(stack);
+			final Stall stall = new Stall(System.currentTimeMillis(), millis, event, action, stack);
+
+			synchronized (stalls) {
+				stalls.addFirst(stall);
+				if (stalls.size() > MAX_REPORTS) {
+					stalls.removeLast();
+				}
+			}
+			writer.execute(new Runnable() {
+				public void run() {
+					write(stall);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Starts the thread that samples the GUI thread's stack while an event runs too long.
+	 */
+	private void startSampling() {
+		Thread sampler = new Thread(new Runnable() {
+			public void run() {
+				while (true) {
+					try {
+						Thread.sleep(pollMillis);
+					}
+					catch (InterruptedException e) {
+						return;
+					}
+
+					Dispatch dispatch = current;
+					Thread thread = edt;
+					if (dispatch != null && thread != null && dispatch.sample == null
+							&& System.nanoTime() - dispatch.start >= stallNanos) {
+						dispatch.sample = thread.getStackTrace();
+					}
+				}
+			}
+		}, "Event Watchdog");
+		sampler.setDaemon(true);
+		sampler.start();
+	}
+
+	/**
+	 * Appends a stall report to the log, starting the log again once it is too large.
+	 *
+	 * @param stall - the stall.
+	 */
+	private static void write(Stall stall) {
+		if (LOG.length() > MAX_LOG_SIZE) {
+			File old = new File(LOG.getPath() + ".1");
+			old.delete();
+			LOG.renameTo(old);
+		}
+
+		try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(LOG, true), StandardCharsets.UTF_8))) {
+			out.print(stall.getDetails());
+			out.println();
+		}
+		catch (IOException e) {
+			System.out.println("The stall log could not be written: " + e.getLocalizedMessage());
+		}
+	}
+
+	/**
+	 * @return - the innermost method of this program on the stack, and the outermost if it is different.
+	 * @param stack - the stack of the GUI thread.
+	 */
+	static String action(StackTraceElement[] stack) {
+		String inner = null;
+		String outer = null;
+		for (StackTraceElement frame : stack) {
+			// The program's classes are the only ones in the default package.
+			String cls = frame.getClassName();
+			if (cls.indexOf('.') >= 0 || cls.equals(EventWatchdog.class.getName())) {
+				continue;
+			}
+
+			String method = cls.replaceAll("\\$\\d+", "") + "." + frame.getMethodName() + "()";
+			if (inner == null) {
+				inner = method;
+			}
+			outer = method;
+		}
+
+		if (inner == null) {
+			return "outside of Link Manager (" + (stack.length > 0 ? stack[0] : "unknown") + ")";
+		}
+		return inner.equals(outer) ? inner : inner + " during " + outer;
+	}
+
+	/**
+	 * @return - the kind of the event, and the component it was sent to.
+	 * @param event - the event.
+	 */
+	private static String describe(AWTEvent event) {
+		String params = event.paramString();
+		int comma = params.indexOf(',');
+		String kind = comma < 0 ? params : params.substring(0, comma);
+		if (kind.isEmpty()) {
+			kind = event.getClass().getSimpleName();
+		}
+
+		Object source = event.getSource();
+		if (source instanceof AbstractButton && ((AbstractButton) source).getText() != null) {
+			return kind + " on " + source.getClass().getSimpleName() + " \"" + ((AbstractButton) source).getText() + "\"";
+		}
+		return kind + " on " + (source == null ? "nothing" : source.getClass().getSimpleName());
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * This class records the program's own events in Java Flight Recorder recordings, so a
+ * recording shows the links launched, the session saved and loaded, and the files imported,
+ * next to the JVM's events.
+ *
+ * The events themselves are in the jfr folder, which is built for Java 11 because Flight
+ * Recorder's API is not part of Java 8. They are loaded by name when first used; if they are
+ * missing, or the JVM has no Flight Recorder, every event is ignored.
+ *
+ * Each event is started with begin(), and ended with a subject, a count, and a number of bytes,
+ * whose meaning depends on the kind of event:
+ * LAUNCH  - the link type, and 1 if the link (or links of the type run together) ran successfully.
+ * SAVE    - the session file, the number of links saved, and the size of the file.
+ * LOAD    - the session file, the number of links loaded, and the size of the file.
+ * IMPORT  - the dropped file or folder, and the number of files imported from it.
+ * PARSE   - the shortcut, and its size.
+ * REFRESH - the tab, and the number of links redrawn.
+ *
+ * @author Ian Gardea
+ *
+ */
+class FlightEvents {
+
+	public static final int LAUNCH  = 0;
+	public static final int SAVE    = 1;
+	public static final int LOAD    = 2;
+	public static final int IMPORT  = 3;
+	public static final int PARSE   = 4;
+	public static final int REFRESH = 5;
+
+	/**
+	 * This interface is an event that has begun.
+	 */
+	interface Span {
+		/**
+		 * This function will end the event, and record it if the recording includes it.
+		 *
+		 * @param subject - what the event applies to.
+		 * @param count - the number of items handled.
+		 * @param bytes - the number of bytes handled.
+		 */
+		void commit(String subject, long count, long bytes);
+	}
+
+	/**
+	 * This interface is implemented by the Flight Recorder events, to begin an event of each kind.
+	 */
+	interface Factory {
+		/**
+		 * @return - the event, which has begun.
+		 * @param kind - the kind of event.
+		 */
+		Span begin(int kind);
+	}
+
+	// Used when Flight Recorder is not available.
+	private static final Span NONE = new Span() {
+		public void commit(String subject, long count, long bytes) {
+		}
+	};
+
+	private static final Factory FACTORY = load();
+
+	private FlightEvents() {
+	}
+
+	/**
+	 * @return - an event of the kind, which has begun.
+	 * @param kind - the kind of event.
+	 */
+	public static Span begin(int kind) {
+		return FACTORY == null ? NONE : FACTORY.begin(kind);
+	}
+
+	/**
+	 * @return - the Flight Recorder events, or null if they cannot be loaded.
+	 */
+	private static Factory load() {
+		try {
+			return (Factory) Class.forName("JfrEvents").getDeclaredConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException e) {
+			return null;
+		}
+		catch (LinkageError e) {
+			// Running on Java 8, or a runtime built without Flight Recorder.
+			return null;
+		}
+	}
+}
@@ -0,0 +1,691 @@
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+/**
+ * This class will keep the links of a CustomLinkPane in sync with the contents of a folder.
+ *
+ * Changes are detected by a WatchService, or by periodically comparing snapshots of the
+ * folder on file systems that do not report their own changes (such as network shares).
+ * Changes are collected until the folder has been quiet for a short time, resolved to links
+ * on a background thread, and then applied to the link list as a single batch, so only the
+ * affected links are added, updated, or removed.
+ *
+ * @author Ian Gardea
+ *
+ */
+class FolderWatcher implements Runnable {
+
+	// File systems that are known to not report changes made by other machines.
+	private static final String[] REMOTE_STORES = { "nfs", "nfs4", "cifs", "smbfs", "smb2", "fuse.sshfs" };
+
+	private final CustomLinkPane pane;
+	private final Path           root;
+	private final ImportFilter   filter;
+
+	// The row of a link that was changed or moved by something other than the watcher.
+	private static final int MOVED = -1;
+
+	// The row of a link that was removed from the list.
+	private static final int GONE  = -2;
+
+	// The link created for each watched file. Only accessed on the event-dispatching thread.
+	private final Map<Path, Tracked> links = new HashMap<Path, Tracked>();
+
+	// Keeps the row of every created link up to date as rows are added and removed, since
+	// other links in the list (such as duplicates that were kept) may be equal to them.
+	private final ListDataListener rows = new ListDataListener() {
+		public void intervalAdded(ListDataEvent e) {
+			if (applying) {
+				return;
+			}
+			int count = e.getIndex1() - e.getIndex0() + 1;
+			for (Tracked tracked : links.values()) {
+				if (tracked.row >= e.getIndex0()) {
+					tracked.row += count;
+				}
+			}
+		}
+		public void intervalRemoved(ListDataEvent e) {
+			if (applying) {
+				return;
+			}
+			int count = e.getIndex1() - e.getIndex0() + 1;
+			for (Tracked tracked : links.values()) {
+				if (tracked.row > e.getIndex1()) {
+					tracked.row -= count;
+				}
+				else if (tracked.row >= e.getIndex0()) {
+					tracked.row = GONE;
+				}
+			}
+		}
+		public void contentsChanged(ListDataEvent e) {
+			if (applying) {
+				return;
+			}
+			for (int row = e.getIndex0(); row <= e.getIndex1(); row++) {
+				changed(pane.getLinkList(), row);
+			}
+		}
+	};
+
+	// True while the watcher changes the list itself, setting the rows of its links afterwards.
+	private boolean applying;
+
+	// The directory registered with each watch key.
+	private final Map<WatchKey, Path> keys = new HashMap<WatchKey, Path>();
+
+	private volatile WatchService service;
+	private Thread          thread;
+	private volatile boolean running;
+
+	/**
+	 * This class represents the link created for a watched file, and the row it is in.
+	 */
+	private static class Tracked {
+		private CustomLink link;
+		private int        row;
+
+		private Tracked(CustomLink link, int row) {
+			this.link = link;
+			this.row = row;
+		}
+	}
+
+	/**
+	 * @param pane - the pane whose links will mirror the folder.
+	 * @param root - the folder to watch.
+	 */
+	public FolderWatcher(CustomLinkPane pane, Path root) {
+		this.pane = pane;
+		this.root = root;
+		this.filter = ImportFilter.fromConfig();
+	}
+
+	/**
+	 * @return - the folder being watched.
+	 */
+	public Path getRoot() {
+		return root;
+	}
+
+	/**
+	 * Starts watching the folder on a background thread. The pane is first synchronized
+	 * with the current contents of the folder.
+	 */
+	public void start() {
+		running = true;
+		thread = new Thread(this, "FolderWatcher-" + root.getFileName());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops watching the folder. Links that were already created are left in place.
+	 */
+	public void stop() {
+		running = false;
+		pane.getLinkList().getModel().removeListDataListener(rows);
+		if (service != null) {
+			try {
+				service.close();
+			}
+			catch (IOException e) {
+				// Nothing more can be done, and the thread is exiting regardless.
+			}
+		}
+		if (thread != null) {
+			thread.interrupt();
+		}
+	}
+
+	/**
+	 * The watcher thread. Performs the initial synchronization, then waits for changes.
+	 */
+	@Override
+	public void run() {
+		try {
+			boolean polling = !supportsEvents();
+			if (!polling) {
+				try {
+					service = FileSystems.getDefault().newWatchService();
+				}
+				catch (IOException | UnsupportedOperationException e) {
+					polling = true;
+				}
+			}
+
+			// Resolve the current contents, registering every directory along the way.
+			final Map<Path, Long> snapshot = new HashMap<Path, Long>();
+			final Map<Path, CustomLink> initial = resolve(scan(root, polling ? null : service, snapshot));
+
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run() {
+					applyInitial(initial);
+				}
+			});
+
+			if (polling) {
+				pollLoop(snapshot);
+			}
+			else {
+				watchLoop();
+			}
+		}
+		catch (InterruptedException | ClosedWatchServiceException e) {
+			// The watcher was stopped.
+		}
+		catch (IOException e) {
+			System.out.println("Unable to watch \"" + root + "\": " + e.getLocalizedMessage());
+		}
+	}
+
+	/**
+	 * @return - true if the folder's file system is expected to report changes by itself.
+	 */
+	private boolean supportsEvents() {
+		try {
+			FileStore store = Files.getFileStore(root);
+			for (String type : REMOTE_STORES) {
+				if (type.equalsIgnoreCase(store.type())) {
+					return false;
+				}
+			}
+			return true;
+		}
+		catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Waits for file system events, and delivers them once the folder has been quiet
+	 * for the debounce interval.
+	 */
+	private void watchLoop() throws InterruptedException, IOException {
+		Set<Path> pending = new LinkedHashSet<Path>();
+		long firstPending = 0;
+
+		while (running) {
+			WatchKey key;
+			if (pending.isEmpty()) {
+				key = service.take();
+			}
+			else {
+				key = service.poll(Config.get().getWatchDebounce(), TimeUnit.MILLISECONDS);
+			}
+
+			// Deliver when quiet, or when a steady stream of events has been delayed for too long.
+			if (key == null || (!pending.isEmpty()
+					&& System.currentTimeMillis() - firstPending > Config.get().getWatchDebounce() * 10L)) {
+				deliver(pending);
+				pending = new LinkedHashSet<Path>();
+				if (key == null) {
+					continue;
+				}
+			}
+
+			Path dir = keys.get(key);
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (pending.isEmpty()) {
+					firstPending = System.currentTimeMillis();
+				}
+
+				if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+					// Events were lost, so compare everything against what is known.
+					pending.add(root);
+					continue;
+				}
+
+				Path child = dir.resolve((Path) event.context());
+				if (Files.isDirectory(child)) {
+					// A new folder needs to be watched, and everything already in it added.
+					// Changes within an existing folder are reported for its files instead.
+					if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+						pending.addAll(scan(child, service, null));
+					}
+				}
+				else if (accept(child)) {
+					pending.add(child);
+				}
+			}
+
+			if (!key.reset()) {
+				keys.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * @return - true if a changed file is accepted by the import filter. Files that no longer 
+	 *           exist are always accepted, so that their links are removed.
+	 * @param file - the file that changed.
+	 */
+	private boolean accept(Path file) {
+		try {
+			return filter.acceptFile(root, file, Files.readAttributes(file, BasicFileAttributes.class));
+		}
+		catch (IOException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * Periodically compares the folder against the previous snapshot, and delivers the differences.
+	 *
+	 * @param snapshot - the size and modification time of every file found by the last scan.
+	 */
+	private void pollLoop(Map<Path, Long> snapshot) throws InterruptedException, IOException {
+		while (running) {
+			Thread.sleep(Config.get().getWatchPollInterval());
+
+			Map<Path, Long> current = new HashMap<Path, Long>();
+			scan(root, null, current);
+
+			Set<Path> pending = new LinkedHashSet<Path>();
+			for (Map.Entry<Path, Long> e : current.entrySet()) {
+				if (!e.getValue().equals(snapshot.get(e.getKey()))) {
+					pending.add(e.getKey());
+				}
+			}
+			for (Path path : snapshot.keySet()) {
+				if (!current.containsKey(path)) {
+					pending.add(path);
+				}
+			}
+
+			snapshot = current;
+			if (!pending.isEmpty()) {
+				deliver(pending);
+			}
+		}
+	}
+
+	/**
+	 * Walks a folder, collecting the files within it that are accepted by the import filter.
+	 *
+	 * @return - the files found in the folder and its sub-folders.
+	 * @param dir - the folder to walk.
+	 * @param service - the watch service to register each folder with, or null.
+	 * @param snapshot - receives a fingerprint of each file's size and modification time, or null.
+	 */
+	private List<Path> scan(Path dir, final WatchService service, final Map<Path, Long> snapshot) throws IOException {
+		final List<Path> files = new ArrayList<Path>();
+
+		filter.walk(root, dir, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs) throws IOException {
+				if (service != null) {
+					keys.put(d.register(service,
+							StandardWatchEventKinds.ENTRY_CREATE,
+							StandardWatchEventKinds.ENTRY_DELETE,
+							StandardWatchEventKinds.ENTRY_MODIFY), d);
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				if (attrs.isRegularFile()) {
+					files.add(file);
+					if (snapshot != null) {
+						snapshot.put(file, attrs.size() * 31 + attrs.lastModifiedTime().toMillis());
+					}
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException e) {
+				// Skip anything that cannot be read, such as a file that was just deleted.
+				return FileVisitResult.CONTINUE;
+			}
+		});
+
+		return files;
+	}
+
+	/**
+	 * Creates a link for each path that still exists. Paths that no longer exist are mapped to null.
+	 *
+	 * @return - the link for each path, in the order given.
+	 * @param paths - the paths to resolve.
+	 */
+	private Map<Path, CustomLink> resolve(Iterable<Path> paths) {
+		Map<Path, CustomLink> batch = new LinkedHashMap<Path, CustomLink>();
+
+		for (Path path : paths) {
+			if (Files.isDirectory(path)) {
+				// A folder that changed is compared file by file.
+				try {
+					for (Path file : scan(path, service, null)) {
+						batch.put(file, resolveFile(file));
+					}
+				}
+				catch (IOException e) {
+					batch.put(path, null);
+				}
+			}
+			else {
+				batch.put(path, resolveFile(path));
+			}
+		}
+
+		ImportCache.getInstance().save();
+		return batch;
+	}
+
+	/**
+	 * @return - the link for a single file, or null if it no longer exists or cannot be read.
+	 * @param file - the file to resolve.
+	 */
+	private CustomLink resolveFile(Path file) {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try {
+			return DropTargetHandler.createLink(file.toFile());
+		}
+		catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Resolves the pending paths, and applies them to the pane on the event-dispatching thread.
+	 *
+	 * @param pending - the paths that were created, modified, or deleted.
+	 */
+	private void deliver(Set<Path> pending) {
+		final boolean full = pending.contains(root);
+		final Map<Path, CustomLink> batch = resolve(pending);
+
+		SwingUtilities.invokeLater(new Runnable() {
+			public void run() {
+				if (running) {
+					apply(batch, full);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Matches the links already in the pane (such as those restored from the session) to the
+	 * files in the folder, so they keep their position. Links for files that no longer exist are
+	 * removed, and links for new files are appended. Separators are left alone.
+	 *
+	 * @param initial - the link for every file in the folder.
+	 */
+	private void applyInitial(Map<Path, CustomLink> initial) {
+		if (!running) {
+			return;
+		}
+
+		CustomLinkList list = pane.getLinkList();
+		list.getModel().addListDataListener(rows);
+
+		Map<String, Path> byKey = new HashMap<String, Path>();
+		for (Map.Entry<Path, CustomLink> e : initial.entrySet()) {
+			if (e.getValue() != null) {
+				byKey.put(key(e.getValue()), e.getKey());
+			}
+		}
+
+		BitSet removed = new BitSet();
+		for (int i=0; i<list.getListSize(); i++) {
+			CustomLink link = list.getLinkAt(i);
+			if (link.getType() == CustomLink.SEP) {
+				continue;
+			}
+
+			Path path = byKey.remove(key(link));
+			if (path == null) {
+				removed.set(i);
+			}
+			else {
+				links.put(path, new Tracked(link, i));
+			}
+		}
+
+		List<Tracked> added = new ArrayList<Tracked>();
+		for (Map.Entry<Path, CustomLink> e : initial.entrySet()) {
+			if (e.getValue() != null && !links.containsKey(e.getKey())) {
+				Tracked tracked = new Tracked(e.getValue(), GONE);
+				links.put(e.getKey(), tracked);
+				added.add(tracked);
+			}
+		}
+		commit(list, removed, added);
+	}
+
+	/**
+	 * Applies a batch of changes to the pane's link list.
+	 *
+	 * @param batch - the new link for each changed path, or null if the path was deleted.
+	 * @param full - true if the batch covers the whole folder, so unmentioned links are stale.
+	 */
+	private void apply(Map<Path, CustomLink> batch, boolean full) {
+		CustomLinkList list = pane.getLinkList();
+
+		// Rows are found before the list changes, then removed and added all at once.
+		BitSet removed = new BitSet();
+		List<Tracked> added = new ArrayList<Tracked>();
+
+		for (Map.Entry<Path, CustomLink> e : batch.entrySet()) {
+			Path path = e.getKey();
+			CustomLink link = e.getValue();
+			Tracked old = links.get(path);
+
+			if (link == null) {
+				removeTree(list, path, removed);
+			}
+			else if (old == null) {
+				Tracked tracked = new Tracked(link, GONE);
+				links.put(path, tracked);
+				added.add(tracked);
+			}
+			else {
+				int index = find(list, old);
+
+				// Track the new link before it is placed, so the change is not mistaken for another's.
+				old.link = link;
+				if (index >= 0) {
+					list.setLinkAt(index, link);
+				}
+				else {
+					added.add(old);
+				}
+			}
+		}
+
+		if (full) {
+			// Anything not found by the rescan has been deleted.
+			Iterator<Map.Entry<Path, Tracked>> it = links.entrySet().iterator();
+			while (it.hasNext()) {
+				Map.Entry<Path, Tracked> e = it.next();
+				if (!batch.containsKey(e.getKey())) {
+					int index = find(list, e.getValue());
+					it.remove();
+					if (index >= 0) {
+						removed.set(index);
+					}
+				}
+			}
+		}
+		commit(list, removed, added);
+	}
+
+	/**
+	 * Marks the link for a deleted path to be removed. If the path was a folder, the links for
+	 * every file that was within it are marked.
+	 *
+	 * @param list - the link list to update.
+	 * @param path - the deleted path.
+	 * @param removed - the rows to remove, to which the link's rows are added.
+	 */
+	private void removeTree(CustomLinkList list, Path path, BitSet removed) {
+		Tracked old = links.get(path);
+		if (old != null) {
+			int index = find(list, old);
+			links.remove(path);
+			if (index >= 0) {
+				removed.set(index);
+			}
+			return;
+		}
+
+		Iterator<Map.Entry<Path, Tracked>> it = links.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Path, Tracked> e = it.next();
+			if (e.getKey().startsWith(path)) {
+				int index = find(list, e.getValue());
+				it.remove();
+				if (index >= 0) {
+					removed.set(index);
+				}
+			}
+		}
+	}
+
+	/**
+	 * This function will remove rows from the list and append links to it, each in a single
+	 * change, then move every created link to its new row in one pass.
+	 *
+	 * @param list - the link list to update.
+	 * @param removed - the rows to remove, none of which hold a link still being tracked.
+	 * @param added - the created links to append, in order.
+	 */
+	private void commit(CustomLinkList list, BitSet removed, List<Tracked> added) {
+		applying = true;
+		try {
+			if (!removed.isEmpty()) {
+				// The number of removed rows before each row.
+				int[] before = new int[list.getListSize()];
+				int count = 0;
+				for (int i=0; i<before.length; i++) {
+					before[i] = count;
+					if (removed.get(i)) {
+						count++;
+					}
+				}
+
+				list.removeLinks(removed);
+				for (Tracked tracked : links.values()) {
+					if (tracked.row >= 0 && tracked.row < before.length) {
+						tracked.row -= before[tracked.row];
+					}
+				}
+			}
+
+			if (!added.isEmpty()) {
+				List<CustomLink> appended = new ArrayList<CustomLink>(added.size());
+				int row = list.getListSize();
+				for (Tracked tracked : added) {
+					appended.add(tracked.link);
+					tracked.row = row++;
+				}
+				list.addLinks(appended);
+			}
+		}
+		finally {
+			applying = false;
+		}
+	}
+
+	/**
+	 * This function will follow the created links when a row of the list is replaced, such as
+	 * when two rows are swapped. A created link that is no longer in its row is moved to the
+	 * changed row if it now holds that link, and otherwise looked for when it is next needed.
+	 *
+	 * @param list - the link list.
+	 * @param row - the row that was replaced.
+	 */
+	private void changed(CustomLinkList list, int row) {
+		CustomLink link = list.getLinkAt(row);
+		boolean held = false;
+
+		for (Tracked tracked : links.values()) {
+			if (tracked.row == row) {
+				if (tracked.link.equals(link)) {
+					held = true;
+				}
+				else {
+					tracked.row = MOVED;
+				}
+			}
+		}
+		if (held) {
+			return;
+		}
+
+		// A swap replaces both rows before either is reported, so the link may not have been told yet.
+		for (Tracked tracked : links.values()) {
+			if (tracked.link.equals(link) && (tracked.row == MOVED
+					|| (tracked.row >= 0 && !tracked.link.equals(list.getLinkAt(tracked.row))))) {
+				tracked.row = row;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return - the row of the link created for a file, or -1 if it is no longer in the list.
+	 *           A link that was moved is looked for among the rows that no other created link
+	 *           is known to be in.
+	 * @param list - the link list.
+	 * @param tracked - the link created for the file.
+	 */
+	private int find(CustomLinkList list, Tracked tracked) {
+		if (tracked.row == MOVED) {
+			Set<Integer> known = new HashSet<Integer>();
+			for (Tracked other : links.values()) {
+				if (other.row >= 0) {
+					known.add(other.row);
+				}
+			}
+
+			tracked.row = GONE;
+			for (int i=0; i<list.getListSize(); i++) {
+				if (!known.contains(i) && tracked.link.equals(list.getLinkAt(i))) {
+					tracked.row = i;
+					break;
+				}
+			}
+		}
+		return tracked.row >= 0 ? tracked.row : -1;
+	}
+
+	/**
+	 * @return - a key that identifies the file a link was created from.
+	 * @param link - the link to identify.
+	 */
+	private static String key(CustomLink link) {
+		return link.getName() + '\0' + link.getTarget();
+	}
+}
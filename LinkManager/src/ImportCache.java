@@ -0,0 +1,205 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class will remember the resolved target and type of every shortcut that has been
+ * imported, so that re-importing an unchanged file does not need to read and parse it again.
+ *
+ * Entries are keyed by the file's canonical path, and are only used while the file's size
+ * and modification time are unchanged. The number of entries is bounded, with the least
+ * recently used entries being discarded first. The cache is kept in a local file so that
+ * it survives between sessions. Its hits and misses are counted in the metrics.
+ *
+ * @author Ian Gardea
+ *
+ */
+class ImportCache {
+
+	private static ImportCache instance;
+
+	/**
+	 * @return - the cache shared by all imports, loaded from disk on first use.
+	 */
+	public static synchronized ImportCache getInstance() {
+		if (instance == null) {
+			instance = new ImportCache(new File("./import.cache"), Config.get().getImportCacheSize());
+			instance.load();
+		}
+		return instance;
+	}
+
+	/**
+	 * This class represents the stored result of a single parsed file.
+	 */
+	public static class Entry {
+		private final long   size;
+		private final long   modified;
+		private final String target;
+		private final int    type;
+
+		private Entry(long size, long modified, String target, int type) {
+			this.size = size;
+			this.modified = modified;
+			this.target = target;
+			this.type = type;
+		}
+
+		/**
+		 * @return - the resolved target of the file.
+		 */
+		public String getTarget() {
+			return target;
+		}
+
+		/**
+		 * @return - the integer link type of the resolved target.
+		 */
+		public int getType() {
+			return type;
+		}
+	}
+
+	private final File file;
+	private final LinkedHashMap<String, Entry> entries;
+
+	private boolean dirty;
+
+	/**
+	 * @param file - the file the cache is persisted to.
+	 * @param maxEntries - the maximum number of entries to retain.
+	 */
+	private ImportCache(File file, final int maxEntries) {
+		this.file = file;
+
+		// Access ordering makes the eldest entry the least recently used one.
+		this.entries = new LinkedHashMap<String, Entry>(256, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ImportCache.Entry> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Looks up a file in the cache.
+	 *
+	 * @return - the cached entry, or null if the file is unknown or has changed since it was cached.
+	 * @param path - the canonical path of the file.
+	 * @param size - the current size of the file.
+	 * @param modified - the current modification time of the file.
+	 */
+	public synchronized Entry get(String path, long size, long modified) {
+		Entry entry = entries.get(path);
+
+		if (entry != null && entry.size == size && entry.modified == modified) {
+			Metrics.IMPORT_CACHE.inc("hit");
+			return entry;
+		}
+		Metrics.IMPORT_CACHE.inc("miss");
+		return null;
+	}
+
+	/**
+	 * Stores the result of parsing a file.
+	 *
+	 * @return - the new entry.
+	 * @param path - the canonical path of the file.
+	 * @param size - the size of the file when it was parsed.
+	 * @param modified - the modification time of the file when it was parsed.
+	 * @param target - the resolved target of the file.
+	 * @param type - the integer link type of the resolved target.
+	 */
+	public synchronized Entry put(String path, long size, long modified, String target, int type) {
+		Entry entry = new Entry(size, modified, target, type);
+		entries.put(path, entry);
+		dirty = true;
+		return entry;
+	}
+
+	/**
+	 * @return - the number of files in the cache.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Reads the cache from disk. A missing or unreadable file simply leaves the cache empty.
+	 */
+	private synchronized void load() {
+		if (!file.exists()) {
+			return;
+		}
+
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(
+				new FileInputStream(file), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				// size, modified, type, path, target
+				String[] fields = line.split("\t", 5);
+				if (fields.length != 5) {
+					continue;
+				}
+
+				try {
+					entries.put(fields[3], new Entry(
+							Long.parseLong(fields[0]),
+							Long.parseLong(fields[1]),
+							fields[4],
+							CustomLink.getTypeFromString(fields[2])));
+				}
+				catch (NumberFormatException e) {
+					// Skip the malformed entry.
+				}
+			}
+		}
+		catch (IOException e) {
+			System.out.println("Unable to read the import cache: " + e.getLocalizedMessage());
+			entries.clear();
+		}
+		dirty = false;
+	}
+
+	/**
+	 * Writes the cache to disk if it was changed since it was last loaded or saved.
+	 * The least recently used entries are written first, so the ordering survives a reload.
+	 */
+	public synchronized void save() {
+		if (!dirty) {
+			return;
+		}
+
+		try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			for (Map.Entry<String, Entry> e : entries.entrySet()) {
+				Entry entry = e.getValue();
+				bw.write(Long.toString(entry.size));
+				bw.write('\t');
+				bw.write(Long.toString(entry.modified));
+				bw.write('\t');
+				bw.write(CustomLink.getTypeAsString(entry.type));
+				bw.write('\t');
+				bw.write(e.getKey());
+				bw.write('\t');
+				bw.write(entry.target);
+				bw.newLine();
+			}
+			dirty = false;
+		}
+		catch (IOException e) {
+			System.out.println("Unable to write the import cache: " + e.getLocalizedMessage());
+		}
+	}
+}
@@ -0,0 +1,265 @@
+import java.awt.GridLayout;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+
+/**
+ * This class decides which files found within a folder are imported as links.
+ *
+ * Files can be included or excluded by glob patterns, and limited by their size and how
+ * deeply they are nested. The rules are applied while the folder is being walked, so an
+ * excluded folder (such as ".git" or "node_modules") is never descended into.
+ *
+ * Patterns are separated by semicolons. A pattern without a slash is matched against the
+ * name of each file or folder, and a pattern with a slash is matched against its path
+ * relative to the folder being imported.
+ *
+ * @author Ian Gardea
+ *
+ */
+class ImportFilter {
+
+	private final List<PathMatcher> includeNames = new ArrayList<PathMatcher>();
+	private final List<PathMatcher> includePaths = new ArrayList<PathMatcher>();
+	private final List<PathMatcher> excludeNames = new ArrayList<PathMatcher>();
+	private final List<PathMatcher> excludePaths = new ArrayList<PathMatcher>();
+	private final int               maxDepth;
+	private final long              minSize;
+	private final long              maxSize;
+
+	/**
+	 * @param include - the patterns a file must match to be imported, or an empty String to include all files.
+	 * @param exclude - the patterns of files and folders that are never imported.
+	 * @param maxDepth - how many folder levels to descend into, where 1 is only the dropped folder, or 0 for no limit.
+	 * @param minSize - the smallest file size to import, in bytes.
+	 * @param maxSize - the largest file size to import in bytes, or 0 for no limit.
+	 */
+	public ImportFilter(String include, String exclude, int maxDepth, long minSize, long maxSize) {
+		this.maxDepth = maxDepth <= 0 ? Integer.MAX_VALUE : maxDepth;
+		this.minSize = minSize;
+		this.maxSize = maxSize <= 0 ? Long.MAX_VALUE : maxSize;
+
+		compile(include, includeNames, includePaths);
+		compile(exclude, excludeNames, excludePaths);
+	}
+
+	/**
+	 * @return - the filter defined in the INI file.
+	 */
+	public static ImportFilter fromConfig() {
+		Config config = Config.get();
+		return new ImportFilter(config.getImportInclude(), config.getImportExclude(),
+				config.getImportMaxDepth(), config.getImportMinSizeKB() * 1024L,
+				config.getImportMaxSizeKB() * 1024L);
+	}
+
+	/**
+	 * This function will prompt the user for the filter to use for a single drop, starting
+	 * from the filter defined in the INI file.
+	 *
+	 * @return - the filter entered by the user, or null if the user cancelled the drop.
+	 */
+	public static ImportFilter prompt() {
+		Config config = Config.get();
+		JTextField iField = new JTextField(config.getImportInclude(), 20);
+		JTextField eField = new JTextField(config.getImportExclude(), 20);
+		JTextField dField = new JTextField("" + config.getImportMaxDepth(), 5);
+		JTextField minField = new JTextField("" + config.getImportMinSizeKB(), 5);
+		JTextField maxField = new JTextField("" + config.getImportMaxSizeKB(), 5);
+
+		JPanel myPanel = new JPanel();
+		myPanel.setLayout(new GridLayout(0,1));
+		myPanel.add(new JLabel("Include files matching (separated by ';', empty for all):"));
+		myPanel.add(iField);
+		myPanel.add(new JLabel("Exclude files and folders matching:"));
+		myPanel.add(eField);
+		myPanel.add(new JLabel("Maximum folder depth (0 for no limit):"));
+		myPanel.add(dField);
+		myPanel.add(new JLabel("Minimum file size in KB:"));
+		myPanel.add(minField);
+		myPanel.add(new JLabel("Maximum file size in KB (0 for no limit):"));
+		myPanel.add(maxField);
+
+		while (true) {
+			int result = JOptionPane.showConfirmDialog(LinkManager.getFrame(),
+					myPanel,
+					"Import Filters", JOptionPane.OK_CANCEL_OPTION);
+			if (result != JOptionPane.OK_OPTION) {
+				return null;
+			}
+
+			try {
+				return new ImportFilter(iField.getText(), eField.getText(),
+						Integer.parseInt(dField.getText().trim()),
+						Long.parseLong(minField.getText().trim()) * 1024L,
+						Long.parseLong(maxField.getText().trim()) * 1024L);
+			}
+			catch (final NumberFormatException e) {
+				JOptionPane.showMessageDialog(LinkManager.getFrame(), "The depth and sizes must be whole numbers.",
+						"Invalid Filter", JOptionPane.ERROR_MESSAGE);
+			}
+			catch (final IllegalArgumentException e) {
+				JOptionPane.showMessageDialog(LinkManager.getFrame(), e.getLocalizedMessage(),
+						"Invalid Filter", JOptionPane.ERROR_MESSAGE);
+			}
+		}
+	}
+
+	/**
+	 * Walks a folder, passing only the accepted files and folders to the visitor.
+	 * Excluded folders, and those deeper than the maximum depth, are skipped entirely.
+	 *
+	 * @param root - the folder to walk.
+	 * @param visitor - the visitor to receive the accepted files and folders.
+	 */
+	public void walk(Path root, FileVisitor<Path> visitor) throws IOException {
+		walk(root, root, visitor);
+	}
+
+	/**
+	 * Walks a folder found within the folder being imported, such as one that was created
+	 * after the import. The rules are applied relative to the folder being imported.
+	 *
+	 * @param root - the folder being imported.
+	 * @param start - the folder within it to walk.
+	 * @param visitor - the visitor to receive the accepted files and folders.
+	 */
+	public void walk(final Path root, Path start, final FileVisitor<Path> visitor) throws IOException {
+		if (!acceptDirectory(root, start)) {
+			return;
+		}
+
+		int depth = maxDepth == Integer.MAX_VALUE ? maxDepth : maxDepth - depth(root, start);
+		Files.walkFileTree(start, EnumSet.noneOf(FileVisitOption.class), depth, new FileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				if (!acceptDirectory(root, dir)) {
+					return FileVisitResult.SKIP_SUBTREE;
+				}
+				return visitor.preVisitDirectory(dir, attrs);
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				// Folders at the maximum depth are reported as files, and are not descended into.
+				if (attrs.isDirectory() || !acceptFile(root, file, attrs)) {
+					return FileVisitResult.CONTINUE;
+				}
+				return visitor.visitFile(file, attrs);
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+				return visitor.visitFileFailed(file, e);
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+				return visitor.postVisitDirectory(dir, e);
+			}
+		});
+	}
+
+	/**
+	 * @return - true if the folder should be descended into. The folder being imported is always accepted.
+	 * @param root - the folder being imported.
+	 * @param dir - the folder found within it.
+	 */
+	public boolean acceptDirectory(Path root, Path dir) {
+		if (dir.equals(root)) {
+			return true;
+		}
+
+		return depth(root, dir) < maxDepth && !matches(excludeNames, excludePaths, root.relativize(dir));
+	}
+
+	/**
+	 * @return - true if the file should be imported.
+	 * @param root - the folder being imported.
+	 * @param file - the file found within it.
+	 * @param attrs - the attributes of the file.
+	 */
+	public boolean acceptFile(Path root, Path file, BasicFileAttributes attrs) {
+		if (attrs.size() < minSize || attrs.size() > maxSize) {
+			return false;
+		}
+
+		Path relative = root.relativize(file);
+		if (relative.getNameCount() > maxDepth || matches(excludeNames, excludePaths, relative)) {
+			return false;
+		}
+		return (includeNames.isEmpty() && includePaths.isEmpty())
+				|| matches(includeNames, includePaths, relative);
+	}
+
+	/**
+	 * @return - the number of folder levels between the folder being imported and the path.
+	 * @param root - the folder being imported.
+	 * @param path - a file or folder within it.
+	 */
+	private static int depth(Path root, Path path) {
+		return path.equals(root) ? 0 : root.relativize(path).getNameCount();
+	}
+
+	/**
+	 * @return - true if the path matches any of the name or path patterns.
+	 * @param names - the patterns matched against the last element of the path.
+	 * @param paths - the patterns matched against the whole relative path.
+	 * @param relative - the path relative to the folder being imported.
+	 */
+	private static boolean matches(List<PathMatcher> names, List<PathMatcher> paths, Path relative) {
+		Path name = relative.getFileName();
+		for (PathMatcher matcher : names) {
+			if (name != null && matcher.matches(name)) {
+				return true;
+			}
+		}
+		for (PathMatcher matcher : paths) {
+			if (matcher.matches(relative)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Converts a list of patterns into matchers.
+	 *
+	 * @param patterns - the patterns, separated by semicolons.
+	 * @param names - receives the patterns to be matched against names.
+	 * @param paths - receives the patterns to be matched against relative paths.
+	 */
+	private static void compile(String patterns, List<PathMatcher> names, List<PathMatcher> paths) {
+		if (patterns == null) {
+			return;
+		}
+		for (String pattern : patterns.split(";")) {
+			pattern = pattern.trim();
+			if (pattern.isEmpty()) {
+				continue;
+			}
+
+			PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+			if (pattern.indexOf('/') >= 0 || pattern.indexOf('\\') >= 0) {
+				paths.add(matcher);
+			}
+			else {
+				names.add(matcher);
+			}
+		}
+	}
+}
@@ -1,27 +1,33 @@
-
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Source: https://stackoverflow.com/questions/190629/what-is-the-easiest-way-to-parse-an-ini-file-in-java
+ *
+ * Lines are split by hand rather than matched against patterns, and lines starting with ; or #
+ * are comments. A key that is missing, or a value that is not a number where one is expected,
+ * gives the default value.
+ *
  * @author Ian Gardea
  *
  */
 public class IniFile {
 
-   private Pattern  _section  = Pattern.compile( "\\s*\\[([^]]*)\\]\\s*" );
-   private Pattern  _keyValue = Pattern.compile( "\\s*([^=]*)=(.*)" );
    private Map< String,
       Map< String,
          String >>  _entries  = new HashMap<>();
 
    private String lastKey;     // Track which key was accessed.
-         
+
+   /**
+    * Creates an empty file, where every key gives its default value.
+    */
+   public IniFile() {
+   }
+
    public IniFile( String path ) throws IOException {
       load( path );
    }
@@ -29,22 +35,26 @@ public class IniFile {
    public void load( String path ) throws IOException {
       try( BufferedReader br = new BufferedReader( new FileReader( path ))) {
          String line;
-         String section = null;
+         Map< String, String > kv = null;
          while(( line = br.readLine()) != null ) {
-            Matcher m = _section.matcher( line );
-            if( m.matches()) {
-               section = m.group( 1 ).trim();
+            line = line.trim();
+            if( line.isEmpty() || line.charAt( 0 ) == ';' || line.charAt( 0 ) == '#' ) {
+               continue;
             }
-            else if( section != null ) {
-               m = _keyValue.matcher( line );
-               if( m.matches()) {
-                  String key   = m.group( 1 ).trim();
-                  String value = m.group( 2 ).trim();
-                  Map< String, String > kv = _entries.get( section );
+            if( line.charAt( 0 ) == '[' ) {
+               int end = line.indexOf( ']' );
+               if( end > 0 ) {
+                  String section = line.substring( 1, end ).trim();
+                  kv = _entries.get( section );
                   if( kv == null ) {
-                     _entries.put( section, kv = new HashMap<>());   
+                     _entries.put( section, kv = new HashMap<>());
                   }
-                  kv.put( key, value );
+               }
+            }
+            else if( kv != null ) {
+               int equals = line.indexOf( '=' );
+               if( equals >= 0 ) {
+                  kv.put( line.substring( 0, equals ).trim(), line.substring( equals + 1 ).trim());
                }
             }
          }
@@ -52,38 +62,65 @@ public class IniFile {
    }
 
    public String getString( String section, String key, String defaultvalue ) {
-      Map< String, String > kv = _entries.get( section );
-      if( kv == null ) {
-         return defaultvalue;
-      }
-      return kv.get( key );
+      String value = get( section, key );
+      return value == null ? defaultvalue : value;
    }
 
    public int getInt( String section, String key, int defaultvalue ) {
-      Map< String, String > kv = _entries.get( section );
-      if( kv == null ) {
+      String value = get( section, key );
+      try {
+         return value == null ? defaultvalue : Integer.parseInt( value );
+      }
+      catch( NumberFormatException e ) {
          return defaultvalue;
       }
-      return Integer.parseInt( kv.get( key ));
    }
 
    public float getFloat( String section, String key, float defaultvalue ) {
-      Map< String, String > kv = _entries.get( section );
-      if( kv == null ) {
+      String value = get( section, key );
+      try {
+         return value == null ? defaultvalue : Float.parseFloat( value );
+      }
+      catch( NumberFormatException e ) {
          return defaultvalue;
       }
-      return Float.parseFloat( kv.get( key ));
    }
 
    public double getDouble( String section, String key, double defaultvalue ) {
+      String value = get( section, key );
+      try {
+         return value == null ? defaultvalue : Double.parseDouble( value );
+      }
+      catch( NumberFormatException e ) {
+         return defaultvalue;
+      }
+   }
+
+   public boolean getBoolean( String section, String key, boolean defaultvalue ) {
+      String value = get( section, key );
+      return value == null ? defaultvalue : Boolean.parseBoolean( value );
+   }
+
+   public Map< String, String > getSection( String section ) {
       Map< String, String > kv = _entries.get( section );
       if( kv == null ) {
-         return defaultvalue;
+         return new HashMap<>();
       }
-      return Double.parseDouble( kv.get( key ));
+      return new HashMap<>( kv );
    }
-   
+
    public String getLastKey() {
 	   return lastKey;
    }
-}
\ No newline at end of file
+
+   /**
+    * @return - the value of the key, or null if the section or key is missing.
+    * @param section - the section holding the key.
+    * @param key - the key.
+    */
+   private String get( String section, String key ) {
+      lastKey = key;
+      Map< String, String > kv = _entries.get( section );
+      return kv == null ? null : kv.get( key );
+   }
+}
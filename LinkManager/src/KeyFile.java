@@ -0,0 +1,94 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * This class writes the random keys that let other programs on this computer talk to the
+ * running copy of Link Manager, to files only this user may read, where the file system allows it.
+ *
+ * @author Ian Gardea
+ *
+ */
+class KeyFile {
+
+	private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rw-------");
+
+	/**
+	 * This function will read the key from a file, or write a new one to it if it has none.
+	 *
+	 * @return - the key.
+	 * @param file - the file holding the key.
+	 */
+	public static String readOrCreate(File file) throws IOException {
+		if (file.isFile()) {
+			String key = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim();
+			if (!key.isEmpty()) {
+				return key;
+			}
+		}
+
+		Path path = file.toPath();
+		Set<StandardOpenOption> options = EnumSet.of(StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		FileChannel channel;
+		try {
+			// Create the file unreadable to others, so the key is never visible to them.
+			channel = FileChannel.open(path, options, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+		}
+		catch (UnsupportedOperationException e) {
+			channel = FileChannel.open(path, options);
+		}
+		try {
+			return write(path, channel, "");
+		}
+		finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * This function will replace the contents of an open file with a new key, following the
+	 * text provided.
+	 *
+	 * @return - the new key.
+	 * @param path - the file.
+	 * @param channel - the file, open for writing.
+	 * @param prefix - the text to write before the key.
+	 */
+	public static String write(Path path, FileChannel channel, String prefix) throws IOException {
+		// Only this user may read the key, where the file system allows it.
+		try {
+			Files.setPosixFilePermissions(path, OWNER_ONLY);
+		}
+		catch (UnsupportedOperationException e) {
+		}
+
+		String key = newKey();
+		channel.truncate(0);
+		channel.write(ByteBuffer.wrap((prefix + key + "\n").getBytes(StandardCharsets.UTF_8)), 0);
+		channel.force(false);
+		return key;
+	}
+
+	/**
+	 * @return - 16 random bytes, as hexadecimal.
+	 */
+	private static String newKey() {
+		byte[] random = new byte[16];
+		new SecureRandom().nextBytes(random);
+		StringBuilder hex = new StringBuilder();
+		for (byte b : random) {
+			hex.append(String.format("%02x", b & 0xff));
+		}
+		return hex.toString();
+	}
+}
@@ -0,0 +1,174 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class will remember how often, and how recently, each link target has been launched,
+ * so the links used most can be ranked first.
+ *
+ * Each target has a single score that grows by one with every launch, and halves every week
+ * that it is not launched. A target launched often in the past, but not lately, will slowly
+ * be overtaken by the targets being launched now. The history is kept in a local file so
+ * that it survives between sessions.
+ *
+ * @author Ian Gardea
+ *
+ */
+class LaunchHistory {
+
+	// The time it takes for a score to halve.
+	private static final double HALF_LIFE = 7 * 24 * 60 * 60 * 1000.0;
+
+	// Scores below this are forgotten when the history is saved.
+	private static final double MIN_SCORE = 0.01;
+
+	private static LaunchHistory instance;
+
+	/**
+	 * @return - the history shared by all launches, loaded from disk on first use.
+	 */
+	public static synchronized LaunchHistory getInstance() {
+		if (instance == null) {
+			instance = new LaunchHistory(new File("./launch.history"));
+			instance.load();
+		}
+		return instance;
+	}
+
+	/**
+	 * This class represents the launch score of a single target.
+	 */
+	private static class Entry {
+		private double score;
+		private long   updated;
+
+		private Entry(double score, long updated) {
+			this.score = score;
+			this.updated = updated;
+		}
+
+		/**
+		 * @return - the score, decayed to the provided time.
+		 * @param now - the current time in milliseconds.
+		 */
+		private double scoreAt(long now) {
+			return score * Math.pow(0.5, Math.max(0, now - updated) / HALF_LIFE);
+		}
+	}
+
+	private final File file;
+	private final HashMap<String, Entry> entries = new HashMap<String, Entry>();
+
+	private boolean dirty;
+
+	/**
+	 * @param file - the file the history is persisted to.
+	 */
+	LaunchHistory(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Records a launch of the link's target.
+	 *
+	 * @param link - the link that was launched.
+	 */
+	public synchronized void record(CustomLink link) {
+		if (link.getTarget() == null) {
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+		Entry entry = entries.get(link.getTarget());
+
+		if (entry == null) {
+			entries.put(link.getTarget(), new Entry(1, now));
+		}
+		else {
+			entry.score = entry.scoreAt(now) + 1;
+			entry.updated = now;
+		}
+		dirty = true;
+	}
+
+	/**
+	 * @return - the current score of the link's target, or 0 if it was never launched.
+	 * @param link - the link to score.
+	 */
+	public synchronized double getScore(CustomLink link) {
+		Entry entry = entries.get(link.getTarget());
+		return entry == null ? 0 : entry.scoreAt(System.currentTimeMillis());
+	}
+
+	/**
+	 * Reads the history from disk. A missing or unreadable file simply leaves the history empty.
+	 */
+	private synchronized void load() {
+		if (!file.exists()) {
+			return;
+		}
+
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(
+				new FileInputStream(file), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = br.readLine()) != null) {
+				// score, updated, target
+				String[] fields = line.split("\t", 3);
+				if (fields.length != 3) {
+					continue;
+				}
+
+				try {
+					entries.put(fields[2], new Entry(Double.parseDouble(fields[0]), Long.parseLong(fields[1])));
+				}
+				catch (NumberFormatException e) {
+					// Skip the malformed entry.
+				}
+			}
+		}
+		catch (IOException e) {
+			System.out.println("Unable to read the launch history: " + e.getLocalizedMessage());
+			entries.clear();
+		}
+		dirty = false;
+	}
+
+	/**
+	 * Writes the history to disk if it was changed since it was last loaded or saved.
+	 * Targets whose score has decayed away are dropped.
+	 */
+	public synchronized void save() {
+		if (!dirty) {
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+		try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(
+				new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			for (Map.Entry<String, Entry> e : entries.entrySet()) {
+				Entry entry = e.getValue();
+				if (entry.scoreAt(now) < MIN_SCORE) {
+					continue;
+				}
+				bw.write(Double.toString(entry.score));
+				bw.write('\t');
+				bw.write(Long.toString(entry.updated));
+				bw.write('\t');
+				bw.write(e.getKey());
+				bw.newLine();
+			}
+			dirty = false;
+		}
+		catch (IOException e) {
+			System.out.println("Unable to write the launch history: " + e.getLocalizedMessage());
+		}
+	}
+}
@@ -0,0 +1,53 @@
+import java.awt.Component;
+
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableCellRenderer;
+
+/**
+ * This class draws links in a table, showing each link's name, and its target when hovered.
+ *
+ * A single renderer is shared by every table, and is only used to paint one cell at a time,
+ * so links themselves never need to hold any Swing state.
+ *
+ * @author Ian Gardea
+ *
+ */
+class LinkCellRenderer extends DefaultTableCellRenderer {
+
+	private static final long serialVersionUID = 1L;
+
+	private static LinkCellRenderer instance;
+
+	/**
+	 * @return - the renderer shared by every table.
+	 */
+	public static synchronized LinkCellRenderer getInstance() {
+		if (instance == null) {
+			instance = new LinkCellRenderer();
+		}
+		return instance;
+	}
+
+	private LinkCellRenderer() {
+		super();
+	}
+
+	/**
+	 * @return - this renderer, configured to draw the link.
+	 * @param table - the table being painted.
+	 * @param value - the link in the cell.
+	 * @param isSelected - true if the cell is selected.
+	 * @param hasFocus - true if the cell has focus.
+	 * @param row - the row of the cell.
+	 * @param column - the column of the cell.
+	 */
+	@Override
+	public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+			boolean hasFocus, int row, int column) {
+		CustomLink link = (CustomLink) value;
+		super.getTableCellRendererComponent(table, link == null ? null : link.getName(), isSelected, hasFocus, row, column);
+
+		setToolTipText(link == null || link.getType() == CustomLink.SEP ? null : link.getTarget());
+		return this;
+	}
+}
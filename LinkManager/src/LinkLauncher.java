@@ -0,0 +1,415 @@
+import java.awt.GraphicsEnvironment;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+/**
+ * This class runs links away from the event dispatch thread, so the window stays responsive
+ * while targets are opened.
+ *
+ * Links are run one after another on a background thread, pausing between each one
+ * so that every link opens properly (for instance, so several URLs open as separate tabs in
+ * a web browser). Links of the same type are run together when their type allows it. Every
+ * launch is recorded in the launch history.
+ *
+ * The pause, and the number of links run at once (concurrency in the [launch] section of the
+ * INI file), follow the current settings, so they can be changed while the program runs. With
+ * more than one thread, links are started in order, but may open out of order.
+ *
+ * Each link queued on its own is given a Launch, through which its progress, and the output of
+ * any commands it runs, can be followed from other threads.
+ *
+ * @author Ian Gardea
+ *
+ */
+class LinkLauncher {
+
+	/**
+	 * This class is a link queued to be run. Its state and output can be read from any thread.
+	 */
+	static class Launch {
+		public static final String QUEUED    = "queued";
+		public static final String RUNNING   = "running";
+		public static final String SUCCEEDED = "succeeded";
+		public static final String FAILED    = "failed";
+
+		// Output beyond this is dropped, so a command that never stops writing cannot fill the memory.
+		private static final int MAX_LINES = 10000;
+
+		private static final AtomicLong ids = new AtomicLong();
+
+		// The launch being run by the current thread.
+		private static final ThreadLocal<Launch> CURRENT = new ThreadLocal<Launch>();
+
+		private final long   id = ids.incrementAndGet();
+		private final String name;
+		private final long   queued = System.currentTimeMillis();
+		private long         started;
+		private long         finished;
+		private String       state = QUEUED;
+		private final List<String> output = new ArrayList<String>();
+		private int          dropped;
+
+		// A lock rather than synchronized, as waiting inside synchronized would hold up a virtual thread's carrier.
+		private final ReentrantLock lock    = new ReentrantLock();
+		private final Condition     changed = lock.newCondition();
+
+		/**
+		 * @param name - the name of the link.
+		 */
+		private Launch(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * @return - the launch being run by the current thread, or null if there is none.
+		 */
+		public static Launch current() {
+			return CURRENT.get();
+		}
+
+		/**
+		 * @return - a number identifying the launch, unique while the program runs.
+		 */
+		public long getId() {
+			return id;
+		}
+
+		/**
+		 * @return - the name of the link.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return - the state of the launch: QUEUED, RUNNING, SUCCEEDED, or FAILED.
+		 */
+		public String getState() {
+			lock.lock();
+			try {
+				return state;
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * @return - the times the launch was queued, started, and finished (milliseconds since 1970),
+		 *           with 0 for those that have not happened yet.
+		 */
+		public long[] getTimes() {
+			lock.lock();
+			try {
+				return new long[] {queued, started, finished};
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * @return - true if the link has been run, successfully or not.
+		 */
+		public boolean isFinished() {
+			lock.lock();
+			try {
+				return finished != 0;
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * This function will add a line to the launch's output.
+		 *
+		 * @param line - the line, without its line break.
+		 */
+		public void append(String line) {
+			lock.lock();
+			try {
+				if (output.size() < MAX_LINES) {
+					output.add(line);
+				}
+				else {
+					dropped++;
+				}
+				changed.signalAll();
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * This function will wait for output after the lines already read, until the launch finishes.
+		 *
+		 * @return - the lines from the index on, which is empty if the launch finished, or the wait timed out.
+		 * @param from - the number of lines already read.
+		 * @param timeoutMillis - the longest time to wait for a line.
+		 */
+		public List<String> read(int from, long timeoutMillis) throws InterruptedException {
+			long deadline = System.nanoTime() + timeoutMillis * 1000000L;
+			lock.lock();
+			try {
+				while (output.size() <= from && finished == 0) {
+					long left = deadline - System.nanoTime();
+					if (left <= 0) {
+						break;
+					}
+					changed.awaitNanos(left);
+				}
+
+				List<String> lines = new ArrayList<String>(output.subList(Math.min(from, output.size()), output.size()));
+				if (finished != 0 && dropped > 0 && from + lines.size() == output.size()) {
+					lines.add("(" + dropped + " more lines were not kept)");
+					dropped = 0;
+				}
+				return lines;
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		private void start() {
+			lock.lock();
+			try {
+				state = RUNNING;
+				started = System.currentTimeMillis();
+				changed.signalAll();
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		private void finish(boolean success) {
+			lock.lock();
+			try {
+				state = success ? SUCCEEDED : FAILED;
+				finished = System.currentTimeMillis();
+				changed.signalAll();
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	private static LinkLauncher instance;
+
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * @return - the launcher shared by the whole program.
+	 */
+	public static synchronized LinkLauncher getInstance() {
+		if (instance == null) {
+			instance = new LinkLauncher();
+		}
+		return instance;
+	}
+
+	private LinkLauncher() {
+		final int threads = Config.get().getLaunchConcurrency();
+		executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+				new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Link Launcher-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		Config.addListener(new Config.Listener() {
+			public void configChanged(Config config) {
+				setConcurrency(config.getLaunchConcurrency());
+			}
+		});
+	}
+
+	/**
+	 * This function will change the number of links run at once. Links already running finish
+	 * first, so the number of threads only falls as they become idle.
+	 *
+	 * @param threads - the number of links run at once.
+	 */
+	private synchronized void setConcurrency(int threads) {
+		// The maximum can never be below the core size, so the order depends on which way the size changes.
+		if (threads > executor.getMaximumPoolSize()) {
+			executor.setMaximumPoolSize(threads);
+			executor.setCorePoolSize(threads);
+		}
+		else {
+			executor.setCorePoolSize(threads);
+			executor.setMaximumPoolSize(threads);
+		}
+	}
+
+	/**
+	 * Queues a link to be run. Separators are ignored, and fail at once.
+	 *
+	 * @return - the launch, to follow its progress.
+	 * @param link - the link to run.
+	 */
+	public Launch launch(final CustomLink link) {
+		final Launch launch = new Launch(link.getName());
+		if (link.getType() == CustomLink.SEP) {
+			launch.finish(false);
+			return launch;
+		}
+
+		executor.execute(new Runnable() {
+			public void run() {
+				launch.start();
+				boolean success = false;
+				Launch.CURRENT.set(launch);
+				try {
+					success = link.browse();
+				}
+				finally {
+					Launch.CURRENT.remove();
+					launch.finish(success);
+				}
+				
+				if (success) {
+					LaunchHistory history = LaunchHistory.getInstance();
+					history.record(link);
+					history.save();
+				}
+
+				try {
+					// Give the target time to open before the next link is run.
+					Thread.sleep(Config.get().getSleepTime());
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		return launch;
+	}
+
+	/**
+	 * Queues several links to be run, in order. Separators are ignored.
+	 *
+	 * Neighbouring links whose type runs several targets more cheaply together (such as DOS
+	 * commands and remote paths, which share a single batch file) are run as one group.
+	 *
+	 * @param links - the links to run.
+	 */
+	public void launchAll(List<CustomLink> links) {
+		int i = 0;
+		while (i < links.size()) {
+			CustomLink link = links.get(i);
+			LinkTypeHandler handler = LinkTypes.get(link.getType());
+			if (link.getType() == CustomLink.SEP || !handler.isBatched()) {
+				launch(link);
+				i++;
+				continue;
+			}
+
+			// Gather the following links of the same type.
+			int end = i + 1;
+			while (end < links.size() && links.get(end).getType() == link.getType()) {
+				end++;
+			}
+			launchBatch(handler, new ArrayList<CustomLink>(links.subList(i, end)));
+			i = end;
+		}
+	}
+
+	/**
+	 * Queues links of a single type to be run together by its handler.
+	 *
+	 * @param handler - the handler of the links' type.
+	 * @param links - the links to run.
+	 */
+	private void launchBatch(final LinkTypeHandler handler, final List<CustomLink> links) {
+		if (links.size() == 1) {
+			launch(links.get(0));
+			return;
+		}
+
+		executor.execute(new Runnable() {
+			public void run() {
+				FlightEvents.Span span = FlightEvents.begin(FlightEvents.LAUNCH);
+				long start = System.nanoTime();
+
+				ArrayList<String> targets = new ArrayList<String>(links.size());
+				for (CustomLink link : links) {
+					targets.add(LinkTemplate.forTarget(link.getTarget()).expand());
+				}
+
+				boolean success;
+				try {
+					success = handler.launchAll(targets);
+				}
+				catch (Exception e) {
+					reportError(e, "I/O Exception");
+					success = false;
+				}
+				span.commit(handler.getName(), success ? 1 : 0, 0);
+				Metrics.recordLaunch(handler.getName(), success, links.size(), System.nanoTime() - start);
+
+				if (success) {
+					LaunchHistory history = LaunchHistory.getInstance();
+					for (CustomLink link : links) {
+						history.record(link);
+					}
+					history.save();
+				}
+
+				try {
+					// Give the last target time to open before the next link is run.
+					Thread.sleep(Config.get().getSleepTime());
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Shows an error raised while running a link. The message is shown on the event dispatch
+	 * thread, whichever thread the link was run on, or printed if there is no screen.
+	 *
+	 * @param e - the error.
+	 * @param title - the title of the message.
+	 */
+	public static void reportError(final Throwable e, final String title) {
+		// Whoever follows the launch sees the error too.
+		Launch launch = Launch.current();
+		if (launch != null) {
+			launch.append(title + ": " + e.getLocalizedMessage());
+		}
+
+		if (GraphicsEnvironment.isHeadless()) {
+			System.out.println(title + ": " + e.getLocalizedMessage());
+			return;
+		}
+
+		SwingUtilities.invokeLater(new Runnable() {
+			public void run() {
+				JOptionPane.showMessageDialog(LinkManager.getFrame(), e.getLocalizedMessage(),
+						title, JOptionPane.ERROR_MESSAGE);
+			}
+		});
+	}
+}
@@ -0,0 +1,154 @@
+import java.util.BitSet;
+import java.util.List;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * This class presents the links of a CustomLinkList, held in a LinkStore, as a list model.
+ *
+ * Besides the usual single element operations, it can remove any number of links in a
+ * single pass over the store, notifying listeners once for each contiguous range removed.
+ *
+ * The store used is chosen in the INI file: "objects" keeps each link as an object, and
+ * "columnar" keeps links in compact arrays, sharing the common parts of their targets.
+ *
+ * @author Ian Gardea
+ *
+ */
+class LinkListModel extends AbstractListModel<CustomLink> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final LinkStore store;
+
+	/**
+	 * This constructor holds the links in the store chosen in the INI file.
+	 *
+	 */
+	public LinkListModel() {
+		this("columnar".equalsIgnoreCase(Config.get().getLinkStorage()) ? new ColumnarLinkStore() : new ArrayLinkStore());
+	}
+
+	/**
+	 * @param store - the store to hold the links in.
+	 */
+	public LinkListModel(LinkStore store) {
+		this.store = store;
+	}
+
+	/**
+	 * @return - the number of links.
+	 */
+	@Override
+	public int getSize() {
+		return store.size();
+	}
+
+	/**
+	 * @return - the link at the provided position.
+	 * @param index - the integer position of the link.
+	 */
+	@Override
+	public CustomLink getElementAt(int index) {
+		return store.get(index);
+	}
+
+	/**
+	 * @return - the position of the first link equal to the provided link, or -1 if it is not present.
+	 * @param link - the link to search for.
+	 */
+	public int indexOf(CustomLink link) {
+		return store.indexOf(link);
+	}
+
+	/**
+	 * Adds a link to the end of the list.
+	 *
+	 * @param link - the link to add.
+	 */
+	public void addElement(CustomLink link) {
+		store.add(link);
+		fireIntervalAdded(this, store.size() - 1, store.size() - 1);
+	}
+
+	/**
+	 * Adds several links to the end of the list, notifying listeners once.
+	 *
+	 * @param added - the links to add.
+	 */
+	public void addAll(List<CustomLink> added) {
+		if (added.isEmpty()) {
+			return;
+		}
+		for (CustomLink link : added) {
+			store.add(link);
+		}
+		fireIntervalAdded(this, store.size() - added.size(), store.size() - 1);
+	}
+
+	/**
+	 * Replaces the link at the provided position.
+	 *
+	 * @return - the link that was replaced.
+	 * @param index - the integer position of the link.
+	 * @param link - the link to place at the position.
+	 */
+	public CustomLink setElementAt(CustomLink link, int index) {
+		CustomLink old = store.set(index, link);
+		fireContentsChanged(this, index, index);
+		return old;
+	}
+
+	/**
+	 * Removes the link at the provided position.
+	 *
+	 * @return - the link that was removed.
+	 * @param index - the integer position of the link.
+	 */
+	public CustomLink remove(int index) {
+		CustomLink old = store.remove(index);
+		fireIntervalRemoved(this, index, index);
+		return old;
+	}
+
+	/**
+	 * Removes every link whose position is set in the provided set, compacting the
+	 * remaining links in a single pass.
+	 *
+	 * Listeners are notified once per contiguous range of removed positions, starting
+	 * with the highest range, so the positions in each notification are still valid for a
+	 * listener that applies them in order. Listeners must rely on the positions in each
+	 * notification, since the list has already been compacted when they are notified.
+	 *
+	 * @return - the number of links removed.
+	 * @param indices - the positions of the links to remove.
+	 */
+	public int removeAll(BitSet indices) {
+		int oldSize = store.size();
+		int removed = store.removeAll(indices);
+		if (removed == 0) {
+			return 0;
+		}
+
+		// Notify from the highest range to the lowest.
+		int end = indices.previousSetBit(oldSize - 1);
+		while (end >= 0) {
+			int start = indices.previousClearBit(end) + 1;
+			fireIntervalRemoved(this, start, end);
+			end = indices.previousSetBit(start - 1);
+		}
+		return removed;
+	}
+
+	/**
+	 * Swaps the positions of two links.
+	 *
+	 * @param first - the position of the first link.
+	 * @param second - the position of the second link.
+	 */
+	public void swap(int first, int second) {
+		store.swap(first, second);
+		fireContentsChanged(this, first, first);
+		fireContentsChanged(this, second, second);
+	}
+}
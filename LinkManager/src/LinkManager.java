@@ -3,6 +3,7 @@ import java.awt.Cursor;
 import java.awt.Desktop;
 import java.awt.Dimension;
 import java.awt.Event;
+import java.awt.GraphicsEnvironment;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
@@ -12,6 +13,9 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
 
 import javax.swing.Box;
 import javax.swing.JFrame;
@@ -22,8 +26,7 @@ import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPopupMenu;
 import javax.swing.KeyStroke;
-import javax.swing.UIManager;
-import javax.swing.UnsupportedLookAndFeelException;
+import javax.swing.SwingUtilities;
 
 /**
  * This program allows the dynamic creation, and execution
@@ -38,30 +41,29 @@ public class LinkManager{
 	private static final String VERSION;    
 	private static final String JRE;
 	
-	private static IniFile INI; // Configuration file that holds customizable settings.
 	private static File   FILE;
 	private static File   README;
-	private static JFrame FRAME;
+	private static JFrame FRAME;  // Created on the GUI thread, once the look and feel is loaded.
 	
-	public static final int SLEEPTIME;
-	public static final int GUIWIDTH;
-	public static final int GUIHEIGHT;
-	public static String CUSTOM_VAR;
 	
 	private static CustomTabList tabbedList = null;
 	private static boolean       isLocked;
 	
+	// The tabs of the session file, being read while the window is built.
+	private static Future<List<SessionDocument.Tab>> session;
+	
 	static {
+		Startup.begin();
+		
 		// These variables can only be changed during development.
 	    VERSION = "1.0.1"; // TODO: Please update on every subsequent code change.
         JRE = "1.7.0_45";  // TODO: Please update if tested on a later JRE.
         
-        FRAME = new JFrame("Link Manager v" + VERSION);
-        
         // Initialize file pointers.
 		try {
 	        
-			INI = new IniFile("./config.ini");
+			// The settings are read once, and again whenever the file changes.
+			Config.load(new File("./config.ini"));
 			
 			FILE       = new File("./session.xml");
 			README     = new File("./README.txt");
@@ -71,23 +73,14 @@ public class LinkManager{
 					"I/O Exception", JOptionPane.ERROR_MESSAGE);
 			System.exit(1);
 		}
-		catch (NullPointerException ex) {
-			String iniErrMessage = "An error occurred when trying to load INI file key \"" + INI.getLastKey() + "\".";
-			JOptionPane.showMessageDialog(LinkManager.FRAME, iniErrMessage,
-					"I/O Exception", JOptionPane.ERROR_MESSAGE);
-			System.exit(1);
-		}
 		catch (Exception ex) {
 			JOptionPane.showMessageDialog(LinkManager.FRAME, ex.getLocalizedMessage(),
 					"Unknown Error", JOptionPane.ERROR_MESSAGE);
 			System.exit(1);
 		}
 
-		// Ensure global variables are assigned a value by defining them outside the try/catch.
-		CUSTOM_VAR = INI.getString("global","customVarValue", "CUSTOM_VAR");
-		SLEEPTIME = INI.getInt("gui","sleepTime", 2000);
-		GUIWIDTH = INI.getInt("gui","guiWidth", 480);
-		GUIHEIGHT = INI.getInt("gui","guiHeight", 600);
+		LinkTemplate.load(Config.get().getCustomVarValue(), Config.get().getVariables());
+		Startup.phase("config");
 	}
 	
 	/**
@@ -110,20 +103,16 @@ public class LinkManager{
 	private static void createAndShowGUI() {
 		LinkManager.isLocked = false;
 
-		// Create Windows look and feel
-		try {
-			UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-		} 
-		catch (ClassNotFoundException | InstantiationException | IllegalAccessException | UnsupportedLookAndFeelException e) {
-			e.printStackTrace();
-		}
+		// The look and feel was loaded when the program started, so the window is only created now.
+		FRAME = new JFrame("Link Manager v" + VERSION);
 
 		// The list of tabs available in the GUI.
 		tabbedList = new CustomTabList();
 
 		// Load the existing configuration, or start a blank session if not defined.
-		if(FILE.exists()){
-			tabbedList.revertDocument(FILE);
+		// The session's tabs are added once the window is shown, as they are read.
+		if(session != null){
+			tabbedList.loadDocument(FILE, session);
 		}
 		else{
 			showInstructions();
@@ -153,7 +142,7 @@ public class LinkManager{
 		
 		jmnFile.addSeparator();
 		
-		final JMenuItem jmiSetVariable = jmnFile.add("Set Custom Variable");
+		final JMenuItem jmiSetVariable = jmnFile.add("Set Variable...");
 		jmiSetVariable.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_V, 0));
 		
 		jmnFile.addSeparator();
@@ -186,6 +175,14 @@ public class LinkManager{
 		jmiDeleteTabRC.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_D, Event.CTRL_MASK));
 		menuPopup.add(jmiDeleteTabRC);
 		
+		final JMenuItem jmiWatchFolder = jmnEdit.add("Watch Folder...");
+		final JMenuItem jmiWatchFolderRC = jmnEdit.add("Watch Folder...");
+		menuPopup.add(jmiWatchFolderRC);
+		
+		final JMenuItem jmiStopWatching = jmnEdit.add("Stop Watching Folder");
+		final JMenuItem jmiStopWatchingRC = jmnEdit.add("Stop Watching Folder");
+		menuPopup.add(jmiStopWatchingRC);
+		
 		jmnEdit.addSeparator();
 		
 		final JMenuItem jmiAddLink = jmnEdit.add("Add Link");
@@ -200,6 +197,10 @@ public class LinkManager{
 		jmiAddSeparatorRC.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_S, 0));
 		menuPopup.add(jmiAddSeparatorRC);
 		
+		final JMenuItem jmiRemoveDuplicates = jmnEdit.add("Remove Duplicate Links");
+		final JMenuItem jmiRemoveDuplicatesRC = jmnEdit.add("Remove Duplicate Links");
+		menuPopup.add(jmiRemoveDuplicatesRC);
+		
 		jmnEdit.addSeparator();
 		
 		final JMenuItem jmiRunLinks = jmnEdit.add("Run Selected Links");
@@ -214,12 +215,27 @@ public class LinkManager{
 		jmiDeleteLinksRC.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_D, 0));
 		menuPopup.add(jmiDeleteLinksRC);
 		
+		jmnEdit.addSeparator();
+		
+		final JMenuItem jmiSearch = jmnEdit.add("Search Links...");
+		final JMenuItem jmiSearchRC = jmnEdit.add("Search Links...");
+		jmiSearch.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F, Event.CTRL_MASK));
+		jmiSearchRC.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F, Event.CTRL_MASK));
+		menuPopup.add(jmiSearchRC);
+		
+		final JMenuItem jmiQuickLaunch = jmnEdit.add("Quick Launch...");
+		final JMenuItem jmiQuickLaunchRC = jmnEdit.add("Quick Launch...");
+		jmiQuickLaunch.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_K, Event.CTRL_MASK));
+		jmiQuickLaunchRC.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_K, Event.CTRL_MASK));
+		menuPopup.add(jmiQuickLaunchRC);
+		
 		// Help menu
 		final JMenu jmnHelp = new JMenu("Help");
 		jmnHelp.setMnemonic(KeyEvent.VK_H);
 
 		final JMenuItem jmiInstructions = jmnHelp.add( "Instructions");
 		jmiInstructions.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F1, 0));
+		final JMenuItem jmiResponsiveness = jmnHelp.add( "Responsiveness...");
 		jmnHelp.addSeparator();
 		final JMenuItem jmiAbout = jmnHelp.add( "About");
 
@@ -269,20 +285,7 @@ public class LinkManager{
 				new ActionListener() {
 					public void actionPerformed(ActionEvent event) {
 						if(!LinkManager.isLocked) {
-							String input = null;
-							
-							while(input == null || input.equals("")) {
-								input = (String) JOptionPane.showInputDialog(LinkManager.getFrame(), "Please enter a new value for the custom variable."
-										, "Enter Variable Name",
-										JOptionPane.PLAIN_MESSAGE, null, null, LinkManager.CUSTOM_VAR);
-
-								// If the user hits Cancel
-								if (input == null) {
-									return;
-								} 
-							}
-							
-							LinkManager.CUSTOM_VAR = input;
+							LinkTemplate.promptSetVariable();
 						}
 						else {
 							LinkManager.showLockedMessage();
@@ -330,9 +333,6 @@ public class LinkManager{
 								jmiLockRC.setText("Unlock");
 							}
 							LinkManager.isLocked = !LinkManager.isLocked;
-							for(int i=0; i<tabbedList.getTabList().size(); i++) {
-								tabbedList.getTabList().get(i).refresh();
-							}
 						}
 					}
 				});
@@ -376,14 +376,47 @@ public class LinkManager{
 						jmiDeleteTab.doClick();
 					}
 				});
+		jmiWatchFolder.addActionListener(
+				new ActionListener() {
+					public void actionPerformed(ActionEvent event) {
+						if(!LinkManager.isLocked) {
+							tabbedList.promptWatchFolder();
+						}
+						else {
+							LinkManager.showLockedMessage();
+						}
+					}
+				});
+		jmiWatchFolderRC.addActionListener(
+				new ActionListener() {
+					public void actionPerformed(ActionEvent event) {
+						jmiWatchFolder.doClick();
+					}
+				});
+		jmiStopWatching.addActionListener(
+				new ActionListener() {
+					public void actionPerformed(ActionEvent event) {
+						if(!LinkManager.isLocked) {
+							tabbedList.watchFolder(tabbedList.getSelectedIndex(), null);
+						}
+						else {
+							LinkManager.showLockedMessage();
+						}
+					}
+				});
+		jmiStopWatchingRC.addActionListener(
+				new ActionListener() {
+					public void actionPerformed(ActionEvent event) {
+						jmiStopWatching.doClick();
+					}
+				});
 		jmiAddLink.addActionListener(
 				new ActionListener() {
 					public void actionPerformed(ActionEvent event) {
 						if(!LinkManager.isLocked) {
 							CustomLinkPane currentTab = tabbedList.getTabList().get(tabbedList.getSelectedIndex());
 
-							currentTab.getLinkList().promptAddLink();	
-							currentTab.refresh();
+							currentTab.getLinkList().promptAddLink();
 						}
 						else {
 							LinkManager.showLockedMessage();
@@ -402,8 +435,7 @@ public class LinkManager{
 						if(!LinkManager.isLocked) {
 							CustomLinkPane currentTab = tabbedList.getTabList().get(tabbedList.getSelectedIndex());
 
-							currentTab.getLinkList().addSeparator();	
-							currentTab.refresh();
+							currentTab.getLinkList().addSeparator();
 						}
 						else {
 							LinkManager.showLockedMessage();
@@ -416,6 +448,23 @@ public class LinkManager{
 						jmiAddSeparator.doClick();
 					}
 				});
+		jmiRemoveDuplicates.addActionListener(
+				new ActionListener() {
+					public void actionPerformed(ActionEvent event) {
+						if(!LinkManager.isLocked) {
+							tabbedList.removeDuplicates();
+						}
+						else {
+							LinkManager.showLockedMessage();
+						}
+					}
+				});
+		jmiRemoveDuplicatesRC.addActionListener(
+				new ActionListener() {
+					public void actionPerformed(ActionEvent event) {
+						jmiRemoveDuplicates.doClick();
+					}
+				});
 		jmiRunLinks.addActionListener(
 				new ActionListener() {
 					public void actionPerformed(ActionEvent event) {
@@ -452,12 +501,42 @@ public class LinkManager{
 						jmiDeleteLinks.doClick();
 					}
 				});
+		jmiSearch.addActionListener(
+				new ActionListener() {
+					public void actionPerformed(ActionEvent event) {
+						SearchDialog.showDialog(tabbedList);
+					}
+				});
+		jmiSearchRC.addActionListener(
+				new ActionListener() {
+					public void actionPerformed(ActionEvent event) {
+						jmiSearch.doClick();
+					}
+				});
+		jmiQuickLaunch.addActionListener(
+				new ActionListener() {
+					public void actionPerformed(ActionEvent event) {
+						QuickLaunchPalette.showPalette(tabbedList);
+					}
+				});
+		jmiQuickLaunchRC.addActionListener(
+				new ActionListener() {
+					public void actionPerformed(ActionEvent event) {
+						jmiQuickLaunch.doClick();
+					}
+				});
 		jmiInstructions.addActionListener(
 				new ActionListener() {
 					public void actionPerformed(ActionEvent event) {
 						LinkManager.showInstructions();
 					}
 				});
+		jmiResponsiveness.addActionListener(
+				new ActionListener() {
+					public void actionPerformed(ActionEvent event) {
+						ResponsivenessDialog.showDialog();
+					}
+				});
 		jmiAbout.addActionListener(
 				new ActionListener() {
 					public void actionPerformed(ActionEvent event) {
@@ -469,7 +548,7 @@ public class LinkManager{
 		FRAME.add(tabbedList);
 
 		// Set JFRAME preferences.
-		FRAME.setPreferredSize(new Dimension(GUIWIDTH, GUIHEIGHT));
+		FRAME.setPreferredSize(new Dimension(Config.get().getGuiWidth(), Config.get().getGuiHeight()));
 		FRAME.setResizable(false);
 		FRAME.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 		FRAME.setVisible(true);
@@ -477,6 +556,23 @@ public class LinkManager{
 		// Position the GUI in the middle of the screen when started.
 		FRAME.pack();
 		FRAME.setLocationRelativeTo(null); 
+		
+		// Save changes every few seconds, if enabled, following the INI file as it is edited.
+		tabbedList.setAutosave(FILE, Config.get().getAutosaveSeconds());
+		Config.addListener(new Config.Listener() {
+			public void configChanged(final Config config) {
+				SwingUtilities.invokeLater(new Runnable() {
+					public void run() {
+						tabbedList.setAutosave(FILE, config.getAutosaveSeconds());
+					}
+				});
+			}
+		});
+		
+		Startup.phase("window shown");
+		if(session == null) {
+			Startup.finished();
+		}
 	}
 
 	/**
@@ -578,13 +674,74 @@ public class LinkManager{
 	public static JFrame getFrame() {
 		return LinkManager.FRAME;
 	}
+	
+	/**
+	 * @return - the tabs of the GUI, or null if they have not been created yet.
+	 */
+	public static CustomTabList getTabbedList() {
+		return LinkManager.tabbedList;
+	}
 
 	/**
 	 * Defines the main entry point for the program.
 	 * 
-	 * @param args - unused.
+	 * @param args - "--training-run" to start the program, show the session, and exit, so the classes it
+	 *               loads can be saved to a class data sharing archive. Otherwise, "--tab name", "--run name",
+	 *               and "--import path", which are handed to the copy of the program already running, if any.
 	 */
 	public static void main(String[] args){
+		if(Arrays.asList(args).contains("--training-run")) {
+			Startup.exitWhenFinished();
+		}
+		else if(Config.get().isSingleInstance() && SingleInstance.handOff(args)) {
+			// The window already open in this folder carries out the arguments instead.
+			return;
+		}
+		else {
+			SingleInstance.queue(args);
+		}
+		
+		// Load Swing on the GUI thread while the rest of the program starts.
+		Startup.loadLookAndFeel();
+		
+		// Time every event from the start, if enabled.
+		if(Config.get().isWatchdogEnabled()) {
+			EventWatchdog.install(Config.get().getWatchdogStallMillis());
+		}
+		
+		// Read the session while the window is built.
+		if(FILE.exists()) {
+			session = Startup.readSession(FILE);
+		}
+		
+		// Without a screen, a training run builds the session's tabs without a window.
+		if(GraphicsEnvironment.isHeadless() && Startup.isTrainingRun()) {
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run() {
+					tabbedList = new CustomTabList();
+					if(session != null) {
+						tabbedList.loadDocument(FILE, session);
+					}
+					else {
+						Startup.finished();
+					}
+				}
+			});
+			return;
+		}
 		new LinkManager();
+		
+		// Apply changes to the INI file while the program runs.
+		Config.watch();
+		
+		// Serve the metrics to this computer only, if enabled.
+		if(Config.get().isMetricsEnabled()) {
+			Metrics.serve(Config.get().getMetricsPort());
+		}
+		
+		// Let scripts on this computer list and run links, if enabled.
+		if(Config.get().isApiEnabled()) {
+			ControlApi.serve(Config.get().getApiPort());
+		}
 	}
 }
@@ -1,7 +1,7 @@
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * Full credit for this code goes to Stefan Cordes and stackoverflow.com
@@ -12,6 +12,9 @@ import java.io.IOException;
  */
 public class LinkParser {
 
+	// The largest file that will be treated as a shortcut.
+	private static final int MAX_LINK_SIZE = 1024 * 1024;
+
 	public LinkParser(File f) throws IOException {
 		parse(f);
 	}
@@ -30,21 +33,34 @@ public class LinkParser {
 	}
 
 	private void parse(File f) throws IOException {
-		// read the entire file into a byte buffer
-		FileInputStream fin = new FileInputStream(f);
-		ByteArrayOutputStream bout = new ByteArrayOutputStream();
-		byte[] buff = new byte[256];
-		while (true) {
-			int n = fin.read(buff);
-			if (n == -1) {
-				break;
-			}
-			bout.write(buff, 0, n);
+		FlightEvents.Span span = FlightEvents.begin(FlightEvents.PARSE);
+
+		// shortcuts are small, so anything larger is not worth reading
+		long size = f.length();
+		if (size > MAX_LINK_SIZE) {
+			throw new IOException("The file \"" + f.getName() + "\" is too large to be a shortcut.");
 		}
-		fin.close();
-		byte[] link = bout.toByteArray();
 
-		parseLink(link);
+		// read the entire file into a pooled buffer
+		byte[] link = BufferPool.acquire((int) size);
+		try (FileInputStream fin = new FileInputStream(f)) {
+			int len = 0;
+			while (len < link.length) {
+				int n = fin.read(link, len, link.length - len);
+				if (n == -1) {
+					break;
+				}
+				len += n;
+			}
+			// clear anything left behind by the previous user of the buffer
+			Arrays.fill(link, len, link.length, (byte)0);
+
+			parseLink(link);
+		}
+		finally {
+			BufferPool.release(link);
+		}
+		span.commit(f.getName(), 1, size);
 	}
 
 	private void parseLink(byte[] link) {
@@ -0,0 +1,71 @@
+import java.util.BitSet;
+
+/**
+ * This interface defines how the links of a link list are stored. The LinkListModel presents
+ * a store as a list, and notifies listeners of its changes; a store only holds the links.
+ *
+ * Stores are free to keep links in any form, and so may return a new, equal link each time
+ * a position is read. Links should be compared with equals, rather than by identity.
+ *
+ * @author Ian Gardea
+ *
+ */
+interface LinkStore {
+
+	/**
+	 * @return - the number of links.
+	 */
+	int size();
+
+	/**
+	 * @return - the link at the provided position.
+	 * @param index - the integer position of the link.
+	 */
+	CustomLink get(int index);
+
+	/**
+	 * @return - the position of the first link equal to the provided link, or -1 if it is not present.
+	 * @param link - the link to search for.
+	 */
+	int indexOf(CustomLink link);
+
+	/**
+	 * Adds a link to the end of the store.
+	 *
+	 * @param link - the link to add.
+	 */
+	void add(CustomLink link);
+
+	/**
+	 * Replaces the link at the provided position.
+	 *
+	 * @return - the link that was replaced.
+	 * @param index - the integer position of the link.
+	 * @param link - the link to place at the position.
+	 */
+	CustomLink set(int index, CustomLink link);
+
+	/**
+	 * Removes the link at the provided position.
+	 *
+	 * @return - the link that was removed.
+	 * @param index - the integer position of the link.
+	 */
+	CustomLink remove(int index);
+
+	/**
+	 * Removes every link whose position is set, compacting the remaining links in a single pass.
+	 *
+	 * @return - the number of links removed.
+	 * @param indices - the positions of the links to remove.
+	 */
+	int removeAll(BitSet indices);
+
+	/**
+	 * Swaps the positions of two links.
+	 *
+	 * @param first - the position of the first link.
+	 * @param second - the position of the second link.
+	 */
+	void swap(int first, int second);
+}
@@ -0,0 +1,217 @@
+import java.util.BitSet;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * This class presents a CustomLinkList as the rows of a JTable, with a check box column
+ * for selecting links and a column for their names.
+ *
+ * The model listens to the link list, and forwards each change to the table as an insert,
+ * delete, or update of only the affected rows, so the table never needs to be rebuilt.
+ * Row values are read from the link list only when the table paints them, and the check
+ * box states are kept in a bit set, so the model stays small however many links there are.
+ *
+ * @author Ian Gardea
+ *
+ */
+class LinkTableModel extends AbstractTableModel implements ListDataListener {
+
+	private static final long serialVersionUID = 1L;
+
+	// The columns of the table.
+	public static final int CHECK_BOX_COLUMN = 0;
+	public static final int NAME_COLUMN      = 1;
+
+	private final CustomLinkList linkList;
+
+	// The rows whose check box is checked.
+	private final BitSet selection = new BitSet();
+
+	/**
+	 * @param linkList - the link list to present.
+	 */
+	public LinkTableModel(CustomLinkList linkList) {
+		this.linkList = linkList;
+		linkList.getModel().addListDataListener(this);
+	}
+
+	/**
+	 * @return - the number of links.
+	 */
+	@Override
+	public int getRowCount() {
+		return linkList.getListSize();
+	}
+
+	/**
+	 * @return - the number of columns: the check box, and the adjacent link.
+	 */
+	@Override
+	public int getColumnCount() {
+		return 2;
+	}
+
+	/**
+	 * @return - the class of the values in the column. JTables render Boolean values as check boxes,
+	 * and links are rendered by the LinkCellRenderer.
+	 * @param column - the column position.
+	 */
+	@Override
+	public Class<?> getColumnClass(int column) {
+		return column == CHECK_BOX_COLUMN ? Boolean.class : CustomLink.class;
+	}
+
+	/**
+	 * Only the check boxes may be edited.
+	 *
+	 * @param row - the row position.
+	 * @param column - the column position.
+	 */
+	@Override
+	public boolean isCellEditable(int row, int column) {
+		return column == CHECK_BOX_COLUMN;
+	}
+
+	/**
+	 * @return - the check box state or the link at the row.
+	 * @param row - the row position.
+	 * @param column - the column position.
+	 */
+	@Override
+	public Object getValueAt(int row, int column) {
+		if (column == CHECK_BOX_COLUMN) {
+			return selection.get(row) ? Boolean.TRUE : Boolean.FALSE;
+		}
+		return linkList.getLinkAt(row);
+	}
+
+	/**
+	 * Updates the check box state of a row.
+	 *
+	 * @param value - the new check box state.
+	 * @param row - the row position.
+	 * @param column - the column position.
+	 */
+	@Override
+	public void setValueAt(Object value, int row, int column) {
+		if (column == CHECK_BOX_COLUMN) {
+			selection.set(row, Boolean.TRUE.equals(value));
+			fireTableCellUpdated(row, column);
+		}
+	}
+
+	/**
+	 * @return - true if the row's check box is checked.
+	 * @param row - the row position.
+	 */
+	public boolean isSelected(int row) {
+		return selection.get(row);
+	}
+
+	/**
+	 * @return - true if any row's check box is checked.
+	 */
+	public boolean hasSelection() {
+		return !selection.isEmpty();
+	}
+
+	/**
+	 * @return - the positions of every row whose check box is checked.
+	 */
+	public BitSet getSelectedRows() {
+		return (BitSet) selection.clone();
+	}
+
+	/**
+	 * Checks or un-checks every row's check box.
+	 *
+	 * @param selected - the new check box state.
+	 */
+	public void setAllSelected(boolean selected) {
+		int rows = getRowCount();
+		if (selected) {
+			selection.set(0, rows);
+		}
+		else {
+			selection.clear();
+		}
+		if (rows > 0) {
+			fireTableRowsUpdated(0, rows - 1);
+		}
+	}
+
+	/**
+	 * Moves a link, and its check box state, to a new row.
+	 *
+	 * @param start - the current row of the link.
+	 * @param target - the new row of the link.
+	 */
+	public void swapRows(int start, int target) {
+		int rows = getRowCount();
+		if (start >= 0 && start < rows && target >= 0 && target < rows) {
+			boolean temp = selection.get(start);
+			selection.set(start, selection.get(target));
+			selection.set(target, temp);
+			linkList.swapElements(start, target);
+		}
+	}
+
+	/**
+	 * Adds an un-checked row for every link added to the link list.
+	 *
+	 * @param e - the list event.
+	 */
+	@Override
+	public void intervalAdded(ListDataEvent e) {
+		shift(e.getIndex0(), e.getIndex1() - e.getIndex0() + 1);
+		fireTableRowsInserted(e.getIndex0(), e.getIndex1());
+	}
+
+	/**
+	 * Removes the rows of the links removed from the link list.
+	 *
+	 * @param e - the list event.
+	 */
+	@Override
+	public void intervalRemoved(ListDataEvent e) {
+		selection.clear(e.getIndex0(), e.getIndex1() + 1);
+		shift(e.getIndex1() + 1, e.getIndex0() - e.getIndex1() - 1);
+		fireTableRowsDeleted(e.getIndex0(), e.getIndex1());
+	}
+
+	/**
+	 * Redraws the rows of the links changed in the link list.
+	 *
+	 * @param e - the list event.
+	 */
+	@Override
+	public void contentsChanged(ListDataEvent e) {
+		if (e.getIndex0() < 0) {
+			fireTableDataChanged();
+		}
+		else {
+			fireTableRowsUpdated(e.getIndex0(), e.getIndex1());
+		}
+	}
+
+	/**
+	 * Moves the check box states of every row from the provided row onward, following the
+	 * rows inserted or removed before them. Only the checked rows are visited.
+	 *
+	 * @param from - the first row to move.
+	 * @param distance - the number of rows to move by, negative to move them up.
+	 */
+	private void shift(int from, int distance) {
+		if (distance == 0 || selection.nextSetBit(from) < 0) {
+			return;
+		}
+
+		BitSet moved = selection.get(from, Math.max(from, selection.length()));
+		selection.clear(from, selection.length());
+		for (int i = moved.nextSetBit(0); i >= 0; i = moved.nextSetBit(i + 1)) {
+			selection.set(from + distance + i);
+		}
+	}
+}
@@ -0,0 +1,302 @@
+import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+
+/**
+ * This class represents a link target containing variables, which are replaced with their
+ * values each time the link is run.
+ *
+ * Variables are written as ${name}, and are defined in the [variables] section of the INI
+ * file or set from the File menu. Environment variables are written as ${env:NAME}. For older
+ * sessions, CUSTOM_VAR (all caps) is still replaced with the value of the CUSTOM_VAR variable.
+ * A variable without a value is left in the target as written.
+ *
+ * Each target is parsed once into literal text and variables. The variables refer to shared
+ * holders, so changing a variable's value never requires a target to be parsed again, and
+ * expanding a target only builds the output. Parsed targets are kept in a small cache, as
+ * links may be rebuilt each time they are read.
+ *
+ * @author Ian Gardea
+ *
+ */
+class LinkTemplate {
+
+	// The legacy variable, replaced wherever it appears.
+	public static final String CUSTOM_VAR = "CUSTOM_VAR";
+
+	// The number of parsed targets to keep.
+	private static final int CACHE_SIZE = 1024;
+
+	private static final Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9_.-]+");
+
+	// Every variable, by name.
+	private static final ConcurrentHashMap<String, Variable> VARIABLES = new ConcurrentHashMap<String, Variable>();
+
+	// The most recently used parsed targets.
+	private static final LinkedHashMap<String, LinkTemplate> CACHE = new LinkedHashMap<String, LinkTemplate>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, LinkTemplate> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * This class holds the value of a variable, shared by every target using it.
+	 */
+	private static class Variable {
+		private final String    token;
+		private volatile String value;
+
+		/**
+		 * @param token - the text the variable is written as, kept when it has no value.
+		 */
+		private Variable(String token) {
+			this.token = token;
+		}
+	}
+
+	private final String[]   literals;
+	private final Variable[] variables;
+	private final int        literalLength;
+
+	/**
+	 * @param literals - the text before each variable, followed by the text after the last.
+	 * @param variables - the variables, in order.
+	 */
+	private LinkTemplate(String[] literals, Variable[] variables) {
+		this.literals = literals;
+		this.variables = variables;
+
+		int length = 0;
+		for (String literal : literals) {
+			length += literal.length();
+		}
+		this.literalLength = length;
+	}
+
+	/**
+	 * @return - the parsed template of a target, parsing it only if it is not cached.
+	 * @param target - the target of a link.
+	 */
+	public static LinkTemplate forTarget(String target) {
+		synchronized (CACHE) {
+			LinkTemplate template = CACHE.get(target);
+			if (template == null) {
+				template = parse(target);
+				CACHE.put(target, template);
+			}
+			return template;
+		}
+	}
+
+	/**
+	 * @return - the target with every variable replaced by its current value.
+	 */
+	public String expand() {
+		// Without variables, the target is a single literal.
+		if (variables.length == 0) {
+			return literals[0];
+		}
+
+		// Size the output once, from the current values.
+		String[] values = new String[variables.length];
+		int length = literalLength;
+		for (int i=0; i<variables.length; i++) {
+			String value = variables[i].value;
+			values[i] = value == null ? variables[i].token : value;
+			length += values[i].length();
+		}
+
+		StringBuilder sb = new StringBuilder(length);
+		for (int i=0; i<variables.length; i++) {
+			sb.append(literals[i]).append(values[i]);
+		}
+		return sb.append(literals[variables.length]).toString();
+	}
+
+	/**
+	 * Sets the value of a variable. Every target using it will use the new value when it is next run.
+	 *
+	 * @param name - the name of the variable.
+	 * @param value - the value of the variable, or null to leave it unset.
+	 */
+	public static void setVariable(String name, String value) {
+		variable(name).value = value;
+	}
+
+	/**
+	 * @return - the value of a variable, or null if it has none.
+	 * @param name - the name of the variable.
+	 */
+	public static String getVariable(String name) {
+		Variable variable = VARIABLES.get(name);
+		return variable == null ? null : variable.value;
+	}
+
+	/**
+	 * @return - the names of every variable that has a value, in alphabetical order.
+	 */
+	public static TreeSet<String> getVariableNames() {
+		TreeSet<String> names = new TreeSet<String>();
+		for (Map.Entry<String, Variable> e : VARIABLES.entrySet()) {
+			if (e.getValue().value != null) {
+				names.add(e.getKey());
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * Defines the variables found in the INI file.
+	 *
+	 * @param customVar - the value of the legacy CUSTOM_VAR variable.
+	 * @param variables - the [variables] section of the INI file.
+	 */
+	public static void load(String customVar, Map<String, String> variables) {
+		setVariable(CUSTOM_VAR, customVar);
+		for (Map.Entry<String, String> e : variables.entrySet()) {
+			if (VALID_NAME.matcher(e.getKey()).matches()) {
+				setVariable(e.getKey(), e.getValue());
+			}
+		}
+	}
+
+	/**
+	 * This function will prompt the user to choose a variable, and assign it a new value.
+	 *
+	 */
+	public static void promptSetVariable() {
+		final JComboBox<String> nField = new JComboBox<String>(getVariableNames().toArray(new String[0]));
+		nField.setEditable(true);
+		nField.setSelectedItem(CUSTOM_VAR);
+
+		final JTextField vField = new JTextField(getVariable(CUSTOM_VAR), 20);
+
+		// Show the current value of the chosen variable.
+		nField.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent event) {
+				Object name = nField.getSelectedItem();
+				vField.setText(name == null ? "" : getVariable(name.toString().trim()));
+			}
+		});
+
+		JPanel myPanel = new JPanel();
+		myPanel.setLayout(new GridLayout(0,1));
+		myPanel.add(new JLabel("Variable name (used in targets as ${name}):"));
+		myPanel.add(nField);
+		myPanel.add(new JLabel("Value:"));
+		myPanel.add(vField);
+
+		while (true) {
+			int result = JOptionPane.showConfirmDialog(LinkManager.getFrame(), myPanel,
+					"Set Variable", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+
+			// If the user hits Cancel
+			if (result != JOptionPane.OK_OPTION) {
+				return;
+			}
+
+			Object name = nField.getSelectedItem();
+			if (name == null || !VALID_NAME.matcher(name.toString().trim()).matches()) {
+				JOptionPane.showMessageDialog(LinkManager.getFrame(), "Variable names may only contain letters, digits, '_', '.', and '-'.",
+						"Invalid Variable", JOptionPane.ERROR_MESSAGE);
+			}
+			else if (vField.getText().equals("")) {
+				JOptionPane.showMessageDialog(LinkManager.getFrame(), "Please enter a value for the variable.",
+						"Invalid Variable", JOptionPane.ERROR_MESSAGE);
+			}
+			else {
+				setVariable(name.toString().trim(), vField.getText());
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @return - the holder of a variable, creating it if it does not exist yet.
+	 * @param name - the name of the variable.
+	 */
+	private static Variable variable(String name) {
+		Variable variable = VARIABLES.get(name);
+		if (variable == null) {
+			Variable created = new Variable(CUSTOM_VAR.equals(name) ? CUSTOM_VAR : "${" + name + "}");
+			variable = VARIABLES.putIfAbsent(name, created);
+			if (variable == null) {
+				variable = created;
+			}
+		}
+		return variable;
+	}
+
+	/**
+	 * This function will split a target into literal text and variables.
+	 * Environment variables are looked up once here, as they cannot change while running.
+	 *
+	 * @return - the parsed template.
+	 * @param target - the target of a link.
+	 */
+	static LinkTemplate parse(String target) {
+		ArrayList<String> literals = new ArrayList<String>();
+		ArrayList<Variable> variables = new ArrayList<Variable>();
+		StringBuilder literal = new StringBuilder();
+
+		int i = 0;
+		while (i < target.length()) {
+			int open = target.indexOf("${", i);
+			int legacy = target.indexOf(CUSTOM_VAR, i);
+
+			// The legacy variable comes first.
+			if (legacy >= 0 && (open < 0 || legacy < open)) {
+				literal.append(target, i, legacy);
+				literals.add(literal.toString());
+				literal.setLength(0);
+				variables.add(variable(CUSTOM_VAR));
+				i = legacy + CUSTOM_VAR.length();
+				continue;
+			}
+
+			int close = open < 0 ? -1 : target.indexOf('}', open + 2);
+			if (close < 0) {
+				literal.append(target, i, target.length());
+				break;
+			}
+
+			literal.append(target, i, open);
+			String name = target.substring(open + 2, close);
+
+			if (name.startsWith("env:")) {
+				String value = System.getenv(name.substring(4));
+				literal.append(value == null ? target.substring(open, close + 1) : value);
+			}
+			else if (VALID_NAME.matcher(name).matches()) {
+				literals.add(literal.toString());
+				literal.setLength(0);
+				variables.add(variable(name));
+			}
+			else {
+				// Not a variable, so keep the text as written.
+				literal.append(target, open, close + 1);
+			}
+			i = close + 1;
+		}
+		// Keep the target itself when nothing in the last literal was replaced.
+		literals.add(variables.isEmpty() && target.contentEquals(literal) ? target : literal.toString());
+
+		return new LinkTemplate(literals.toArray(new String[literals.size()]),
+				variables.toArray(new Variable[variables.size()]));
+	}
+}
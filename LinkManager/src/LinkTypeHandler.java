@@ -0,0 +1,72 @@
+import java.util.List;
+
+/**
+ * This class defines a type of link: how targets of that type are recognized, and how they
+ * are run.
+ *
+ * The built-in types (web URLs, files, remote paths, DOS commands, and separators) are always
+ * present. Further types are found with a ServiceLoader, by listing their classes in the file
+ * META-INF/services/LinkTypeHandler on the class path. Each handler must be a public class with
+ * a public constructor that takes no arguments.
+ *
+ * Handlers are asked about their prefixes and extensions once, when the program starts, so
+ * recognizing a target never compares it against every type.
+ *
+ * @author Ian Gardea
+ *
+ */
+public abstract class LinkTypeHandler {
+
+	private static final String[] NONE = new String[0];
+
+	/**
+	 * @return - the name of the type, as saved in the session file. Names are not case sensitive.
+	 */
+	public abstract String getName();
+
+	/**
+	 * @return - the starts of the targets of this type, such as "http:". Prefixes are not case sensitive,
+	 *           and the longest matching prefix of any type wins.
+	 */
+	public String[] getPrefixes() {
+		return NONE;
+	}
+
+	/**
+	 * @return - the file extensions of the targets of this type, without the dot, such as "url".
+	 *           Extensions are not case sensitive, and are only checked when no prefix matches.
+	 */
+	public String[] getExtensions() {
+		return NONE;
+	}
+
+	/**
+	 * This function will open/run a target of this type.
+	 *
+	 * @return - the success/failure of the operation.
+	 * @param target - the target, with its variables already replaced.
+	 */
+	public abstract boolean launch(String target) throws Exception;
+
+	/**
+	 * @return - true if several targets of this type are cheaper to run together, through launchAll, than one at a time.
+	 */
+	public boolean isBatched() {
+		return false;
+	}
+
+	/**
+	 * This function will open/run several targets of this type, in order.
+	 * By default, each target is run in turn.
+	 *
+	 * @return - the success/failure of the operation.
+	 * @param targets - the targets, with their variables already replaced.
+	 */
+	public boolean launchAll(List<String> targets) throws Exception {
+		boolean success = true;
+		for (String target : targets) {
+			success &= launch(target);
+		}
+		return success;
+	}
+}
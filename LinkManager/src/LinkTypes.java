@@ -0,0 +1,366 @@
+import java.awt.Desktop;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * This class holds every type of link, numbered in the order they were registered. The
+ * built-in types keep the numbers of the CustomLink constants, and types found with the
+ * ServiceLoader are numbered after them, in order of their names.
+ *
+ * The tables used to recognize targets are built once, when the class is loaded: the prefixes
+ * of every type are grouped by their first character, longest first, and the extensions are
+ * kept in a map. Recognizing a target then only checks the prefixes that can apply to its first
+ * character, and looks its extension up once.
+ *
+ * @author Ian Gardea
+ *
+ */
+class LinkTypes {
+
+	// Link types are stored in a byte.
+	private static final int MAX_TYPES = Byte.MAX_VALUE + 1;
+
+	private static final LinkTypeHandler[]        HANDLERS;
+	private static final HashMap<String, Integer> NAMES      = new HashMap<String, Integer>();
+	private static final HashMap<String, Integer> EXTENSIONS = new HashMap<String, Integer>();
+
+	// The prefixes starting with each lower-case ASCII character, and those starting with anything else.
+	private static final Prefix[][] PREFIXES = new Prefix[128][];
+	private static final Prefix[]   OTHER_PREFIXES;
+	private static final int        MAX_EXTENSION;
+
+	/**
+	 * This class pairs a prefix with the number of the type it belongs to.
+	 */
+	private static class Prefix {
+		private final String prefix;
+		private final int    type;
+
+		private Prefix(String prefix, int type) {
+			this.prefix = prefix;
+			this.type = type;
+		}
+	}
+
+	static {
+		ArrayList<LinkTypeHandler> handlers = new ArrayList<LinkTypeHandler>(Arrays.asList(
+				new HttpHandler(), new FileHandler(), new FtpHandler(), new CommandHandler(), new SeparatorHandler()));
+		handlers.addAll(discover());
+
+		ArrayList<LinkTypeHandler> registered = new ArrayList<LinkTypeHandler>();
+		for (LinkTypeHandler handler : handlers) {
+			String name = handler.getName().toLowerCase(Locale.ROOT);
+			if (NAMES.containsKey(name) || registered.size() == MAX_TYPES) {
+				System.out.println("Link type \"" + name + "\" was ignored, as it is a duplicate or there are too many types.");
+				continue;
+			}
+			NAMES.put(name, registered.size());
+			registered.add(handler);
+		}
+		HANDLERS = registered.toArray(new LinkTypeHandler[registered.size()]);
+
+		// Group the prefixes by their first character.
+		ArrayList<ArrayList<Prefix>> byChar = new ArrayList<ArrayList<Prefix>>();
+		for (int i=0; i<=PREFIXES.length; i++) {
+			byChar.add(new ArrayList<Prefix>());
+		}
+		int maxExtension = 0;
+		for (int type=0; type<HANDLERS.length; type++) {
+			for (String prefix : HANDLERS[type].getPrefixes()) {
+				if (!prefix.isEmpty()) {
+					byChar.get(slot(prefix.charAt(0))).add(new Prefix(prefix, type));
+				}
+			}
+			for (String extension : HANDLERS[type].getExtensions()) {
+				String key = extension.toLowerCase(Locale.ROOT);
+				if (!key.isEmpty() && !EXTENSIONS.containsKey(key)) {
+					EXTENSIONS.put(key, type);
+					maxExtension = Math.max(maxExtension, key.length());
+				}
+			}
+		}
+		MAX_EXTENSION = maxExtension;
+
+		Comparator<Prefix> longestFirst = new Comparator<Prefix>() {
+			public int compare(Prefix a, Prefix b) {
+				return b.prefix.length() - a.prefix.length();
+			}
+		};
+		for (int i=0; i<PREFIXES.length; i++) {
+			PREFIXES[i] = sorted(byChar.get(i), longestFirst);
+		}
+		OTHER_PREFIXES = sorted(byChar.get(PREFIXES.length), longestFirst);
+	}
+
+	private LinkTypes() {
+	}
+
+	/**
+	 * @return - the handler of a type, or the FILE handler if the number is not a type.
+	 * @param type - the integer type.
+	 */
+	public static LinkTypeHandler get(int type) {
+		return HANDLERS[isType(type) ? type : CustomLink.FILE];
+	}
+
+	/**
+	 * @return - true if the number is a registered type.
+	 * @param type - the integer type.
+	 */
+	public static boolean isType(int type) {
+		return type >= 0 && type < HANDLERS.length;
+	}
+
+	/**
+	 * @return - the name of a type, or "file" if the number is not a type.
+	 * @param type - the integer type.
+	 */
+	public static String getName(int type) {
+		return get(type).getName();
+	}
+
+	/**
+	 * @return - the number of the type with the name, or -1 if there is none. Names are not case sensitive.
+	 * @param name - the name of the type.
+	 */
+	public static int find(String name) {
+		Integer type = NAMES.get(name);
+		if (type == null) {
+			type = NAMES.get(name.toLowerCase(Locale.ROOT));
+		}
+		return type == null ? -1 : type;
+	}
+
+	/**
+	 * This function will determine the type of a target from its prefix, then from its extension.
+	 * If neither is recognized, then the target is assumed to be a file.
+	 *
+	 * @return - the integer type of the target.
+	 * @param target - the String target of the link.
+	 */
+	public static int classify(String target) {
+		if (target.isEmpty()) {
+			return CustomLink.FILE;
+		}
+
+		for (Prefix p : prefixes(target.charAt(0))) {
+			if (target.regionMatches(true, 0, p.prefix, 0, p.prefix.length())) {
+				return p.type;
+			}
+		}
+
+		int extIndex = target.lastIndexOf('.');
+		int extLength = target.length() - extIndex - 1;
+		if (extIndex >= 0 && extLength > 0 && extLength <= MAX_EXTENSION) {
+			Integer type = EXTENSIONS.get(target.substring(extIndex + 1).toLowerCase(Locale.ROOT));
+			if (type != null) {
+				return type;
+			}
+		}
+		return CustomLink.FILE;
+	}
+
+	/**
+	 * @return - the prefixes that can match a target starting with the character.
+	 * @param c - the first character of the target.
+	 */
+	private static Prefix[] prefixes(char c) {
+		if (c < 128) {
+			return PREFIXES[Character.toLowerCase(c)];
+		}
+		return OTHER_PREFIXES;
+	}
+
+	/**
+	 * @return - the slot of the prefixes starting with the character.
+	 * @param c - the first character of a prefix.
+	 */
+	private static int slot(char c) {
+		return c < 128 ? Character.toLowerCase(c) : PREFIXES.length;
+	}
+
+	/**
+	 * @return - the prefixes as a sorted array.
+	 * @param prefixes - the prefixes.
+	 * @param order - the order to sort them in.
+	 */
+	private static Prefix[] sorted(ArrayList<Prefix> prefixes, Comparator<Prefix> order) {
+		Prefix[] array = prefixes.toArray(new Prefix[prefixes.size()]);
+		Arrays.sort(array, order);
+		return array;
+	}
+
+	/**
+	 * @return - the types found with the ServiceLoader, in order of their names.
+	 */
+	private static ArrayList<LinkTypeHandler> discover() {
+		ArrayList<LinkTypeHandler> found = new ArrayList<LinkTypeHandler>();
+		Iterator<LinkTypeHandler> it = ServiceLoader.load(LinkTypeHandler.class).iterator();
+		while (true) {
+			try {
+				if (!it.hasNext()) {
+					break;
+				}
+				found.add(it.next());
+			}
+			catch (ServiceConfigurationError e) {
+				// Skip a type that cannot be loaded, rather than every type.
+				System.out.println("A link type could not be loaded: " + e.getLocalizedMessage());
+			}
+		}
+
+		LinkTypeHandler[] sorted = found.toArray(new LinkTypeHandler[found.size()]);
+		Arrays.sort(sorted, new Comparator<LinkTypeHandler>() {
+			public int compare(LinkTypeHandler a, LinkTypeHandler b) {
+				return a.getName().compareToIgnoreCase(b.getName());
+			}
+		});
+		return new ArrayList<LinkTypeHandler>(Arrays.asList(sorted));
+	}
+
+	/**
+	 * This class opens web URLs with the default browser.
+	 */
+	private static class HttpHandler extends LinkTypeHandler {
+		@Override
+		public String getName() {
+			return "http";
+		}
+
+		@Override
+		public String[] getPrefixes() {
+			return new String[] {"http:", "https:", "www."};
+		}
+
+		@Override
+		public String[] getExtensions() {
+			return new String[] {"url"};
+		}
+
+		@Override
+		public boolean launch(String target) throws Exception {
+			// Convert the URL to a URI, then use the desktop framework to browse, if supported.
+			if(Desktop.isDesktopSupported()) {
+				URL url = new URL(target);
+				Desktop.getDesktop().browse(url.toURI());
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * This class opens files with the program assigned to them.
+	 */
+	private static class FileHandler extends LinkTypeHandler {
+		@Override
+		public String getName() {
+			return "file";
+		}
+
+		@Override
+		public boolean launch(String target) throws Exception {
+			// Use the desktop framework to browse, if supported.
+			if(Desktop.isDesktopSupported()) {
+				URI uri = Paths.get(target).toUri();
+				uri.normalize();
+				Desktop.getDesktop().browse(uri);
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * This class opens remote paths in Windows explorer.
+	 */
+	private static class FtpHandler extends BatchLinkHandler {
+		@Override
+		public String getName() {
+			return "ftp";
+		}
+
+		@Override
+		public String[] getPrefixes() {
+			return new String[] {"\\\\", "%windir%"};
+		}
+
+		@Override
+		protected boolean writeCommand(PrintWriter writer, String target) {
+			// If this is a remote path, then surround the provided target with quotes, and run it in Windows explorer.
+			if(target.startsWith("\\\\")) {
+				writer.println("%SystemRoot%\\explorer.exe \"" + target + "\"");
+				return true;
+			}
+			else if(target.toUpperCase().startsWith("%WINDIR%")) {
+				writer.println("start " + target);
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * This class runs DOS commands, written after "command: ".
+	 */
+	private static class CommandHandler extends BatchLinkHandler {
+		@Override
+		public String getName() {
+			return "cmd";
+		}
+
+		@Override
+		public String[] getPrefixes() {
+			return new String[] {"command: "};
+		}
+
+		@Override
+		protected boolean writeCommand(PrintWriter writer, String target) throws IOException {
+			target = URLDecoder.decode(target, "UTF-8"); // Decode the URL for compatibility.
+			target = target.substring(9);                // Truncate the "COMMAND: " in the beginning of the String.
+
+			// Keep the command prompt on screen after processing PING, IPCONFIG, or NSLOOKUP command.
+			if(target.toUpperCase().contains("PING")
+					|| target.toUpperCase().contains("NSLOOKUP")
+					|| target.toUpperCase().contains("IPCONFIG")) {
+				writer.println("start call " + target);
+			}
+			else {
+				writer.println("start " + target);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * This class represents separators, which take no action when run.
+	 */
+	private static class SeparatorHandler extends LinkTypeHandler {
+		@Override
+		public String getName() {
+			return "sep";
+		}
+
+		@Override
+		public String[] getPrefixes() {
+			return new String[] {"separator"};
+		}
+
+		@Override
+		public boolean launch(String target) {
+			return false;
+		}
+	}
+}
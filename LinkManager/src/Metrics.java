@@ -0,0 +1,494 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.swing.JOptionPane;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * This class counts what the program does, so several copies of it can be watched from one
+ * dashboard: the links launched (by type and outcome) and how long they took, how long the
+ * session took to save and load and how large it is, the files imported and how often the
+ * import cache saved parsing them, and how often the window stalled.
+ *
+ * Counters and histograms are updated without locks, so they can be used on busy threads such
+ * as the GUI thread. Histograms keep two buckets for every power of two, so any value is
+ * counted in a bucket at most 50% wider than itself, whatever its size.
+ *
+ * If enabled in the INI file, the metrics are served in the Prometheus text format at
+ * http://127.0.0.1:port/metrics. The server only listens on this computer.
+ *
+ * @author Ian Gardea
+ *
+ */
+class Metrics {
+
+	private static final List<Metric> REGISTRY = Collections.synchronizedList(new ArrayList<Metric>());
+
+	// Durations are recorded in nanoseconds, and served in seconds (10^9 nanoseconds).
+	private static final int SECONDS = 9;
+
+	public static final Counter   LAUNCHES        = new Counter("linkmanager_launches_total",
+			"Links launched, by link type and outcome.", "type", "outcome");
+	public static final Histogram LAUNCH_SECONDS  = new Histogram("linkmanager_launch_duration_seconds",
+			"Time taken to launch a link, or links of one type launched together.", SECONDS, 16, 36, "type");
+	public static final Histogram SAVE_SECONDS    = new Histogram("linkmanager_session_save_duration_seconds",
+			"Time taken to save the session file.", SECONDS, 16, 36);
+	public static final Histogram LOAD_SECONDS    = new Histogram("linkmanager_session_load_duration_seconds",
+			"Time taken to load the session file.", SECONDS, 16, 36);
+	public static final Gauge     SESSION_LINKS   = new Gauge("linkmanager_session_links",
+			"Links in the session when it was last saved or loaded.");
+	public static final Gauge     SESSION_BYTES   = new Gauge("linkmanager_session_bytes",
+			"Size of the session file when it was last saved or loaded.");
+	public static final Counter   IMPORTED_FILES  = new Counter("linkmanager_import_files_total",
+			"Files imported into a tab, by drag and drop.");
+	public static final Counter   IMPORT_FAILURES = new Counter("linkmanager_import_failures_total",
+			"Files that could not be imported.");
+	public static final Histogram IMPORT_SECONDS  = new Histogram("linkmanager_import_duration_seconds",
+			"Time taken to import a dropped file or folder.", SECONDS, 16, 36);
+	public static final Counter   IMPORT_CACHE    = new Counter("linkmanager_import_cache_lookups_total",
+			"Imported or watched files looked up in the import cache, by result (hit or miss).", "result");
+	public static final Gauge     IMPORT_CACHED   = new Gauge("linkmanager_import_cache_entries",
+			"Files in the import cache after the last drop.");
+	public static final Histogram EVENT_SECONDS   = new Histogram("linkmanager_edt_event_duration_seconds",
+			"Time taken by each event handled by the GUI thread, while the watchdog is enabled.", SECONDS, 16, 36);
+	public static final Counter   STALLS          = new Counter("linkmanager_edt_stalls_total",
+			"Events that took longer than the watchdog's stall limit.");
+
+	private static HttpServer server;
+
+	private Metrics() {
+	}
+
+	/**
+	 * This class is a named metric, holding a value for each combination of its labels.
+	 */
+	private abstract static class Metric {
+		private final String   name;
+		private final String   help;
+		private final String   type;
+		private final String[] labels;
+
+		private Metric(String name, String help, String type, String... labels) {
+			this.name = name;
+			this.help = help;
+			this.type = type;
+			this.labels = labels;
+			REGISTRY.add(this);
+		}
+
+		/**
+		 * @return - true if the metric has labels.
+		 */
+		protected boolean hasLabels() {
+			return labels.length > 0;
+		}
+
+		/**
+		 * Checks that a value was given for every label.
+		 *
+		 * @return - the values, as a key.
+		 * @param values - the value of each label.
+		 */
+		protected List<String> key(String... values) {
+			if (values.length != labels.length) {
+				throw new IllegalArgumentException(name + " has " + labels.length + " label(s), but " + values.length + " were given.");
+			}
+			return Arrays.asList(values);
+		}
+
+		/**
+		 * @return - the labels, written as {name="value",...}, with another label added if given.
+		 * @param values - the value of each label.
+		 * @param extra - another label and its value, written as name="value", or null.
+		 */
+		protected String format(List<String> values, String extra) {
+			if (values.isEmpty() && extra == null) {
+				return "";
+			}
+
+			StringBuilder sb = new StringBuilder("{");
+			for (int i=0; i<labels.length; i++) {
+				if (i > 0) {
+					sb.append(',');
+				}
+				sb.append(labels[i]).append("=\"");
+				escape(sb, values.get(i));
+				sb.append('"');
+			}
+			if (extra != null) {
+				if (labels.length > 0) {
+					sb.append(',');
+				}
+				sb.append(extra);
+			}
+			return sb.append('}').toString();
+		}
+
+		/**
+		 * Writes the metric in the Prometheus text format.
+		 *
+		 * @param sb - the text being written.
+		 */
+		private void write(StringBuilder sb) {
+			sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+			sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+			writeValues(sb, name);
+		}
+
+		/**
+		 * Writes each value of the metric.
+		 *
+		 * @param sb - the text being written.
+		 * @param name - the name of the metric.
+		 */
+		protected abstract void writeValues(StringBuilder sb, String name);
+	}
+
+	/**
+	 * This class is a count that only goes up.
+	 */
+	static class Counter extends Metric {
+		private final ConcurrentHashMap<List<String>, LongAdder> values = new ConcurrentHashMap<List<String>, LongAdder>();
+
+		private Counter(String name, String help, String... labels) {
+			super(name, help, "counter", labels);
+		}
+
+		/**
+		 * Adds one to the count.
+		 *
+		 * @param labels - the value of each label.
+		 */
+		public void inc(String... labels) {
+			add(1, labels);
+		}
+
+		/**
+		 * Adds to the count.
+		 *
+		 * @param n - the amount to add.
+		 * @param labels - the value of each label.
+		 */
+		public void add(long n, String... labels) {
+			List<String> key = key(labels);
+			LongAdder value = values.get(key);
+			if (value == null) {
+				LongAdder created = new LongAdder();
+				value = values.putIfAbsent(key, created);
+				if (value == null) {
+					value = created;
+				}
+			}
+			value.add(n);
+		}
+
+		/**
+		 * @return - the count.
+		 * @param labels - the value of each label.
+		 */
+		public long get(String... labels) {
+			LongAdder value = values.get(key(labels));
+			return value == null ? 0 : value.sum();
+		}
+
+		@Override
+		protected void writeValues(StringBuilder sb, String name) {
+			if (values.isEmpty() && !hasLabels()) {
+				sb.append(name).append(" 0\n");
+			}
+			for (Map.Entry<List<String>, LongAdder> e : values.entrySet()) {
+				sb.append(name).append(format(e.getKey(), null)).append(' ').append(e.getValue().sum()).append('\n');
+			}
+		}
+	}
+
+	/**
+	 * This class is a value that can go up and down.
+	 */
+	static class Gauge extends Metric {
+		private final AtomicLong value = new AtomicLong();
+
+		private Gauge(String name, String help) {
+			super(name, help, "gauge");
+		}
+
+		/**
+		 * @param n - the new value.
+		 */
+		public void set(long n) {
+			value.set(n);
+		}
+
+		/**
+		 * @return - the value.
+		 */
+		public long get() {
+			return value.get();
+		}
+
+		@Override
+		protected void writeValues(StringBuilder sb, String name) {
+			sb.append(name).append(' ').append(value.get()).append('\n');
+		}
+	}
+
+	/**
+	 * This class counts values in buckets whose width grows with the values, like an HDR
+	 * histogram: each power of two is split into two buckets, so every bucket is at most half
+	 * as wide as the values in it. Recording a value only increments its bucket.
+	 */
+	static class Histogram extends Metric {
+		// Each power of two is split into 2^SUB_BITS buckets.
+		private static final int SUB_BITS = 1;
+		private static final int SUBS     = 1 << SUB_BITS;
+		private static final int BUCKETS  = index(Long.MAX_VALUE) + 1;
+
+		private final int      scale;
+		private final int      first;
+		private final String[] bounds;
+		private final ConcurrentHashMap<List<String>, Values> values = new ConcurrentHashMap<List<String>, Values>();
+
+		/**
+		 * This class holds the buckets, sum, and count for one combination of labels.
+		 */
+		private static class Values {
+			private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+			private final LongAdder       sum    = new LongAdder();
+		}
+
+		/**
+		 * @param name - the name of the histogram.
+		 * @param help - a description of the histogram.
+		 * @param scale - values are served divided by 10^scale.
+		 * @param lowest - the smallest bucket served is up to 2^lowest.
+		 * @param highest - the largest bucket served is up to 2^highest. Larger values are still counted.
+		 * @param labels - the names of the histogram's labels.
+		 */
+		private Histogram(String name, String help, int scale, int lowest, int highest, String... labels) {
+			super(name, help, "histogram", labels);
+			this.scale = scale;
+
+			// The buckets served, from the one ending at 2^lowest to the one ending at 2^highest.
+			first = index(1L << lowest) - 1;
+			bounds = new String[index(1L << highest) - first];
+			for (int i=0; i<bounds.length; i++) {
+				bounds[i] = "le=\"" + decimal(upperBound(first + i)) + "\"";
+			}
+		}
+
+		/**
+		 * Counts a value.
+		 *
+		 * @param value - the value, which is treated as 0 if it is negative.
+		 * @param labels - the value of each label.
+		 */
+		public void record(long value, String... labels) {
+			List<String> key = key(labels);
+			Values v = values.get(key);
+			if (v == null) {
+				Values created = new Values();
+				v = values.putIfAbsent(key, created);
+				if (v == null) {
+					v = created;
+				}
+			}
+
+			value = Math.max(0, value);
+			v.counts.incrementAndGet(index(value));
+			v.sum.add(value);
+		}
+
+		/**
+		 * @return - the bucket of a value. Values below 2^SUB_BITS have a bucket each.
+		 * @param value - a value, 0 or more.
+		 */
+		static int index(long value) {
+			if (value < SUBS) {
+				return (int) value;
+			}
+			int exp = 63 - Long.numberOfLeadingZeros(value);
+			int sub = (int) (value >>> (exp - SUB_BITS)) & (SUBS - 1);
+			return (exp - SUB_BITS + 1) * SUBS + sub;
+		}
+
+		/**
+		 * @return - the smallest value above the bucket, or Long.MAX_VALUE for the last one.
+		 * @param index - the bucket.
+		 */
+		static long upperBound(int index) {
+			if (index < SUBS) {
+				return index + 1;
+			}
+			int exp = index / SUBS + SUB_BITS - 1;
+			long bound = (long) (SUBS + index % SUBS + 1) << (exp - SUB_BITS);
+			return bound <= 0 ? Long.MAX_VALUE : bound;
+		}
+
+		/**
+		 * @return - the value in the unit it is served in, written exactly.
+		 * @param value - a value, in the unit it is recorded in.
+		 */
+		private String decimal(long value) {
+			return BigDecimal.valueOf(value, scale).stripTrailingZeros().toPlainString();
+		}
+
+		@Override
+		protected void writeValues(StringBuilder sb, String name) {
+			for (Map.Entry<List<String>, Values> e : values.entrySet()) {
+				Values v = e.getValue();
+
+				// Buckets are served cumulatively, so each one also counts every smaller value.
+				long cumulative = 0;
+				for (int i=0; i<BUCKETS; i++) {
+					cumulative += v.counts.get(i);
+					if (i >= first && i - first < bounds.length) {
+						sb.append(name).append("_bucket").append(format(e.getKey(), bounds[i - first]))
+							.append(' ').append(cumulative).append('\n');
+					}
+				}
+
+				sb.append(name).append("_bucket").append(format(e.getKey(), "le=\"+Inf\"")).append(' ').append(cumulative).append('\n');
+				sb.append(name).append("_sum").append(format(e.getKey(), null)).append(' ').append(decimal(v.sum.sum())).append('\n');
+				sb.append(name).append("_count").append(format(e.getKey(), null)).append(' ').append(cumulative).append('\n');
+			}
+		}
+	}
+
+	/**
+	 * This function will record a launch of one or more links of a type.
+	 *
+	 * @param type - the name of the links' type.
+	 * @param success - whether the launch succeeded.
+	 * @param links - the number of links launched.
+	 * @param nanos - the time taken.
+	 */
+	public static void recordLaunch(String type, boolean success, int links, long nanos) {
+		LAUNCHES.add(links, type, success ? "success" : "failure");
+		LAUNCH_SECONDS.record(nanos, type);
+	}
+
+	/**
+	 * @return - every metric, in the Prometheus text format.
+	 */
+	public static String scrape() {
+		StringBuilder sb = new StringBuilder(4096);
+		synchronized (REGISTRY) {
+			for (Metric metric : REGISTRY) {
+				metric.write(sb);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * This function will serve the metrics at http://127.0.0.1:port/metrics, if they are not already served.
+	 *
+	 * @param port - the port to listen on.
+	 */
+	public static synchronized void serve(int port) {
+		if (server != null) {
+			return;
+		}
+
+		// Send each answer at once, rather than wait for the client to acknowledge the headers (see ControlApi).
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+
+		final HttpServer server;
+		try {
+			server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		}
+		catch (IOException e) {
+			JOptionPane.showMessageDialog(LinkManager.getFrame(), "Metrics cannot be served on port " + port + ".\n" + e.getLocalizedMessage(),
+					"Metrics Error", JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+
+		server.createContext("/", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					if (!exchange.getRequestURI().getPath().equals("/metrics")) {
+						exchange.sendResponseHeaders(404, -1);
+						return;
+					}
+					if (!exchange.getRequestMethod().equals("GET") && !exchange.getRequestMethod().equals("HEAD")) {
+						exchange.sendResponseHeaders(405, -1);
+						return;
+					}
+
+					byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+					exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+					if (exchange.getRequestMethod().equals("HEAD")) {
+						exchange.sendResponseHeaders(200, -1);
+						return;
+					}
+					exchange.sendResponseHeaders(200, body.length);
+					OutputStream out = exchange.getResponseBody();
+					out.write(body);
+				}
+				finally {
+					exchange.close();
+				}
+			}
+		});
+
+		ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "Metrics Server");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		server.setExecutor(executor);
+
+		// Start the server from its own daemon thread, so the thread it starts is a daemon too,
+		// and the program still ends when its window is closed.
+		executor.execute(new Runnable() {
+			public void run() {
+				server.start();
+			}
+		});
+		Metrics.server = server;
+	}
+
+	/**
+	 * Writes a label value, escaping backslashes, quotes, and line breaks.
+	 *
+	 * @param sb - the text being written.
+	 * @param value - the label value.
+	 */
+	private static void escape(StringBuilder sb, String value) {
+		for (int i=0; i<value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\' || c == '"') {
+				sb.append('\\').append(c);
+			}
+			else if (c == '\n') {
+				sb.append("\\n");
+			}
+			else {
+				sb.append(c);
+			}
+		}
+	}
+}
@@ -0,0 +1,389 @@
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+
+import javax.swing.AbstractAction;
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.DefaultListModel;
+import javax.swing.JComponent;
+import javax.swing.JDialog;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.KeyStroke;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * This class represents a keyboard driven window for launching links from every tab by
+ * typing a few letters of their name.
+ *
+ * A link matches if the letters typed appear in its name (or target) in the same order,
+ * though not necessarily next to each other. Matches are scored higher when the letters are
+ * next to each other or start words, and are boosted by how often and how recently the link
+ * was launched, so the links used all day rise to the top.
+ *
+ * The links are gathered once when the window opens. Typing another letter only checks the
+ * links that matched before it, and deleting a letter restores the links that matched before
+ * that letter was typed, so no keystroke rescans every link.
+ *
+ * @author Ian Gardea
+ *
+ */
+class QuickLaunchPalette extends JDialog {
+
+	private static final long serialVersionUID = 1L;
+
+	// The maximum number of matches listed.
+	private static final int MAX_RESULTS = 50;
+
+	// The weight of launch history against how well the letters typed match.
+	private static final double HISTORY_WEIGHT = 6;
+
+	// The letters typed matched against names and targets are scored with these bonuses.
+	private static final int MATCH_BONUS      = 1;
+	private static final int ADJACENT_BONUS   = 5;
+	private static final int WORD_START_BONUS = 8;
+	private static final int FIRST_CHAR_BONUS = 4;
+
+	// Matches found only in the target count for less than matches in the name.
+	private static final double TARGET_FACTOR = 0.5;
+
+	// The links that can be launched, gathered when the window opens.
+	private final CustomLink[]     links;
+	private final CustomLinkList[] lists;
+	private final char[][]         names;
+	private final char[][]         targets;
+	private final double[]         boosts;
+
+	// The links matching each prefix of the query, from the empty query onward.
+	private final ArrayList<int[]> matched = new ArrayList<int[]>();
+
+	// The scores of the current matches, by link.
+	private final double[] scores;
+
+	private final JTextField                queryField  = new JTextField(30);
+	private final DefaultListModel<Integer> resultModel = new DefaultListModel<Integer>();
+	private final JList<Integer>            resultList  = new JList<Integer>(resultModel);
+
+	private String query = "";
+
+	/**
+	 * This function will show the quick launch window over every tab.
+	 *
+	 * @param tabList - the tabs whose links can be launched.
+	 */
+	public static void showPalette(CustomTabList tabList) {
+		new QuickLaunchPalette(tabList).setVisible(true);
+	}
+
+	/**
+	 * @param tabList - the tabs whose links can be launched.
+	 */
+	private QuickLaunchPalette(CustomTabList tabList) {
+		super(LinkManager.getFrame(), "Quick Launch", true);
+
+		// Gather every link that can be run.
+		ArrayList<CustomLink> allLinks = new ArrayList<CustomLink>();
+		ArrayList<CustomLinkList> allLists = new ArrayList<CustomLinkList>();
+		for(CustomLinkPane pane : tabList.getTabList()) {
+			CustomLinkList list = pane.getLinkList();
+			for(int i=0; i<list.getListSize(); i++) {
+				if(list.getLinkAt(i).getType() != CustomLink.SEP) {
+					allLinks.add(list.getLinkAt(i));
+					allLists.add(list);
+				}
+			}
+		}
+
+		int count = allLinks.size();
+		links = allLinks.toArray(new CustomLink[count]);
+		lists = allLists.toArray(new CustomLinkList[count]);
+		names = new char[count][];
+		targets = new char[count][];
+		boosts = new double[count];
+		scores = new double[count];
+
+		LaunchHistory history = LaunchHistory.getInstance();
+		int[] all = new int[count];
+		for(int i=0; i<count; i++) {
+			names[i] = lower(links[i].getName());
+			targets[i] = lower(links[i].getTarget());
+			boosts[i] = HISTORY_WEIGHT * Math.log1p(history.getScore(links[i]));
+			scores[i] = boosts[i];
+			all[i] = i;
+		}
+		matched.add(all);
+
+		build();
+		show(all);
+	}
+
+	/**
+	 * @return - the lower case characters of the text, or none if there is no text, as a link
+	 *           read from a .url file without a URL has no target.
+	 * @param text - the name or target of a link.
+	 */
+	private static char[] lower(String text) {
+		return text == null ? new char[0] : text.toLowerCase(Locale.ROOT).toCharArray();
+	}
+
+	/**
+	 * This function will create the components of the window.
+	 *
+	 */
+	private void build() {
+		resultList.setCellRenderer(new DefaultListCellRenderer() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+					boolean isSelected, boolean cellHasFocus) {
+				int link = (Integer) value;
+				super.getListCellRendererComponent(list,
+						links[link].getName() + "  [" + lists[link].getName() + "]", index, isSelected, cellHasFocus);
+				String target = links[link].getTarget();
+				setToolTipText(target == null || target.isEmpty() ? null : target);
+				return this;
+			}
+		});
+
+		queryField.getDocument().addDocumentListener(new DocumentListener() {
+			public void insertUpdate(DocumentEvent e) {
+				update();
+			}
+			public void removeUpdate(DocumentEvent e) {
+				update();
+			}
+			public void changedUpdate(DocumentEvent e) {
+				update();
+			}
+		});
+
+		// Enter launches the selected match, the best one unless the arrow keys were used.
+		queryField.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent event) {
+				launchSelected();
+			}
+		});
+		queryField.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0), "Next");
+		queryField.getActionMap().put("Next", new AbstractAction() {
+			private static final long serialVersionUID = 1L;
+			public void actionPerformed(ActionEvent event) {
+				moveSelection(1);
+			}
+		});
+		queryField.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_UP, 0), "Previous");
+		queryField.getActionMap().put("Previous", new AbstractAction() {
+			private static final long serialVersionUID = 1L;
+			public void actionPerformed(ActionEvent event) {
+				moveSelection(-1);
+			}
+		});
+
+		resultList.setFocusable(false);
+		resultList.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if(e.getClickCount() == 2) {
+					launchSelected();
+				}
+			}
+		});
+
+		// Escape, or leaving the window, closes it.
+		getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), "Close");
+		getRootPane().getActionMap().put("Close", new AbstractAction() {
+			private static final long serialVersionUID = 1L;
+			public void actionPerformed(ActionEvent event) {
+				dispose();
+			}
+		});
+		addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowDeactivated(WindowEvent e) {
+				dispose();
+			}
+		});
+
+		JScrollPane scrollPane = new JScrollPane(resultList);
+		scrollPane.setPreferredSize(new Dimension(420, 240));
+
+		JPanel content = new JPanel(new BorderLayout(0, 5));
+		content.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+		content.add(queryField, BorderLayout.NORTH);
+		content.add(scrollPane, BorderLayout.CENTER);
+		setContentPane(content);
+
+		pack();
+		setLocationRelativeTo(LinkManager.getFrame());
+	}
+
+	/**
+	 * Filters the matches to the current query. If the query only grew, only the previous
+	 * matches are checked; otherwise the matches of the longest unchanged prefix are reused.
+	 *
+	 */
+	private void update() {
+		String next = queryField.getText().toLowerCase(Locale.ROOT);
+
+		// Keep the matches of the part of the query that did not change.
+		int common = 0;
+		while(common < query.length() && common < next.length() && query.charAt(common) == next.charAt(common)) {
+			common++;
+		}
+		while(matched.size() > common + 1) {
+			matched.remove(matched.size() - 1);
+		}
+
+		// Narrow the matches one added character at a time.
+		for(int length = common + 1; length <= next.length(); length++) {
+			matched.add(filter(matched.get(length - 1), next.substring(0, length).toCharArray()));
+		}
+		query = next;
+
+		// Re-score the remaining matches against the whole query.
+		int[] current = matched.get(matched.size() - 1);
+		char[] q = query.toCharArray();
+		for(int link : current) {
+			scores[link] = score(link, q);
+		}
+		show(current);
+	}
+
+	/**
+	 * @return - the candidates that still match the query.
+	 * @param candidates - the links that matched the query without its last character.
+	 * @param q - the query.
+	 */
+	private int[] filter(int[] candidates, char[] q) {
+		int[] kept = new int[candidates.length];
+		int count = 0;
+		for(int link : candidates) {
+			if(fuzzy(names[link], q) >= 0 || fuzzy(targets[link], q) >= 0) {
+				kept[count++] = link;
+			}
+		}
+		return Arrays.copyOf(kept, count);
+	}
+
+	/**
+	 * @return - the score of a link against the query, including its launch history.
+	 * @param link - the link.
+	 * @param q - the query.
+	 */
+	private double score(int link, char[] q) {
+		int name = fuzzy(names[link], q);
+		if(name >= 0) {
+			return name + boosts[link];
+		}
+		return fuzzy(targets[link], q) * TARGET_FACTOR + boosts[link];
+	}
+
+	/**
+	 * This function will match the query's characters, in order, against the text.
+	 * Each character is matched to its earliest occurrence after the previous one.
+	 *
+	 * @return - the score of the match, higher being better, or -1 if the text does not contain
+	 * the query's characters in order.
+	 * @param text - the lowercase text.
+	 * @param q - the lowercase query.
+	 */
+	static int fuzzy(char[] text, char[] q) {
+		int score = 0;
+		int previous = -2;
+		int at = 0;
+
+		for(char c : q) {
+			while(at < text.length && text[at] != c) {
+				at++;
+			}
+			if(at == text.length) {
+				return -1;
+			}
+
+			score += MATCH_BONUS;
+			if(at == previous + 1) {
+				score += ADJACENT_BONUS;
+			}
+			if(at == 0 || !Character.isLetterOrDigit(text[at - 1])) {
+				score += WORD_START_BONUS;
+			}
+			if(at == 0) {
+				score += FIRST_CHAR_BONUS;
+			}
+			previous = at++;
+		}
+
+		// Prefer shorter texts, where the query covers more of the text.
+		return Math.max(0, score - (text.length - q.length) / 8);
+	}
+
+	/**
+	 * Lists the best scoring of the provided links, selecting the best one.
+	 *
+	 * @param candidates - the links that match the query.
+	 */
+	private void show(int[] candidates) {
+		// Keep the best matches in order, best first.
+		int[] best = new int[Math.min(MAX_RESULTS, candidates.length)];
+		int count = 0;
+		for(int link : candidates) {
+			if(count == best.length && scores[link] <= scores[best[count - 1]]) {
+				continue;
+			}
+
+			int i = count < best.length ? count++ : count - 1;
+			while(i > 0 && scores[best[i - 1]] < scores[link]) {
+				best[i] = best[i - 1];
+				i--;
+			}
+			best[i] = link;
+		}
+
+		resultModel.clear();
+		for(int i=0; i<count; i++) {
+			resultModel.addElement(best[i]);
+		}
+		if(count > 0) {
+			resultList.setSelectedIndex(0);
+		}
+	}
+
+	/**
+	 * Moves the selected match up or down.
+	 *
+	 * @param step - the number of matches to move by.
+	 */
+	private void moveSelection(int step) {
+		int index = resultList.getSelectedIndex() + step;
+		if(index >= 0 && index < resultModel.getSize()) {
+			resultList.setSelectedIndex(index);
+			resultList.ensureIndexIsVisible(index);
+		}
+	}
+
+	/**
+	 * Launches the selected match, and closes the window.
+	 *
+	 */
+	private void launchSelected() {
+		Integer link = resultList.getSelectedValue();
+		if(link != null) {
+			dispose();
+			LinkLauncher.getInstance().launch(links[link]);
+		}
+	}
+}
@@ -0,0 +1,51 @@
+import java.io.PrintWriter;
+
+/**
+ * This class opens Remote Desktop connections, for targets such as "rdp://host:3389" or a
+ * saved connection file ending in ".rdp".
+ *
+ * Connections are opened with the Remote Desktop client included with Windows. It is registered
+ * through META-INF/services/LinkTypeHandler, as an example of a type added outside of the
+ * built-in ones.
+ *
+ * @author Ian Gardea
+ *
+ */
+public class RdpLinkHandler extends BatchLinkHandler {
+
+	private static final String PREFIX = "rdp://";
+
+	@Override
+	public String getName() {
+		return "rdp";
+	}
+
+	@Override
+	public String[] getPrefixes() {
+		return new String[] {PREFIX};
+	}
+
+	@Override
+	public String[] getExtensions() {
+		return new String[] {"rdp"};
+	}
+
+	@Override
+	protected boolean writeCommand(PrintWriter writer, String target) {
+		if (target.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) {
+			String host = target.substring(PREFIX.length());
+			if (host.endsWith("/")) {
+				host = host.substring(0, host.length() - 1);
+			}
+			if (host.isEmpty() || host.contains("\"")) {
+				return false;
+			}
+			writer.println("start mstsc /v:\"" + host + "\"");
+		}
+		else {
+			// A saved connection file.
+			writer.println("start mstsc \"" + target + "\"");
+		}
+		return true;
+	}
+}
@@ -0,0 +1,169 @@
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListModel;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTable;
+import javax.swing.JTextArea;
+import javax.swing.ListSelectionModel;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * This class represents a window showing how quickly the program has responded recently: a
+ * histogram of the time taken by each event, and the stalls reported by the EventWatchdog,
+ * with the stack sampled during each one.
+ *
+ * @author Ian Gardea
+ *
+ */
+class ResponsivenessDialog extends JDialog {
+
+	private static final long serialVersionUID = 1L;
+
+	private static ResponsivenessDialog dialog;
+
+	private final EventWatchdog watchdog;
+
+	private final DefaultTableModel                histogramModel = new DefaultTableModel(new Object[] {"Time taken", "Events", "Share"}, 0) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean isCellEditable(int row, int column) {
+			return false;
+		}
+	};
+	private final DefaultListModel<EventWatchdog.Stall> stallModel   = new DefaultListModel<EventWatchdog.Stall>();
+	private final JList<EventWatchdog.Stall>            stallList    = new JList<EventWatchdog.Stall>(stallModel);
+	private final JTextArea                             detailsArea  = new JTextArea(8, 60);
+	private final JLabel                                summaryLabel = new JLabel(" ");
+
+	/**
+	 * This function will show the window, or explain how to turn the watchdog on if it is off.
+	 *
+	 */
+	public static void showDialog() {
+		EventWatchdog watchdog = EventWatchdog.getInstance();
+		if(watchdog == null) {
+			JOptionPane.showMessageDialog(LinkManager.getFrame(), "Responsiveness is not being measured.\n"
+					+ "To measure it, set enabled = true in the [watchdog] section of config.ini, and restart the program.",
+					"Notification", JOptionPane.INFORMATION_MESSAGE);
+			return;
+		}
+
+		if(dialog == null) {
+			dialog = new ResponsivenessDialog(watchdog);
+		}
+		dialog.update();
+		dialog.setVisible(true);
+	}
+
+	/**
+	 * @param watchdog - the watchdog whose measurements are shown.
+	 */
+	private ResponsivenessDialog(EventWatchdog watchdog) {
+		super(LinkManager.getFrame(), "Responsiveness", false);
+		this.watchdog = watchdog;
+
+		JTable histogramTable = new JTable(histogramModel);
+		histogramTable.setRowSelectionAllowed(false);
+		histogramTable.getTableHeader().setReorderingAllowed(false);
+		histogramTable.setPreferredScrollableViewportSize(new Dimension(360, histogramTable.getRowHeight() * (EventWatchdog.BUCKETS.length + 1)));
+
+		stallList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		stallList.addListSelectionListener(new ListSelectionListener() {
+			public void valueChanged(ListSelectionEvent e) {
+				EventWatchdog.Stall stall = stallList.getSelectedValue();
+				detailsArea.setText(stall == null ? "" : stall.getDetails());
+				detailsArea.setCaretPosition(0);
+			}
+		});
+
+		detailsArea.setEditable(false);
+		detailsArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+
+		JButton refreshButton = new JButton("Refresh");
+		JButton closeButton = new JButton("Close");
+		refreshButton.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent event) {
+				update();
+			}
+		});
+		closeButton.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent event) {
+				setVisible(false);
+			}
+		});
+
+		JPanel stallPanel = new JPanel(new GridLayout(1, 1));
+		stallPanel.setBorder(BorderFactory.createTitledBorder("Stalls (newest first; select one to see what was running)"));
+		stallPanel.add(new JScrollPane(stallList));
+
+		JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, stallPanel, new JScrollPane(detailsArea));
+		split.setResizeWeight(0.4);
+
+		JPanel histogramPanel = new JPanel(new BorderLayout());
+		histogramPanel.setBorder(BorderFactory.createTitledBorder("Time taken by each event, over the last 10 minutes"));
+		histogramPanel.add(new JScrollPane(histogramTable), BorderLayout.CENTER);
+		histogramPanel.add(summaryLabel, BorderLayout.SOUTH);
+
+		JPanel buttonPanel = new JPanel();
+		buttonPanel.add(refreshButton);
+		buttonPanel.add(closeButton);
+
+		JPanel content = new JPanel(new BorderLayout(5, 5));
+		content.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+		content.add(histogramPanel, BorderLayout.NORTH);
+		content.add(split, BorderLayout.CENTER);
+		content.add(buttonPanel, BorderLayout.SOUTH);
+
+		setContentPane(content);
+		setSize(640, 640);
+		setLocationRelativeTo(LinkManager.getFrame());
+	}
+
+	/**
+	 * Shows the watchdog's latest measurements.
+	 *
+	 */
+	private void update() {
+		long[] histogram = watchdog.getHistogram();
+		long total = 0;
+		for (long count : histogram) {
+			total += count;
+		}
+
+		histogramModel.setRowCount(0);
+		for (int b=0; b<histogram.length; b++) {
+			String range = b == 0 ? "under 1 ms"
+					: b < EventWatchdog.BUCKETS.length ? EventWatchdog.BUCKETS[b - 1] + " to " + EventWatchdog.BUCKETS[b] + " ms"
+					: EventWatchdog.BUCKETS[b - 1] + " ms or more";
+			String share = total == 0 ? "-" : String.format("%.1f%%", 100.0 * histogram[b] / total);
+			histogramModel.addRow(new Object[] {range, histogram[b], share});
+		}
+
+		List<EventWatchdog.Stall> stalls = watchdog.getStalls();
+		stallModel.clear();
+		for (EventWatchdog.Stall stall : stalls) {
+			stallModel.addElement(stall);
+		}
+		detailsArea.setText("");
+
+		summaryLabel.setText(total + " events; stalls are events over " + watchdog.getStallMillis()
+				+ " ms, and are also written to " + EventWatchdog.getLog().getName() + ".");
+	}
+}
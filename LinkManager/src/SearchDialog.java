@@ -0,0 +1,240 @@
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+
+import javax.swing.AbstractAction;
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.DefaultListModel;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.KeyStroke;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * This class represents a window for finding links on every tab. Matches are listed as the
+ * query is typed, and can be run directly or shown on their tab.
+ *
+ * @author Ian Gardea
+ *
+ */
+class SearchDialog extends JDialog {
+
+	private static final long serialVersionUID = 1L;
+
+	// The maximum number of matches listed.
+	private static final int MAX_RESULTS = 200;
+
+	private static SearchDialog dialog;
+
+	private final CustomTabList tabList;
+
+	private final JTextField                          queryField  = new JTextField(30);
+	private final DefaultListModel<SearchIndex.Match> resultModel = new DefaultListModel<SearchIndex.Match>();
+	private final JList<SearchIndex.Match>            resultList  = new JList<SearchIndex.Match>(resultModel);
+	private final JLabel                              statusLabel = new JLabel(" ");
+
+	/**
+	 * This function will show the search window, creating it the first time it is needed.
+	 *
+	 * @param tabList - the tabs to search.
+	 */
+	public static void showDialog(CustomTabList tabList) {
+		if(dialog == null || dialog.tabList != tabList) {
+			dialog = new SearchDialog(tabList);
+		}
+		dialog.queryField.selectAll();
+		dialog.setVisible(true);
+		dialog.queryField.requestFocusInWindow();
+	}
+
+	/**
+	 * @param tabList - the tabs to search.
+	 */
+	private SearchDialog(CustomTabList tabList) {
+		super(LinkManager.getFrame(), "Search Links", false);
+		this.tabList = tabList;
+
+		resultList.setCellRenderer(new DefaultListCellRenderer() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+					boolean isSelected, boolean cellHasFocus) {
+				super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+
+				// Show where the link points when hovered.
+				setToolTipText(((SearchIndex.Match) value).getLink().getTarget());
+				return this;
+			}
+		});
+
+		JButton runButton = new JButton("Run");
+		JButton showButton = new JButton("Show");
+		JButton closeButton = new JButton("Close");
+
+		// Update the matches as the query is typed.
+		queryField.getDocument().addDocumentListener(new DocumentListener() {
+			public void insertUpdate(DocumentEvent e) {
+				update();
+			}
+			public void removeUpdate(DocumentEvent e) {
+				update();
+			}
+			public void changedUpdate(DocumentEvent e) {
+				update();
+			}
+		});
+
+		// Enter runs the selected matches, and the arrow keys move through them without leaving the query.
+		queryField.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent event) {
+				runSelected();
+			}
+		});
+		queryField.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0), "Next");
+		queryField.getActionMap().put("Next", new AbstractAction() {
+			private static final long serialVersionUID = 1L;
+			public void actionPerformed(ActionEvent event) {
+				moveSelection(1);
+			}
+		});
+		queryField.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_UP, 0), "Previous");
+		queryField.getActionMap().put("Previous", new AbstractAction() {
+			private static final long serialVersionUID = 1L;
+			public void actionPerformed(ActionEvent event) {
+				moveSelection(-1);
+			}
+		});
+
+		// Double-clicking a match runs it.
+		resultList.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if(e.getClickCount() == 2) {
+					runSelected();
+				}
+			}
+		});
+
+		runButton.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent event) {
+				runSelected();
+			}
+		});
+		showButton.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent event) {
+				showSelected();
+			}
+		});
+		closeButton.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent event) {
+				setVisible(false);
+			}
+		});
+
+		// Escape closes the window.
+		getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), "Close");
+		getRootPane().getActionMap().put("Close", new AbstractAction() {
+			private static final long serialVersionUID = 1L;
+			public void actionPerformed(ActionEvent event) {
+				setVisible(false);
+			}
+		});
+
+		JPanel queryPanel = new JPanel(new BorderLayout());
+		queryPanel.add(queryField, BorderLayout.CENTER);
+		queryPanel.add(statusLabel, BorderLayout.SOUTH);
+
+		JPanel buttonPanel = new JPanel();
+		buttonPanel.add(runButton);
+		buttonPanel.add(showButton);
+		buttonPanel.add(closeButton);
+
+		JScrollPane scrollPane = new JScrollPane(resultList);
+		scrollPane.setPreferredSize(new Dimension(420, 300));
+
+		JPanel content = new JPanel(new BorderLayout(0, 5));
+		content.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+		content.add(queryPanel, BorderLayout.NORTH);
+		content.add(scrollPane, BorderLayout.CENTER);
+		content.add(buttonPanel, BorderLayout.SOUTH);
+		setContentPane(content);
+
+		pack();
+		setLocationRelativeTo(LinkManager.getFrame());
+	}
+
+	/**
+	 * Lists the matches of the current query, selecting the best one.
+	 *
+	 */
+	private void update() {
+		List<SearchIndex.Match> matches = SearchIndex.getInstance().search(queryField.getText(), MAX_RESULTS);
+
+		resultModel.clear();
+		for(SearchIndex.Match match : matches) {
+			resultModel.addElement(match);
+		}
+		if(!matches.isEmpty()) {
+			resultList.setSelectedIndex(0);
+		}
+
+		if(queryField.getText().trim().isEmpty()) {
+			statusLabel.setText(" ");
+		}
+		else if(matches.size() >= MAX_RESULTS) {
+			statusLabel.setText("Showing the best " + MAX_RESULTS + " matches");
+		}
+		else {
+			statusLabel.setText(matches.size() + (matches.size() == 1 ? " match" : " matches"));
+		}
+	}
+
+	/**
+	 * Moves the selected match up or down.
+	 *
+	 * @param step - the number of matches to move by.
+	 */
+	private void moveSelection(int step) {
+		int index = resultList.getSelectedIndex() + step;
+		if(index >= 0 && index < resultModel.getSize()) {
+			resultList.setSelectedIndex(index);
+			resultList.ensureIndexIsVisible(index);
+		}
+	}
+
+	/**
+	 * Runs every selected match.
+	 *
+	 */
+	private void runSelected() {
+		for(SearchIndex.Match match : resultList.getSelectedValuesList()) {
+			LinkLauncher.getInstance().launch(match.getLink());
+		}
+	}
+
+	/**
+	 * Switches to the tab of the selected match, and scrolls to it.
+	 *
+	 */
+	private void showSelected() {
+		SearchIndex.Match match = resultList.getSelectedValue();
+		if(match != null) {
+			tabList.showLink(match.getList(), match.getLink());
+		}
+	}
+}
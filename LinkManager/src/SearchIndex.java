@@ -0,0 +1,574 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+/**
+ * This class indexes the name and target of every link on every tab, so links can be found
+ * without clicking through each tab.
+ *
+ * Each link is stored as a document, and every three character sequence (trigram) of its
+ * name and of its target points to the documents containing it. A search only checks the
+ * documents found under the rarest trigram of the query, and only looks at targets if too
+ * few names matched. Queries shorter than three characters match the start of a word in a
+ * name, using the first one and two characters of each word.
+ *
+ * The index listens to each link list, and updates only the documents of the links that were
+ * added, changed, or removed. Removed documents are marked as dead, and the index is rebuilt
+ * once more than half of its documents are dead. The index is only used on the event dispatch
+ * thread, as are the link lists.
+ *
+ * @author Ian Gardea
+ *
+ */
+class SearchIndex {
+
+	// The number of dead documents allowed before the index is rebuilt.
+	private static final int MIN_COMPACT = 1024;
+
+	// Ranks of a match, from best to worst.
+	private static final int NAME_EXACT    = 0;
+	private static final int NAME_PREFIX   = 1;
+	private static final int NAME_WORD     = 2;
+	private static final int NAME_CONTAINS = 3;
+	private static final int TARGET        = 4;
+
+	private static SearchIndex instance;
+
+	// Documents, by document id.
+	private CustomLink[]     docLinks   = new CustomLink[64];
+	private CustomLinkList[] docLists   = new CustomLinkList[64];
+	private String[]         docNames   = new String[64];
+	private String[]         docTargets = new String[64];
+	private int              docCount;
+
+	private final BitSet dead = new BitSet();
+	private int          deadCount;
+
+	// The documents containing each trigram in their name or target, and each word start in their name.
+	private final HashMap<Long, Postings> nameGrams   = new HashMap<Long, Postings>();
+	private final HashMap<Long, Postings> targetGrams = new HashMap<Long, Postings>();
+	private final HashMap<Long, Postings> wordStarts  = new HashMap<Long, Postings>();
+
+	// The document ids of each indexed link list, by position.
+	private final HashMap<CustomLinkList, Mirror> mirrors = new HashMap<CustomLinkList, Mirror>();
+
+	/**
+	 * @return - the index shared by every tab.
+	 */
+	public static synchronized SearchIndex getInstance() {
+		if (instance == null) {
+			instance = new SearchIndex();
+		}
+		return instance;
+	}
+
+	/**
+	 * Indexes the links of a link list, and keeps them indexed as the list changes.
+	 *
+	 * @param list - the link list to index.
+	 */
+	public void register(CustomLinkList list) {
+		if (mirrors.containsKey(list)) {
+			return;
+		}
+
+		Mirror mirror = new Mirror(list);
+		mirrors.put(list, mirror);
+		mirror.insert(0, list.getListSize());
+		list.getModel().addListDataListener(mirror);
+	}
+
+	/**
+	 * Removes the links of a link list from the index, such as when its tab is deleted.
+	 *
+	 * @param list - the link list to remove.
+	 */
+	public void unregister(CustomLinkList list) {
+		Mirror mirror = mirrors.remove(list);
+		if (mirror == null) {
+			return;
+		}
+
+		list.getModel().removeListDataListener(mirror);
+		mirror.delete(0, mirror.size);
+		compactIfNeeded();
+	}
+
+	/**
+	 * @return - the number of links currently indexed.
+	 */
+	public int size() {
+		return docCount - deadCount;
+	}
+
+	/**
+	 * This function will find the links whose name or target contains the query, ignoring case.
+	 *
+	 * Matches are ranked by where the query was found: a name equal to the query first, then
+	 * names starting with it, names with a word starting with it, names containing it, and
+	 * finally targets containing it. Shorter names rank higher within each group of names,
+	 * and targets are listed in the order their links were added.
+	 *
+	 * @return - the best matches, best first.
+	 * @param query - the text to search for.
+	 * @param limit - the maximum number of matches to return.
+	 */
+	public List<Match> search(String query, int limit) {
+		ArrayList<Match> matches = new ArrayList<Match>();
+		String q = query.trim().toLowerCase(Locale.ROOT);
+		if (q.isEmpty() || limit <= 0) {
+			return matches;
+		}
+
+		TopKeys top = new TopKeys(limit);
+		if (q.length() < 3) {
+			rankNames(wordStarts.get(wordStart(q, 0, q.length())), q, top);
+		}
+		else {
+			rankNames(rarest(nameGrams, q), q, top);
+			if (!top.isFull()) {
+				rankTargets(rarest(targetGrams, q), q, top);
+			}
+		}
+
+		long[] keys = top.sorted();
+		for (long key : keys) {
+			int id = (int) (key & 0xFFFFFFFFL);
+			matches.add(new Match(docLists[id], docLinks[id]));
+		}
+		return matches;
+	}
+
+	/**
+	 * @return - the postings of the query's trigram found in the fewest documents, or null
+	 * if any trigram of the query is not found at all.
+	 * @param grams - the trigram postings to look in.
+	 * @param q - the lowercase query, at least three characters long.
+	 */
+	private static Postings rarest(HashMap<Long, Postings> grams, String q) {
+		Postings rarest = null;
+		for (int i=0; i+3<=q.length(); i++) {
+			Postings postings = grams.get(trigram(q, i));
+			if (postings == null) {
+				return null;
+			}
+			if (rarest == null || postings.size < rarest.size) {
+				rarest = postings;
+			}
+		}
+		return rarest;
+	}
+
+	/**
+	 * Ranks the names of the candidate documents against the query, and offers those that
+	 * match to the best matches.
+	 *
+	 * @param candidates - the documents that may match, or null if none can.
+	 * @param q - the lowercase query.
+	 * @param top - the best matches so far.
+	 */
+	private void rankNames(Postings candidates, String q, TopKeys top) {
+		if (candidates == null) {
+			return;
+		}
+
+		for (int i=0; i<candidates.size; i++) {
+			int id = candidates.ids[i];
+			if (dead.get(id)) {
+				continue;
+			}
+
+			String name = docNames[id];
+			int at = name.indexOf(q);
+			int rank;
+
+			if (at < 0) {
+				continue;
+			}
+			else if (at == 0) {
+				rank = name.length() == q.length() ? NAME_EXACT : NAME_PREFIX;
+			}
+			else {
+				rank = NAME_CONTAINS;
+				for (; at > 0; at = name.indexOf(q, at + 1)) {
+					if (!Character.isLetterOrDigit(name.charAt(at - 1))) {
+						rank = NAME_WORD;
+						break;
+					}
+				}
+			}
+			top.offer(((long) rank << 52) | ((long) Math.min(name.length(), 0xFFFFF) << 32) | id);
+		}
+	}
+
+	/**
+	 * Offers the candidate documents whose target, but not name, contains the query to the
+	 * best matches. Target matches all rank the same, and the candidates are in the order
+	 * they were added, so this stops as soon as enough matches are found.
+	 *
+	 * @param candidates - the documents that may match, or null if none can.
+	 * @param q - the lowercase query.
+	 * @param top - the best matches so far.
+	 */
+	private void rankTargets(Postings candidates, String q, TopKeys top) {
+		if (candidates == null) {
+			return;
+		}
+
+		for (int i=0; i<candidates.size && !top.isFull(); i++) {
+			int id = candidates.ids[i];
+			if (!dead.get(id) && !docNames[id].contains(q) && docTargets[id].contains(q)) {
+				top.offer(((long) TARGET << 52) | id);
+			}
+		}
+	}
+
+	/**
+	 * Adds a document for a link.
+	 *
+	 * @return - the document id.
+	 * @param list - the link list containing the link.
+	 * @param link - the link to index.
+	 */
+	private int addDocument(CustomLinkList list, CustomLink link) {
+		if (docCount == docLinks.length) {
+			int capacity = docCount * 2;
+			docLinks = Arrays.copyOf(docLinks, capacity);
+			docLists = Arrays.copyOf(docLists, capacity);
+			docNames = Arrays.copyOf(docNames, capacity);
+			docTargets = Arrays.copyOf(docTargets, capacity);
+		}
+
+		int id = docCount++;
+		String name = link.getName() == null ? "" : link.getName().toLowerCase(Locale.ROOT);
+		String target = link.getType() == CustomLink.SEP || link.getTarget() == null
+				? "" : link.getTarget().toLowerCase(Locale.ROOT);
+
+		docLinks[id] = link;
+		docLists[id] = list;
+		docNames[id] = name;
+		docTargets[id] = target;
+
+		for (int i=0; i+3<=name.length(); i++) {
+			post(nameGrams, trigram(name, i), id);
+		}
+		for (int i=0; i+3<=target.length(); i++) {
+			post(targetGrams, trigram(target, i), id);
+		}
+		for (int i=0; i<name.length(); i++) {
+			if (Character.isLetterOrDigit(name.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1)))) {
+				post(wordStarts, wordStart(name, i, 1), id);
+				if (i + 1 < name.length()) {
+					post(wordStarts, wordStart(name, i, 2), id);
+				}
+			}
+		}
+		return id;
+	}
+
+	/**
+	 * Adds a document to the postings of a key.
+	 *
+	 * @param postings - the postings to add to.
+	 * @param key - the trigram or word start.
+	 * @param id - the document id.
+	 */
+	private static void post(HashMap<Long, Postings> postings, Long key, int id) {
+		Postings ids = postings.get(key);
+		if (ids == null) {
+			ids = new Postings();
+			postings.put(key, ids);
+		}
+		ids.add(id);
+	}
+
+	/**
+	 * Marks a document as dead. Its postings are left in place, and skipped by searches.
+	 *
+	 * @param id - the document id.
+	 */
+	private void removeDocument(int id) {
+		if (!dead.get(id)) {
+			dead.set(id);
+			deadCount++;
+			docLinks[id] = null;
+			docLists[id] = null;
+		}
+	}
+
+	/**
+	 * Rebuilds the index once most of its documents are dead, reclaiming their space.
+	 *
+	 */
+	private void compactIfNeeded() {
+		if (deadCount < MIN_COMPACT || deadCount * 2 < docCount) {
+			return;
+		}
+
+		// Keep the live links from their documents, as a list may be part way through a change
+		// that is still being reported, and cannot be read by position until it is done.
+		HashMap<Mirror, CustomLink[]> live = new HashMap<Mirror, CustomLink[]>();
+		for (Mirror mirror : mirrors.values()) {
+			CustomLink[] links = new CustomLink[mirror.size];
+			for (int i=0; i<mirror.size; i++) {
+				links[i] = docLinks[mirror.ids[i]];
+			}
+			live.put(mirror, links);
+		}
+
+		Arrays.fill(docLinks, 0, docCount, null);
+		Arrays.fill(docLists, 0, docCount, null);
+		Arrays.fill(docNames, 0, docCount, null);
+		Arrays.fill(docTargets, 0, docCount, null);
+		docCount = 0;
+		dead.clear();
+		deadCount = 0;
+		nameGrams.clear();
+		targetGrams.clear();
+		wordStarts.clear();
+
+		for (Mirror mirror : mirrors.values()) {
+			CustomLink[] links = live.get(mirror);
+			for (int i=0; i<mirror.size; i++) {
+				mirror.ids[i] = addDocument(mirror.list, links[i]);
+			}
+		}
+	}
+
+	/**
+	 * @return - the three characters at the position, packed into a single key.
+	 * @param text - the lowercase text.
+	 * @param i - the position of the first character.
+	 */
+	private static Long trigram(String text, int i) {
+		return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+	}
+
+	/**
+	 * @return - the one or two characters at the position, packed into a single key.
+	 * @param text - the lowercase text.
+	 * @param i - the position of the first character.
+	 * @param length - the number of characters, 1 or 2.
+	 */
+	private static Long wordStart(String text, int i, int length) {
+		return length == 1 ? (long) text.charAt(i) : ((long) text.charAt(i) << 16 | text.charAt(i + 1)) | (1L << 40);
+	}
+
+	/**
+	 * This class represents a link found by a search, and the link list containing it.
+	 *
+	 */
+	public static class Match {
+
+		private final CustomLinkList list;
+		private final CustomLink     link;
+
+		/**
+		 * @param list - the link list containing the link.
+		 * @param link - the link found.
+		 */
+		private Match(CustomLinkList list, CustomLink link) {
+			this.list = list;
+			this.link = link;
+		}
+
+		/**
+		 * @return - the link list containing the link.
+		 */
+		public CustomLinkList getList() {
+			return list;
+		}
+
+		/**
+		 * @return - the link found.
+		 */
+		public CustomLink getLink() {
+			return link;
+		}
+
+		/**
+		 * @return - the name of the link, and the tab it is on.
+		 */
+		@Override
+		public String toString() {
+			return link.getName() + "  [" + list.getName() + "]";
+		}
+	}
+
+	/**
+	 * This class holds the ids of the documents containing a trigram, in ascending order.
+	 *
+	 */
+	private static class Postings {
+
+		private int[] ids = new int[4];
+		private int   size;
+
+		/**
+		 * @param id - the document id to add. A document is only added once.
+		 */
+		private void add(int id) {
+			if (size > 0 && ids[size - 1] == id) {
+				return;
+			}
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			ids[size++] = id;
+		}
+	}
+
+	/**
+	 * This class keeps the smallest keys offered to it, in a bounded max-heap, so ranking many
+	 * matches does not require sorting all of them.
+	 *
+	 */
+	private static class TopKeys {
+
+		private final long[] heap;
+		private int          size;
+
+		/**
+		 * @param limit - the number of keys to keep.
+		 */
+		private TopKeys(int limit) {
+			heap = new long[limit];
+		}
+
+		/**
+		 * @param key - the key to keep, if it is among the smallest offered.
+		 */
+		private void offer(long key) {
+			if (size < heap.length) {
+				int i = size++;
+				heap[i] = key;
+				while (i > 0 && heap[(i - 1) / 2] < heap[i]) {
+					swap(i, (i - 1) / 2);
+					i = (i - 1) / 2;
+				}
+			}
+			else if (key < heap[0]) {
+				heap[0] = key;
+				int i = 0;
+				while (true) {
+					int largest = i;
+					int left = 2 * i + 1;
+					int right = left + 1;
+					if (left < size && heap[left] > heap[largest]) {
+						largest = left;
+					}
+					if (right < size && heap[right] > heap[largest]) {
+						largest = right;
+					}
+					if (largest == i) {
+						break;
+					}
+					swap(i, largest);
+					i = largest;
+				}
+			}
+		}
+
+		/**
+		 * @return - true if as many keys as are kept have been offered.
+		 */
+		private boolean isFull() {
+			return size == heap.length;
+		}
+
+		/**
+		 * @return - the kept keys, smallest first.
+		 */
+		private long[] sorted() {
+			long[] keys = Arrays.copyOf(heap, size);
+			Arrays.sort(keys);
+			return keys;
+		}
+
+		private void swap(int a, int b) {
+			long temp = heap[a];
+			heap[a] = heap[b];
+			heap[b] = temp;
+		}
+	}
+
+	/**
+	 * This class mirrors the positions of a link list, holding the document id of the link at
+	 * each position, and updates the index as the list changes.
+	 *
+	 */
+	private class Mirror implements ListDataListener {
+
+		private final CustomLinkList list;
+		private int[]                ids = new int[16];
+		private int                  size;
+
+		/**
+		 * @param list - the link list to mirror.
+		 */
+		private Mirror(CustomLinkList list) {
+			this.list = list;
+		}
+
+		/**
+		 * Indexes the links inserted at the positions.
+		 *
+		 * @param index - the position of the first link inserted.
+		 * @param count - the number of links inserted.
+		 */
+		private void insert(int index, int count) {
+			if (size + count > ids.length) {
+				ids = Arrays.copyOf(ids, Math.max(size + count, ids.length * 2));
+			}
+			System.arraycopy(ids, index, ids, index + count, size - index);
+			for (int i=0; i<count; i++) {
+				ids[index + i] = addDocument(list, list.getLinkAt(index + i));
+			}
+			size += count;
+		}
+
+		/**
+		 * Removes the documents of the links removed from the positions.
+		 *
+		 * @param index - the position of the first link removed.
+		 * @param count - the number of links removed.
+		 */
+		private void delete(int index, int count) {
+			for (int i=index; i<index + count; i++) {
+				removeDocument(ids[i]);
+			}
+			System.arraycopy(ids, index + count, ids, index, size - index - count);
+			size -= count;
+		}
+
+		@Override
+		public void intervalAdded(ListDataEvent e) {
+			insert(e.getIndex0(), e.getIndex1() - e.getIndex0() + 1);
+		}
+
+		@Override
+		public void intervalRemoved(ListDataEvent e) {
+			delete(e.getIndex0(), e.getIndex1() - e.getIndex0() + 1);
+			compactIfNeeded();
+		}
+
+		@Override
+		public void contentsChanged(ListDataEvent e) {
+			int first = e.getIndex0() < 0 ? 0 : e.getIndex0();
+			int last = e.getIndex0() < 0 ? size - 1 : e.getIndex1();
+
+			// A changed link may have been renamed, so its document is always replaced.
+			for (int i=first; i<=last && i<size; i++) {
+				removeDocument(ids[i]);
+				ids[i] = addDocument(list, list.getLinkAt(i));
+			}
+			compactIfNeeded();
+		}
+	}
+}
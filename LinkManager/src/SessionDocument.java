@@ -0,0 +1,213 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * This class reads and writes the XML session file, which holds every tab and its links.
+ *
+ * It works only with the tabs' names, folders, and links, and never with the window, so the
+ * session file can be read and written without a screen (for instance, to measure it).
+ *
+ * @author Ian Gardea
+ *
+ */
+class SessionDocument {
+
+	/**
+	 * This class holds the contents of one tab, as saved in the session file.
+	 */
+	static class Tab {
+		private final String           name;
+		private final File             folder;
+		private final List<CustomLink> links;
+
+		/**
+		 * @param name - the name of the tab.
+		 * @param folder - the folder the tab is bound to, or null if there is none.
+		 * @param links - the links of the tab, in order.
+		 */
+		Tab(String name, File folder, List<CustomLink> links) {
+			this.name = name;
+			this.folder = folder;
+			this.links = links;
+		}
+
+		/**
+		 * @return - the name of the tab.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return - the folder the tab is bound to, or null if there is none.
+		 */
+		public File getFolder() {
+			return folder;
+		}
+
+		/**
+		 * @return - the links of the tab, in order.
+		 */
+		public List<CustomLink> getLinks() {
+			return links;
+		}
+	}
+
+	private SessionDocument() {
+	}
+
+	/**
+	 * This function will create/update the XML file with the tabs provided.
+	 *
+	 * @param tabs - the tabs to save, in order.
+	 * @param f - the XML session file to be created/updated.
+	 */
+	public static void write(List<Tab> tabs, File f) throws IOException, ParserConfigurationException, TransformerException {
+		// Clear the old file before proceeding.
+		Files.deleteIfExists(Paths.get(f.getCanonicalPath()));
+
+		TransformerFactory transformerFactory = TransformerFactory.newInstance();
+		Transformer transformer = transformerFactory.newTransformer();
+
+		// Enable 'INDENT' and set the indent amount for the transformer.
+		transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+		transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
+
+		DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
+		DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
+
+		// Root element
+		Document doc = dBuilder.newDocument();
+		Element rootElement = doc.createElement("Session");
+		doc.appendChild(rootElement);
+
+		for(int i=0; i<tabs.size(); i++){
+			Tab tab = tabs.get(i);
+
+			// Tab elements
+			Element eTab = doc.createElement("Tab");
+
+			Attr tID = doc.createAttribute("ID");
+			tID.setValue("" + i); // Sneaky way to cast an int to a String
+			eTab.setAttributeNode(tID);
+
+			Attr tName = doc.createAttribute("Name");
+			tName.setValue(tab.getName());
+			eTab.setAttributeNode(tName);
+
+			// Only tabs that are bound to a folder have this attribute.
+			if(tab.getFolder() != null) {
+				Attr tFolder = doc.createAttribute("Folder");
+				tFolder.setValue(tab.getFolder().getPath());
+				eTab.setAttributeNode(tFolder);
+			}
+
+			rootElement.appendChild(eTab);
+
+			for(int j=0; j<tab.getLinks().size(); j++){
+				CustomLink link = tab.getLinks().get(j);
+
+				// Link elements
+				Element eLink = doc.createElement("Link");
+
+				// set attribute to links element
+				Attr lID = doc.createAttribute("ID");
+				lID.setValue("" + j); // Sneaky way to cast an int to a String
+				eLink.setAttributeNode(lID);
+
+				Attr aName = doc.createAttribute("Name");
+				aName.setValue(link.getName());
+				eLink.setAttributeNode(aName);
+
+				// The type was worked out when the link was created, so it is saved as is.
+				Attr aType = doc.createAttribute("Type");
+				aType.setValue(CustomLink.getTypeAsString(link.getType()));
+				eLink.setAttributeNode(aType);
+
+				Attr aTarget = doc.createAttribute("Target");
+				aTarget.setValue(link.getTarget());
+				eLink.setAttributeNode(aTarget);
+
+				eTab.appendChild(eLink);
+			}
+		}
+
+		DOMSource source = new DOMSource(doc);
+		StreamResult result = new StreamResult(f);
+		transformer.transform(source, result);
+	}
+
+	/**
+	 * This function will read every tab saved in the XML file.
+	 *
+	 * @return - the tabs, in order.
+	 * @param f - the source XML session file.
+	 */
+	public static List<Tab> read(File f) throws IOException, ParserConfigurationException, SAXException {
+		DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
+		DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
+		Document doc = dBuilder.parse(f);
+
+		// Optional, but recommended
+		doc.getDocumentElement().normalize();
+
+		// Cycle through all Tab tags
+		NodeList nListTab = doc.getElementsByTagName("Tab");
+		ArrayList<Tab> tabs = new ArrayList<Tab>(nListTab.getLength());
+
+		for (int i=0; i<nListTab.getLength(); i++) {
+			Node tNode = nListTab.item(i);
+
+			if (tNode.getNodeType() == Node.ELEMENT_NODE) {
+				Element tElement = (Element) tNode;
+
+				// Cycle through all link tags
+				NodeList nListLink = tElement.getElementsByTagName("Link");
+				ArrayList<CustomLink> links = new ArrayList<CustomLink>(nListLink.getLength());
+
+				for (int j=0; j<nListLink.getLength(); j++) {
+					Node lNode = nListLink.item(j);
+
+					if (lNode.getNodeType() == Node.ELEMENT_NODE) {
+						Element lElement = (Element) lNode;
+						String target = lElement.getAttribute("Target");
+
+						// Trust the saved type, only working it out again for older session files without one.
+						int type = CustomLink.parseType(lElement.getAttribute("Type"));
+						if(type < 0) {
+							type = CustomLink.determineType(target);
+						}
+
+						links.add(new CustomLink(lElement.getAttribute("Name"), target, type));
+					}
+				}
+
+				Node tFolder = tElement.getAttributes().getNamedItem("Folder");
+				tabs.add(new Tab(tElement.getAttributes().getNamedItem("Name").getNodeValue(),
+						tFolder == null ? null : new File(tFolder.getNodeValue()), links));
+			}
+		}
+		return tabs;
+	}
+}
@@ -0,0 +1,428 @@
+import java.awt.Frame;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+/**
+ * This class keeps a single copy of the program running in each folder, so two windows never
+ * load the same session file, and one never saves over the other's changes.
+ *
+ * The first launch locks instance.lock in the working folder, and listens on a port of this
+ * computer's loopback address, which it writes to the file with a random key. A later launch
+ * finds the file locked, sends its arguments to that port with the key, and exits, before any
+ * of Swing or the session is loaded. The running window is brought to the front, and carries
+ * out the arguments:
+ * --tab name     - shows the tab of that name, adding it if there is none.
+ * --run name     - runs the link of that name, from the current tab if it has one.
+ * --import path  - imports the file or folder to the current tab, as if it was dropped there.
+ *
+ * The arguments of the first launch are carried out the same way, once its session is shown.
+ * The lock is released by the operating system when the program exits, even if it crashes, so
+ * the file left behind never stops the program from starting.
+ *
+ * @author Ian Gardea
+ *
+ */
+class SingleInstance {
+
+	public static final String TAB    = "--tab";
+	public static final String RUN    = "--run";
+	public static final String IMPORT = "--import";
+
+	private static final File LOCK_FILE = new File("./instance.lock");
+
+	// Locked far beyond the file's contents, as Windows stops other programs reading locked bytes.
+	private static final long LOCK_POSITION = Long.MAX_VALUE - 1;
+
+	// How long a later launch waits for the running one, which may still be starting.
+	private static final int ATTEMPTS        = 20;
+	private static final int RETRY_MILLIS    = 100;
+	private static final int TIMEOUT_MILLIS  = 2000;
+	private static final int MAX_ARGUMENTS   = 256;
+
+	private static FileChannel  channel; // Kept open, as closing it would release the lock.
+	private static FileLock     lock;
+	private static String       key;
+	private static boolean      ready;
+	private static final List<List<String>> pending = new ArrayList<List<String>>();
+
+	private SingleInstance() {
+	}
+
+	/**
+	 * This function will hand the arguments over to the program already running in this folder.
+	 * If there is none, this launch becomes the running one, and listens for later launches.
+	 *
+	 * @return - true if the arguments were handed over, and this launch should exit.
+	 * @param args - the program's arguments.
+	 */
+	public static boolean handOff(String[] args) {
+		FileChannel file;
+		try {
+			file = FileChannel.open(LOCK_FILE.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			FileLock taken = file.tryLock(LOCK_POSITION, 1, false);
+			if (taken != null) {
+				channel = file;
+				lock = taken;
+				listen();
+				return false;
+			}
+			file.close();
+		}
+		catch (IOException e) {
+			// A folder that cannot be written to cannot be shared either, so the program simply starts.
+			System.err.println("Could not use " + LOCK_FILE + " to find a running copy of the program: " + e.getLocalizedMessage());
+			return false;
+		}
+
+		List<String> arguments = resolve(args);
+		IOException last = null;
+		for (int i=0; i<ATTEMPTS; i++) {
+			try {
+				if (send(arguments)) {
+					Startup.phase("handed over");
+					return true;
+				}
+			}
+			catch (IOException e) {
+				last = e;
+			}
+
+			// The running copy may not have written its port yet.
+			try {
+				Thread.sleep(RETRY_MILLIS);
+			}
+			catch (InterruptedException e) {
+				break;
+			}
+		}
+
+		// Starting anyway would load the session twice, which is what this class prevents.
+		JOptionPane.showMessageDialog(null, "Link Manager is already running in this folder, but did not respond."
+				+ (last == null ? "" : "\n" + last.getLocalizedMessage()),
+				"Link Manager Is Running", JOptionPane.ERROR_MESSAGE);
+		return true;
+	}
+
+	/**
+	 * This function will carry out the program's own arguments once its session is shown.
+	 *
+	 * @param args - the program's arguments.
+	 */
+	public static void queue(String[] args) {
+		if (args.length > 0) {
+			receive(resolve(args));
+		}
+	}
+
+	/**
+	 * Carries out the arguments received while the program was starting, and those received
+	 * from now on as they arrive. Called once the session is shown.
+	 *
+	 */
+	public static void ready() {
+		List<List<String>> received;
+		synchronized (pending) {
+			if (ready) {
+				return;
+			}
+			ready = true;
+			received = new ArrayList<List<String>>(pending);
+			pending.clear();
+		}
+		for (List<String> args : received) {
+			perform(args);
+		}
+	}
+
+	/**
+	 * @return - the arguments, with the paths to import made absolute, as the running copy
+	 *           may have been started from another folder.
+	 * @param args - the program's arguments.
+	 */
+	private static List<String> resolve(String[] args) {
+		List<String> resolved = new ArrayList<String>(Arrays.asList(args));
+		for (int i=0; i+1<resolved.size(); i++) {
+			if (resolved.get(i).equals(IMPORT)) {
+				resolved.set(i + 1, new File(resolved.get(i + 1)).getAbsolutePath());
+			}
+		}
+		return resolved;
+	}
+
+	/**
+	 * This function will start listening for later launches, and write where to find this one to
+	 * the lock file.
+	 *
+	 */
+	private static void listen() throws IOException {
+		final ServerSocket server = new ServerSocket();
+		server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+		key = KeyFile.write(LOCK_FILE.toPath(), channel, server.getLocalPort() + " ");
+
+		Thread listener = new Thread(new Runnable() {
+			public void run() {
+				while (true) {
+					try {
+						Socket socket = server.accept();
+						try {
+							serve(socket);
+						}
+						finally {
+							socket.close();
+						}
+					}
+					catch (IOException e) {
+						System.err.println("A later launch could not hand over its arguments: " + e.getLocalizedMessage());
+					}
+				}
+			}
+		}, "Instance Listener");
+		listener.setDaemon(true);
+		listener.start();
+	}
+
+	/**
+	 * This function will send the arguments to the running copy of the program.
+	 *
+	 * @return - false if the running copy has not written where to find it yet.
+	 * @param args - the arguments to send.
+	 */
+	private static boolean send(List<String> args) throws IOException {
+		List<String> lines = Files.readAllLines(LOCK_FILE.toPath(), StandardCharsets.UTF_8);
+		String[] found = lines.isEmpty() ? new String[0] : lines.get(0).trim().split(" ");
+		if (found.length != 2) {
+			return false;
+		}
+
+		Socket socket = new Socket();
+		try {
+			socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(found[0])), TIMEOUT_MILLIS);
+			socket.setSoTimeout(TIMEOUT_MILLIS);
+
+			Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+			out.write(found[1] + "\n" + args.size() + "\n");
+			for (String arg : args) {
+				// A line break would end the argument early, and cannot be in a name or path anyway.
+				out.write(arg.replace('\n', ' ').replace('\r', ' ') + "\n");
+			}
+			out.flush();
+
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			if (!"OK".equals(in.readLine())) {
+				throw new IOException("The running copy did not accept the arguments.");
+			}
+			return true;
+		}
+		catch (NumberFormatException e) {
+			return false;
+		}
+		finally {
+			socket.close();
+		}
+	}
+
+	/**
+	 * This function will read the arguments of a later launch, if it sent the right key.
+	 *
+	 * @param socket - the connection from the later launch.
+	 */
+	private static void serve(Socket socket) throws IOException {
+		socket.setSoTimeout(TIMEOUT_MILLIS);
+		BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+		String sent = in.readLine();
+		if (sent == null || !MessageDigest.isEqual(sent.getBytes(StandardCharsets.UTF_8), key.getBytes(StandardCharsets.UTF_8))) {
+			throw new IOException("The key did not match.");
+		}
+
+		int count;
+		try {
+			count = Integer.parseInt(in.readLine());
+		}
+		catch (NumberFormatException e) {
+			throw new IOException("The number of arguments was not sent.");
+		}
+		if (count < 0 || count > MAX_ARGUMENTS) {
+			throw new IOException("Too many arguments were sent: " + count);
+		}
+
+		List<String> args = new ArrayList<String>();
+		for (int i=0; i<count; i++) {
+			String arg = in.readLine();
+			if (arg == null) {
+				throw new IOException("Only " + i + " of " + count + " arguments were sent.");
+			}
+			args.add(arg);
+		}
+
+		Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+		out.write("OK\n");
+		out.flush();
+
+		receive(args);
+	}
+
+	/**
+	 * This function will carry out the arguments, or keep them until the session is shown.
+	 *
+	 * @param args - the arguments.
+	 */
+	private static void receive(final List<String> args) {
+		synchronized (pending) {
+			if (!ready) {
+				pending.add(args);
+				return;
+			}
+		}
+		perform(args);
+	}
+
+	/**
+	 * This function will bring the window to the front, and carry out the arguments on the GUI thread.
+	 *
+	 * @param args - the arguments.
+	 */
+	private static void perform(final List<String> args) {
+		SwingUtilities.invokeLater(new Runnable() {
+			public void run() {
+				CustomTabList tabList = LinkManager.getTabbedList();
+				if (tabList == null) {
+					return;
+				}
+				bringToFront(LinkManager.getFrame());
+
+				// Every path is imported together, so duplicates are resolved and failures reported once.
+				List<File> imports = new ArrayList<File>();
+				for (int i=0; i+1<args.size(); i++) {
+					String option = args.get(i);
+					if (option.equals(TAB)) {
+						showTab(tabList, args.get(++i));
+					}
+					else if (option.equals(RUN)) {
+						runLink(tabList, args.get(++i));
+					}
+					else if (option.equals(IMPORT)) {
+						imports.add(new File(args.get(++i)));
+					}
+				}
+				if (!imports.isEmpty()) {
+					importFiles(tabList, imports);
+				}
+			}
+		});
+	}
+
+	/**
+	 * This function will restore the window if minimized, and bring it in front of other windows.
+	 *
+	 * @param frame - the program's window, or null if there is none.
+	 */
+	private static void bringToFront(JFrame frame) {
+		if (frame == null) {
+			return;
+		}
+		if ((frame.getExtendedState() & Frame.ICONIFIED) != 0) {
+			frame.setExtendedState(frame.getExtendedState() & ~Frame.ICONIFIED);
+		}
+
+		// Windows only lets the program in front raise its windows, but never refuses one that stays on top.
+		frame.setAlwaysOnTop(true);
+		frame.toFront();
+		frame.setAlwaysOnTop(false);
+		frame.requestFocus();
+	}
+
+	/**
+	 * This function will show the tab of the name, adding it if there is none.
+	 *
+	 * @param tabList - the program's tabs.
+	 * @param name - the name of the tab.
+	 */
+	private static void showTab(CustomTabList tabList, String name) {
+		ArrayList<CustomLinkPane> tabs = tabList.getTabList();
+		for (int i=0; i<tabs.size(); i++) {
+			if (tabs.get(i).getLinkList().getName().equalsIgnoreCase(name)) {
+				tabList.setSelectedIndex(i);
+				return;
+			}
+		}
+
+		if (LinkManager.isLocked()) {
+			LinkManager.showLockedMessage();
+			return;
+		}
+		tabList.addTab(name);
+		tabList.setSelectedIndex(tabs.size() - 1);
+	}
+
+	/**
+	 * This function will run the link of the name, looking on the current tab first.
+	 *
+	 * @param tabList - the program's tabs.
+	 * @param name - the name of the link.
+	 */
+	private static void runLink(CustomTabList tabList, String name) {
+		ArrayList<CustomLinkPane> tabs = new ArrayList<CustomLinkPane>(tabList.getTabList());
+		if (tabList.getSelectedIndex() > 0) {
+			tabs.add(0, tabs.remove(tabList.getSelectedIndex()));
+		}
+
+		for (CustomLinkPane pane : tabs) {
+			CustomLinkList list = pane.getLinkList();
+			for (int i=0; i<list.getListSize(); i++) {
+				CustomLink link = list.getLinkAt(i);
+				if (link.getType() != CustomLink.SEP && link.getName().equalsIgnoreCase(name)) {
+					LinkLauncher.getInstance().launch(link);
+					return;
+				}
+			}
+		}
+
+		JOptionPane.showMessageDialog(LinkManager.getFrame(), "There is no link named \"" + name + "\".",
+				"Link Not Found", JOptionPane.ERROR_MESSAGE);
+	}
+
+	/**
+	 * This function will import the files and folders to the current tab.
+	 *
+	 * @param tabList - the program's tabs.
+	 * @param files - the files and folders to import.
+	 */
+	private static void importFiles(CustomTabList tabList, List<File> files) {
+		for (File file : files) {
+			if (!file.exists()) {
+				JOptionPane.showMessageDialog(LinkManager.getFrame(), "The file " + file + " could not be found.",
+						"File I/O Error.", JOptionPane.ERROR_MESSAGE);
+				return;
+			}
+		}
+
+		if (LinkManager.isLocked()) {
+			LinkManager.showLockedMessage();
+			return;
+		}
+		DropTargetHandler.importFiles(tabList.getTabList().get(tabList.getSelectedIndex()), files);
+	}
+}
@@ -0,0 +1,55 @@
+import java.io.PrintWriter;
+import java.util.regex.Pattern;
+
+/**
+ * This class opens SSH sessions, for targets such as "ssh://user@host:22".
+ *
+ * The session is opened in a new command window, using the ssh client included with Windows.
+ * It is registered through META-INF/services/LinkTypeHandler, as an example of a type added
+ * outside of the built-in ones.
+ *
+ * @author Ian Gardea
+ *
+ */
+public class SshLinkHandler extends BatchLinkHandler {
+
+	private static final String PREFIX = "ssh://";
+
+	// The characters of a user name and host, including IPv6 addresses. Anything else, such as
+	// & | < > ^ % or a quote, would be read by the command processor when the batch file runs.
+	private static final Pattern ADDRESS = Pattern.compile("[A-Za-z0-9._@\\[\\]:-]+");
+
+	@Override
+	public String getName() {
+		return "ssh";
+	}
+
+	@Override
+	public String[] getPrefixes() {
+		return new String[] {PREFIX};
+	}
+
+	@Override
+	protected boolean writeCommand(PrintWriter writer, String target) {
+		// Split "user@host:port" into the arguments of the ssh client.
+		String address = target.substring(PREFIX.length());
+		if (address.endsWith("/")) {
+			address = address.substring(0, address.length() - 1);
+		}
+
+		String port = null;
+		int colon = address.lastIndexOf(':');
+		if (colon > address.lastIndexOf('@') && colon < address.length() - 1) {
+			port = address.substring(colon + 1);
+			address = address.substring(0, colon);
+		}
+		// An address starting with - would be read by ssh as an option.
+		if (!ADDRESS.matcher(address).matches() || address.startsWith("-")
+				|| (port != null && !port.matches("\\d+"))) {
+			return false;
+		}
+
+		writer.println("start ssh " + (port == null ? "" : "-p " + port + " ") + address);
+		return true;
+	}
+}
@@ -0,0 +1,164 @@
+import java.awt.GraphicsEnvironment;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+import javax.swing.UnsupportedLookAndFeelException;
+
+/**
+ * This class runs the slow parts of starting the program side by side, and logs how long each
+ * part took, so the time until the window can be used can be tracked between versions.
+ *
+ * Swing's look and feel is loaded on the GUI thread as soon as the program knows no other copy is
+ * running in its folder, while another thread reads the session file. The window is then built
+ * and shown, and the session's tabs are added one at a time as they become available. Once every
+ * tab is shown, the arguments the program was started with, or was handed since, are carried out.
+ *
+ * A training run (--training-run) does the same, then exits once every tab is shown. It is used
+ * to build a class data sharing archive of the classes loaded while starting, which later
+ * launches map from the archive rather than load one by one.
+ *
+ * This class must not refer to LinkManager, as it is used while LinkManager is still being
+ * initialized.
+ *
+ * @author Ian Gardea
+ *
+ */
+class Startup {
+
+	// The time the program started, taken as early as possible.
+	private static final long START = System.nanoTime();
+
+	private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "Startup Loader");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	private static long    interactive = -1;
+	private static boolean training;
+
+	private Startup() {
+	}
+
+	/**
+	 * Starts the startup clock. It must be the program's first step, so the time taken to read
+	 * the settings is logged too; loading this class is what takes the time.
+	 *
+	 */
+	public static void begin() {
+	}
+
+	/**
+	 * Makes this a training run, which ends once the session is shown. Training runs are used to
+	 * save the classes loaded while starting to a class data sharing archive.
+	 *
+	 */
+	public static synchronized void exitWhenFinished() {
+		training = true;
+	}
+
+	/**
+	 * @return - true if this is a training run.
+	 */
+	public static synchronized boolean isTrainingRun() {
+		return training;
+	}
+
+	/**
+	 * Loads the look and feel on the GUI thread, while the program carries on starting.
+	 * Without a screen, there is nothing to load.
+	 *
+	 */
+	public static void loadLookAndFeel() {
+		if (GraphicsEnvironment.isHeadless()) {
+			return;
+		}
+
+		SwingUtilities.invokeLater(new Runnable() {
+			public void run() {
+				// Create Windows look and feel
+				try {
+					UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+				}
+				catch (ClassNotFoundException | InstantiationException | IllegalAccessException | UnsupportedLookAndFeelException e) {
+					e.printStackTrace();
+				}
+				phase("look and feel");
+			}
+		});
+	}
+
+	/**
+	 * This function will read the session file on another thread.
+	 *
+	 * @return - the tabs of the session, once they have been read.
+	 * @param f - the XML session file.
+	 */
+	public static Future<List<SessionDocument.Tab>> readSession(final File f) {
+		return LOADER.submit(new Callable<List<SessionDocument.Tab>>() {
+			public List<SessionDocument.Tab> call() throws Exception {
+				List<SessionDocument.Tab> tabs = SessionDocument.read(f);
+				phase("session read");
+				return tabs;
+			}
+		});
+	}
+
+	/**
+	 * Logs the time taken to reach a point in starting the program.
+	 *
+	 * @param name - the point reached.
+	 */
+	public static void phase(String name) {
+		System.out.println(String.format("Startup: %-16s %5d ms", name, elapsed()));
+	}
+
+	/**
+	 * Logs that the window can be used: it is shown, with the first tab of the session.
+	 *
+	 */
+	public static synchronized void interactive() {
+		if (interactive < 0) {
+			interactive = elapsed();
+			phase("interactive");
+		}
+	}
+
+	/**
+	 * Logs that every tab of the session is shown, and how long starting the program took.
+	 *
+	 */
+	public static synchronized void finished() {
+		interactive();
+		long finished = elapsed();
+		phase("finished");
+
+		// The JVM starts before the program does, and that time is only known once its management classes are loaded.
+		long jvm = ManagementFactory.getRuntimeMXBean().getUptime() - elapsed();
+		System.out.println("Startup: the window could be used after " + interactive + " ms, and every tab was shown after "
+				+ finished + " ms (the JVM took " + jvm + " ms to start the program).");
+		LOADER.shutdown();
+		SingleInstance.ready();
+
+		if (training) {
+			System.exit(0);
+		}
+	}
+
+	/**
+	 * @return - the number of milliseconds since the program started.
+	 */
+	private static long elapsed() {
+		return (System.nanoTime() - START) / 1000000L;
+	}
+}
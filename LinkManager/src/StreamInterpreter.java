@@ -6,10 +6,12 @@ import java.io.InputStreamReader;
 class StreamInterpreter extends Thread {
 	private InputStream is;
 	private String type;
+	private LinkLauncher.Launch launch; // The launch that started the command, whose output this is.
 
 	public StreamInterpreter(InputStream is, String type) {
 		this.is = is;
 		this.type = type;
+		this.launch = LinkLauncher.Launch.current();
 	}
 
 	public void run() {
@@ -19,6 +21,9 @@ class StreamInterpreter extends Thread {
 			String line = null;
 			while ((line = br.readLine()) != null) {
 				System.out.println(type + ">" + line);  
+				if (launch != null) {
+					launch.append(type + ">" + line);
+				}
 			}
  
 		} 
@@ -134,7 +134,6 @@ public class TabInputHandler extends MouseInputAdapter implements KeyListener, C
 			if(!getClipboardContents().equals("")) {
 				CustomLinkPane currentTab = tabPane.getTabList().get(tabPane.getSelectedIndex());
 				currentTab.getLinkList().promptAddLink(getClipboardContents());
-				currentTab.refresh();
 			}
 		}
 	}
@@ -2,10 +2,8 @@ import java.awt.Rectangle;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 
-import javax.swing.DefaultListModel;
 import javax.swing.JTable;
 import javax.swing.SwingUtilities;
-import javax.swing.table.DefaultTableModel;
 
 /**
  * This class will allow re-ordering of elements within a JTable.
@@ -15,17 +13,19 @@ import javax.swing.table.DefaultTableModel;
  */
 class TableTransferHandler extends MouseAdapter {
 
-	// Placing static definitions at the top of this class.
-	private static TableTransferHandler handler;
-
 	/**
-	 * Enables the transfer listener.
+	 * Enables the transfer listener. Each table has its own listener, which is only added once.
 	 * 
 	 * @param table - the JTable to add the listener(s) to.
 	 * @param pane - the CustomLinkPane containing the JTable.
 	 */
 	public static void enableTransferListeners(JTable table, CustomLinkPane pane) {
-		handler = new TableTransferHandler(table, pane);
+		if (table.getClientProperty(TableTransferHandler.class) != null) {
+			return;
+		}
+		
+		TableTransferHandler handler = new TableTransferHandler(table, pane);
+		table.putClientProperty(TableTransferHandler.class, handler);
 		table.addMouseListener(handler);
 		table.addMouseMotionListener(handler);
 	}
@@ -37,8 +37,13 @@ class TableTransferHandler extends MouseAdapter {
 	 * @param pane - the CustomLinkPane containing the JTable.
 	 */
 	public static void disableTransferListeners(JTable table, CustomLinkPane pane) {
-		table.removeMouseListener(handler);
-		table.removeMouseMotionListener(handler);
+		Object handler = table.getClientProperty(TableTransferHandler.class);
+		
+		if (handler instanceof TableTransferHandler) {
+			table.removeMouseListener((TableTransferHandler) handler);
+			table.removeMouseMotionListener((TableTransferHandler) handler);
+			table.putClientProperty(TableTransferHandler.class, null);
+		}
 	}
 
 	private JTable table;
@@ -53,11 +58,8 @@ class TableTransferHandler extends MouseAdapter {
 	 * @param pane - the CustomLinkPane containing the JTable.
 	 */
 	public TableTransferHandler(JTable table, CustomLinkPane pane) {
-		if (!(table.getModel() instanceof DefaultTableModel)) {
-			throw new IllegalArgumentException("List must have a DefaultTableModel");
-		}
-		if (!(pane.getLinkList().getModel() instanceof DefaultListModel)) {
-			throw new IllegalArgumentException("List must have a DefaultTableModel");
+		if (!(table.getModel() instanceof LinkTableModel)) {
+			throw new IllegalArgumentException("Table must have a LinkTableModel");
 		}
 		this.table = table;
 		this.pane = pane;
@@ -79,7 +81,6 @@ class TableTransferHandler extends MouseAdapter {
         // If a row is double-clicked, prompt to re-name the tab.
 		if (rect != null && rect.contains(e.getPoint()) && e.getClickCount() == 2) {
 			pane.getLinkList().promptRenameLink(pressIndex);
-			pane.refresh();
 		}
 		// If row is right-clicked, show the currently assigned target.
 		if(rect != null && rect.contains(e.getPoint()) && SwingUtilities.isRightMouseButton(e)){
@@ -126,9 +127,8 @@ class TableTransferHandler extends MouseAdapter {
 	 */
 	private void reorder() {
 		try{
-			DefaultTableModel model = (DefaultTableModel) table.getModel();
-			model.moveRow(pressIndex, pressIndex, releaseIndex);
-			pane.getLinkList().swapElements(pressIndex, releaseIndex);
+			LinkTableModel model = (LinkTableModel) table.getModel();
+			model.swapRows(pressIndex, releaseIndex);
 		}
 		catch (Exception e) {
 			
@@ -0,0 +1,201 @@
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * This class will interpret an Internet Shortcut's (.url) meta-data, and extract the
+ * true target along with its icon and working directory.
+ *
+ * The file is streamed one line at a time through pooled buffers, so only the
+ * [InternetShortcut] section is ever read, and the rest of the file is skipped.
+ * Both CR/LF and LF line endings are accepted, and lines longer than a few KB are skipped.
+ *
+ * @author Ian Gardea
+ *
+ */
+public class UrlParser {
+
+	private static final String SECTION           = "InternetShortcut";
+	private static final String KEY_URL           = "URL";
+	private static final String KEY_ICON_FILE     = "IconFile";
+	private static final String KEY_WORKING_DIR   = "WorkingDirectory";
+
+	// Lines longer than this are skipped, so a large or binary file is never held in memory.
+	private static final int    MAX_LINE          = 8192;
+
+	private String  url;
+	private String  iconFile;
+	private String  workingDirectory;
+
+	private boolean urlOnly;   // Stop reading as soon as the URL is found.
+	private boolean inSection; // True while reading the [InternetShortcut] section.
+	private boolean done;      // True once nothing else needs to be read.
+
+	/**
+	 * This constructor will read the URL, icon, and working directory of the shortcut.
+	 *
+	 * @param f - the Internet Shortcut file to parse.
+	 */
+	public UrlParser(File f) throws IOException {
+		this(f, false);
+	}
+
+	/**
+	 * @param f - the Internet Shortcut file to parse.
+	 * @param urlOnly - true to stop reading at the first URL entry.
+	 */
+	private UrlParser(File f, boolean urlOnly) throws IOException {
+		this.urlOnly = urlOnly;
+		parse(f);
+	}
+
+	/**
+	 * Reads only as much of the file as is needed to find the target URL.
+	 *
+	 * @return - the URL of the shortcut, or null if none was found.
+	 * @param f - the Internet Shortcut file to parse.
+	 */
+	public static String readUrl(File f) throws IOException {
+		return new UrlParser(f, true).getUrl();
+	}
+
+	/**
+	 * @return - the target URL, or null if none was found.
+	 */
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * @return - the icon file assigned to the shortcut, or null if none was found.
+	 */
+	public String getIconFile() {
+		return iconFile;
+	}
+
+	/**
+	 * @return - the working directory assigned to the shortcut, or null if none was found.
+	 */
+	public String getWorkingDirectory() {
+		return workingDirectory;
+	}
+
+	/**
+	 * This function will stream the file through a pooled buffer, splitting it into lines
+	 * until the section of interest has been read.
+	 *
+	 * @param f - the Internet Shortcut file to parse.
+	 */
+	private void parse(File f) throws IOException {
+		byte[] buff = BufferPool.acquire();
+		byte[] line = BufferPool.acquire();
+		int lineLen = 0;
+		boolean tooLong = false;
+
+		try (FileInputStream fin = new FileInputStream(f)) {
+			int n;
+			while (!done && (n = fin.read(buff)) != -1) {
+				for (int i = 0; i < n && !done; i++) {
+					byte b = buff[i];
+
+					if (b == '\n' || b == '\r') {
+						// A CR/LF pair simply produces an empty line, which is ignored.
+						if (!tooLong) {
+							parseLine(line, lineLen);
+						}
+						lineLen = 0;
+						tooLong = false;
+					}
+					else if (!tooLong) {
+						if (lineLen == line.length) {
+							if (line.length >= MAX_LINE) {
+								// No shortcut has such a line, so skip the rest of it.
+								tooLong = true;
+								continue;
+							}
+							line = Arrays.copyOf(line, Math.min(line.length * 2, MAX_LINE));
+						}
+						line[lineLen++] = b;
+					}
+				}
+			}
+
+			// The last line may not have a line ending.
+			if (!done && !tooLong) {
+				parseLine(line, lineLen);
+			}
+		}
+		finally {
+			BufferPool.release(buff);
+			BufferPool.release(line);
+		}
+	}
+
+	/**
+	 * Interprets a single line of the file.
+	 *
+	 * @param line - the buffer holding the line.
+	 * @param len - the number of bytes in the line.
+	 */
+	private void parseLine(byte[] line, int len) {
+		// Skip leading white space.
+		int start = 0;
+		while (start < len && (line[start] == ' ' || line[start] == '\t')) {
+			start++;
+		}
+		if (start == len) {
+			return;
+		}
+
+		if (line[start] == '[') {
+			// Leaving the section means there is nothing left to read.
+			if (inSection) {
+				done = true;
+				return;
+			}
+
+			int end = start + 1;
+			while (end < len && line[end] != ']') {
+				end++;
+			}
+			inSection = new String(line, start + 1, end - start - 1, Charset.defaultCharset())
+					.trim().equalsIgnoreCase(SECTION);
+		}
+		else if (inSection) {
+			int eq = start;
+			while (eq < len && line[eq] != '=') {
+				eq++;
+			}
+			if (eq == len) {
+				return;
+			}
+
+			String key = new String(line, start, eq - start, Charset.defaultCharset()).trim();
+			if (key.equalsIgnoreCase(KEY_URL)) {
+				if (url == null) {
+					url = value(line, eq, len);
+				}
+			}
+			else if (key.equalsIgnoreCase(KEY_ICON_FILE)) {
+				iconFile = value(line, eq, len);
+			}
+			else if (key.equalsIgnoreCase(KEY_WORKING_DIR)) {
+				workingDirectory = value(line, eq, len);
+			}
+
+			done = url != null && (urlOnly || (iconFile != null && workingDirectory != null));
+		}
+	}
+
+	/**
+	 * @return - the value following the '=' character of a line.
+	 * @param line - the buffer holding the line.
+	 * @param eq - the position of the '=' character.
+	 * @param len - the number of bytes in the line.
+	 */
+	private static String value(byte[] line, int eq, int len) {
+		return new String(line, eq + 1, len - eq - 1, Charset.defaultCharset()).trim();
+	}
+}